@@ -0,0 +1,93 @@
+package com.example.apigateway.benchmark;
+
+import com.example.apigateway.filter.CorsFilter;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.policy.CorsPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CORS handling for a simple request and for preflights answered by the gateway, with the
+ * application.yaml policy. Exchange creation is part of the measured time in the filter
+ * benchmarks, see {@link GatewayFilterBenchmark#emptyExchange()}; {@link #preflightHeaders()}
+ * measures the policy lookup and header writes alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CorsFilterBenchmark {
+
+    private static final WebFilterChain NO_OP_CHAIN = exchange -> Mono.empty();
+
+    private CorsPolicy corsPolicy;
+    private CorsFilter corsFilter;
+    private HttpHeaders preflightHeaders;
+
+    @Setup
+    public void setUp() {
+        corsPolicy = CorsPolicy.builder()
+                .allowedOrigins(List.of("http://localhost:3000", "http://localhost:4200", "http://localhost:8080",
+                        "http://localhost:*", "https://localhost:*"))
+                .allowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"))
+                .allowedHeaders(List.of("*"))
+                .allowCredentials(true)
+                .maxAge(Duration.ofHours(1))
+                .build();
+        corsFilter = new CorsFilter();
+        ReflectionTestUtils.setField(corsFilter, "corsPolicy", corsPolicy);
+        ReflectionTestUtils.setField(corsFilter, "gatewayMetrics", new GatewayMetrics(new SimpleMeterRegistry()));
+        preflightHeaders = new HttpHeaders();
+    }
+
+    @Benchmark
+    public HttpHeaders simpleRequest() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/users/profile")
+                .header(HttpHeaders.ORIGIN, "http://localhost:8080"));
+        corsFilter.filter(exchange, NO_OP_CHAIN).then(exchange.getResponse().setComplete()).block();
+        return exchange.getResponse().getHeaders();
+    }
+
+    @Benchmark
+    public HttpHeaders preflight() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .options("/api/users/profile")
+                .header(HttpHeaders.ORIGIN, "http://localhost:8080")
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET"));
+        corsFilter.filter(exchange, NO_OP_CHAIN).block();
+        return exchange.getResponse().getHeaders();
+    }
+
+    @Benchmark
+    public HttpHeaders preflightPatternOrigin() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .options("/api/users/profile")
+                .header(HttpHeaders.ORIGIN, "http://localhost:5173")
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "POST")
+                .header(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "authorization, content-type"));
+        corsFilter.filter(exchange, NO_OP_CHAIN).block();
+        return exchange.getResponse().getHeaders();
+    }
+
+    @Benchmark
+    public HttpHeaders preflightHeaders() {
+        corsPolicy.lookup("http://localhost:8080").applyPreflightTo(preflightHeaders, null);
+        return preflightHeaders;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.apigateway.benchmark;
+
+import com.example.apigateway.filter.JwtAuthFilter;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.policy.AccessDecision;
+import com.example.apigateway.policy.PathPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@link JwtAuthFilter} invocation against a mock exchange, ending in a no-op chain.
+ * {@link #emptyExchange()} is the baseline cost of building the mock exchange itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GatewayFilterBenchmark {
+
+    private GatewayFilter filter;
+    private String bearer;
+    private String expiredBearer;
+
+    @Setup
+    public void setUp() {
+        PathPolicy pathPolicy = PathPolicy.builder()
+                .add(AccessDecision.PUBLIC, "/api/auth/login")
+                .add(AccessDecision.PUBLIC, "/api/subscriptions/available/**")
+                .add(AccessDecision.ADMIN, "/api/admin/**")
+                .add(AccessDecision.ADMIN, "/api/*/admin/**")
+                .build();
+
+        JwtAuthFilter factory = new JwtAuthFilter();
+        ReflectionTestUtils.setField(factory, "jwtUtil", BenchmarkSupport.jwtUtil(true));
+        ReflectionTestUtils.setField(factory, "pathPolicy", pathPolicy);
+        ReflectionTestUtils.setField(factory, "gatewayMetrics", new GatewayMetrics(new SimpleMeterRegistry()));
+        filter = factory.apply(new JwtAuthFilter.Config());
+
+        bearer = "Bearer " + BenchmarkSupport.token(BenchmarkSupport.SECRET, "alice", "USER", 3_600_000);
+        expiredBearer = "Bearer " + BenchmarkSupport.token(BenchmarkSupport.SECRET, "alice", "USER", -60_000);
+    }
+
+    @Benchmark
+    public MockServerWebExchange emptyExchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/profile"));
+    }
+
+    @Benchmark
+    public ServerHttpResponse publicPath() {
+        return run(MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/subscriptions/available/categories")));
+    }
+
+    @Benchmark
+    public ServerHttpResponse authenticated() {
+        return run(MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/users/profile")
+                .header(HttpHeaders.AUTHORIZATION, bearer)));
+    }
+
+    @Benchmark
+    public ServerHttpResponse missingTokenErrorBody() {
+        return run(MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/users/profile")));
+    }
+
+    @Benchmark
+    public ServerHttpResponse expiredTokenErrorBody() {
+        return run(MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/users/profile")
+                .header(HttpHeaders.AUTHORIZATION, expiredBearer)));
+    }
+
+    @Benchmark
+    public ServerHttpResponse adminForbiddenErrorBody() {
+        return run(MockServerWebExchange.from(MockServerHttpRequest
+                .get("/api/admin/users")
+                .header(HttpHeaders.AUTHORIZATION, bearer)));
+    }
+
+    private ServerHttpResponse run(MockServerWebExchange exchange) {
+        filter.filter(exchange, BenchmarkSupport.NO_OP_CHAIN).block();
+        return exchange.getResponse();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.apigateway.benchmark;
+
+import com.example.apigateway.util.JwtPrincipal;
+import com.example.apigateway.util.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token verification cost for the accept and reject paths, with and without the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtVerificationBenchmark {
+
+    private JwtUtil cached;
+    private JwtUtil uncached;
+
+    private String validToken;
+    private String expiredToken;
+    private String badSignatureToken;
+
+    @Setup
+    public void setUp() {
+        cached = BenchmarkSupport.jwtUtil(true);
+        uncached = BenchmarkSupport.jwtUtil(false);
+
+        validToken = BenchmarkSupport.token(BenchmarkSupport.SECRET, "alice", "USER", 3_600_000);
+        expiredToken = BenchmarkSupport.token(BenchmarkSupport.SECRET, "alice", "USER", -60_000);
+        badSignatureToken = BenchmarkSupport.token("anotherSecretKey12345678901234567890123456", "alice", "USER", 3_600_000);
+    }
+
+    @Benchmark
+    public JwtPrincipal validUncached() {
+        return uncached.verify(validToken);
+    }
+
+    @Benchmark
+    public JwtPrincipal validCached() {
+        return cached.verify(validToken);
+    }
+
+    @Benchmark
+    public JwtPrincipal expired() {
+        return uncached.verify(expiredToken);
+    }
+
+    @Benchmark
+    public JwtPrincipal badSignature() {
+        return uncached.verify(badSignatureToken);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.apigateway.benchmark;
+
+import com.example.apigateway.policy.AccessDecision;
+import com.example.apigateway.policy.PathPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup cost of the compiled path policy as the number of rules grows.
+ * The per-lookup time should stay flat across ruleCount values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PathPolicyBenchmark {
+
+    @Param({"12", "100", "1000"})
+    public int ruleCount;
+
+    private PathPolicy policy;
+
+    @Setup
+    public void setUp() {
+        PathPolicy.Builder builder = PathPolicy.builder()
+                .add(AccessDecision.PUBLIC, "/")
+                .add(AccessDecision.PUBLIC, "/index.html")
+                .add(AccessDecision.PUBLIC, "/static/**")
+                .add(AccessDecision.PUBLIC, "/api/auth/login")
+                .add(AccessDecision.PUBLIC, "/api/auth/register")
+                .add(AccessDecision.PUBLIC, "/api/subscriptions/available/**")
+                .add(AccessDecision.PUBLIC, "/actuator/health/**")
+                .add(AccessDecision.ADMIN, "/api/admin/**")
+                .add(AccessDecision.ADMIN, "/api/*/admin/**");
+
+        // Pad with synthetic service rules up to the requested size
+        for (int i = 9; i < ruleCount; i++) {
+            AccessDecision decision = i % 3 == 0 ? AccessDecision.PUBLIC : AccessDecision.AUTHENTICATED;
+            builder.add(decision, "/api/service-" + i + "/v" + (i % 7) + "/**");
+        }
+        policy = builder.build();
+    }
+
+    @Benchmark
+    public AccessDecision publicPath() {
+        return policy.decide("/api/subscriptions/available/categories");
+    }
+
+    @Benchmark
+    public AccessDecision adminPath() {
+        return policy.decide("/api/user-subscriptions/admin/all");
+    }
+
+    @Benchmark
+    public AccessDecision authenticatedPath() {
+        return policy.decide("/api/user-subscriptions/monthly-cost");
+    }
+
+    @Benchmark
+    public AccessDecision unknownPath() {
+        return policy.decide("/api/does-not-exist/anything/at/all");
+    }
+}
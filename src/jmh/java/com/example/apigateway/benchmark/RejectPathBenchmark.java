@@ -0,0 +1,118 @@
+package com.example.apigateway.benchmark;
+
+import com.example.apigateway.filter.JwtAuthFilter;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.policy.AccessDecision;
+import com.example.apigateway.policy.PathPolicy;
+import com.example.apigateway.util.JsonErrorBody;
+import com.example.apigateway.util.JwtUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of turning away a replayed bad token: full {@link JwtAuthFilter} rejections with and
+ * without the negative cache, and the error body itself, template vs. ObjectMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RejectPathBenchmark {
+
+    private static final JsonErrorBody INVALID_TOKEN = JsonErrorBody.of("Invalid or expired token", 401);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private GatewayFilter negativeCached;
+    private GatewayFilter uncached;
+
+    private String badSignatureBearer;
+    private String expiredBearer;
+
+    @Setup
+    public void setUp() {
+        negativeCached = filter(BenchmarkSupport.jwtUtil(true, true));
+        uncached = filter(BenchmarkSupport.jwtUtil(true, false));
+
+        badSignatureBearer = "Bearer " + BenchmarkSupport.token("anotherSecretKey12345678901234567890123456", "alice", "USER", 3_600_000);
+        expiredBearer = "Bearer " + BenchmarkSupport.token(BenchmarkSupport.SECRET, "alice", "USER", -60_000);
+    }
+
+    private static GatewayFilter filter(JwtUtil jwtUtil) {
+        JwtAuthFilter factory = new JwtAuthFilter();
+        ReflectionTestUtils.setField(factory, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(factory, "pathPolicy", PathPolicy.builder()
+                .add(AccessDecision.PUBLIC, "/api/auth/login")
+                .build());
+        ReflectionTestUtils.setField(factory, "gatewayMetrics", new GatewayMetrics(new SimpleMeterRegistry()));
+        return factory.apply(new JwtAuthFilter.Config());
+    }
+
+    @Benchmark
+    public ServerHttpResponse badSignatureUncached() {
+        return run(uncached, badSignatureBearer);
+    }
+
+    @Benchmark
+    public ServerHttpResponse badSignatureNegativeCached() {
+        return run(negativeCached, badSignatureBearer);
+    }
+
+    @Benchmark
+    public ServerHttpResponse expiredUncached() {
+        return run(uncached, expiredBearer);
+    }
+
+    @Benchmark
+    public ServerHttpResponse expiredNegativeCached() {
+        return run(negativeCached, expiredBearer);
+    }
+
+    @Benchmark
+    public ServerHttpResponse missingToken() {
+        return run(negativeCached, null);
+    }
+
+    @Benchmark
+    public byte[] errorBodyTemplate() {
+        return INVALID_TOKEN.render(System.currentTimeMillis());
+    }
+
+    // What onError used to do for every rejection
+    @Benchmark
+    public byte[] errorBodyObjectMapper() throws JsonProcessingException {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", "Invalid or expired token");
+        errorResponse.put("timestamp", System.currentTimeMillis());
+        errorResponse.put("status", 401);
+        return objectMapper.writeValueAsString(errorResponse).getBytes();
+    }
+
+    private static ServerHttpResponse run(GatewayFilter filter, String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/users/profile");
+        if (authorization != null) {
+            request.header(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, BenchmarkSupport.NO_OP_CHAIN).block();
+        return exchange.getResponse();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.apigateway.benchmark;
+
+import com.example.apigateway.routing.RouteIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route matching cost for 10 vs 1,000 routes: the prefix index used by the gateway against
+ * testing every route's path pattern in order, which is what the default handler mapping does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RouteIndexBenchmark {
+
+    @Param({"10", "1000"})
+    public int routeCount;
+
+    private RouteIndex<String> index;
+    private List<PathPattern> patterns;
+    private PathContainer[] paths;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        RouteIndex.Builder<String> builder = RouteIndex.builder();
+        patterns = new ArrayList<>();
+        for (int i = 0; i < routeCount; i++) {
+            String pattern = "/api/service-" + i + "/**";
+            builder.add(pattern, Set.of(), 0, "route-" + i);
+            patterns.add(PathPatternParser.defaultInstance.parse(pattern));
+        }
+        index = builder.build();
+
+        // Uniformly spread over the table, so the linear scan sees its average case
+        Random random = new Random(42);
+        paths = new PathContainer[1024];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = PathContainer.parsePath("/api/service-" + random.nextInt(routeCount) + "/items/" + i);
+        }
+    }
+
+    private PathContainer nextPath() {
+        return paths[next++ & (paths.length - 1)];
+    }
+
+    @Benchmark
+    public String indexed() {
+        return index.match(nextPath(), HttpMethod.GET);
+    }
+
+    @Benchmark
+    public PathPattern linearScan() {
+        PathContainer path = nextPath();
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return pattern;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.apigateway.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms for one scenario.
+ *
+ * <p>{@code corrected} is measured from the request's intended start time in the arrival schedule,
+ * so stalls in the gateway (or the generator) are charged to every request they delayed.
+ * {@code service} is measured from the moment the request was actually sent.
+ */
+final class LatencyStats {
+
+    private static final long MAX_TRACKABLE = TimeUnit.MINUTES.toNanos(2);
+
+    final Histogram corrected = new ConcurrentHistogram(MAX_TRACKABLE, 3);
+    final Histogram service = new ConcurrentHistogram(MAX_TRACKABLE, 3);
+    final LongAdder unexpectedStatus = new LongAdder();
+    final LongAdder failures = new LongAdder();
+
+    void record(long intendedStart, long actualStart, long end) {
+        corrected.recordValue(Math.min(end - intendedStart, MAX_TRACKABLE));
+        service.recordValue(Math.min(end - actualStart, MAX_TRACKABLE));
+    }
+
+    void add(LatencyStats other) {
+        corrected.add(other.corrected);
+        service.add(other.service);
+        unexpectedStatus.add(other.unexpectedStatus.sum());
+        failures.add(other.failures.sum());
+    }
+
+    long count() {
+        return corrected.getTotalCount();
+    }
+
+    static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1_000_000.0;
+    }
+}
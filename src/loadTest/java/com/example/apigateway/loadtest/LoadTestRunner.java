@@ -0,0 +1,256 @@
+package com.example.apigateway.loadtest;
+
+import com.example.apigateway.ApiGatewayApplication;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model (constant arrival rate) load test for the gateway.
+ *
+ * <p>Starts stub backends on the ports used by {@code GatewayConfig}, starts the gateway in-process
+ * (unless {@code loadtest.target} points at an external one) and fires the {@link Scenario} mix
+ * on a fixed schedule. Requests are never held back waiting for earlier responses, and latency is
+ * measured from the scheduled start time, which corrects for coordinated omission.
+ *
+ * <p>Settings are read from {@code loadtest.*} system properties, see {@code ./gradlew loadTest}.
+ */
+public final class LoadTestRunner {
+
+    private static final Map<String, Integer> BACKENDS = Map.of(
+            "user-service", 8081,
+            "subscription-service", 8082,
+            "user-subscription-service", 8083,
+            "email-service", 8084);
+
+    private final int rate = Integer.getInteger("loadtest.rate", 500);
+    private final Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmupSeconds", 10));
+    private final Duration duration = Duration.ofSeconds(Long.getLong("loadtest.durationSeconds", 30));
+    private final Duration stubLatency = Duration.ofMillis(Long.getLong("loadtest.stubLatencyMs", 5));
+    private final int payloadBytes = Integer.getInteger("loadtest.payloadBytes", 1024);
+    private final int maxInFlight = Integer.getInteger("loadtest.maxInFlight", 10_000);
+    private final String target = System.getProperty("loadtest.target", "");
+    private final String secret = System.getProperty("loadtest.secret", "mySecretKey123456789012345678901234567890");
+    private final String resultsFile = System.getProperty("loadtest.resultsFile", "");
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner().run(args);
+    }
+
+    private void run(String[] gatewayArgs) throws Exception {
+        List<StubBackend> stubs = new ArrayList<>();
+        ConfigurableApplicationContext gateway = null;
+        ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(maxInFlight)
+                .pendingAcquireMaxCount(-1)
+                .build();
+
+        try {
+            BACKENDS.forEach((name, port) -> stubs.add(StubBackend.start(name, port, stubLatency, payloadBytes)));
+
+            String baseUrl = target;
+            if (baseUrl.isEmpty()) {
+                gateway = SpringApplication.run(ApiGatewayApplication.class, gatewayArgs);
+                baseUrl = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port", "8080");
+            }
+
+            HttpClient client = HttpClient.create(connections).baseUrl(baseUrl);
+            String userToken = "Bearer " + token("loadtest-user", "USER");
+            String adminToken = "Bearer " + token("loadtest-admin", "ADMIN");
+
+            System.out.printf(Locale.ROOT, "Warming up for %ds at %d req/s against %s%n", warmup.toSeconds(), rate, baseUrl);
+            drive(client, userToken, adminToken, warmup);
+
+            System.out.printf(Locale.ROOT, "Measuring for %ds at %d req/s%n", duration.toSeconds(), rate);
+            long start = System.nanoTime();
+            Map<Scenario, LatencyStats> stats = drive(client, userToken, adminToken, duration);
+            long elapsed = System.nanoTime() - start;
+
+            report(stats, elapsed, System.out);
+            if (!resultsFile.isEmpty()) {
+                writeJson(stats, elapsed, Path.of(resultsFile));
+            }
+        } finally {
+            connections.disposeLater().block(Duration.ofSeconds(5));
+            if (gateway != null) {
+                gateway.close();
+            }
+            stubs.forEach(StubBackend::close);
+        }
+    }
+
+    private Map<Scenario, LatencyStats> drive(HttpClient client, String userToken, String adminToken, Duration length) {
+        Map<Scenario, LatencyStats> stats = new EnumMap<>(Scenario.class);
+        for (Scenario scenario : Scenario.values()) {
+            stats.put(scenario, new LatencyStats());
+        }
+
+        Scenario[] mix = weightedMix();
+        SplittableRandom random = new SplittableRandom(42);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = length.toSeconds() * rate;
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * interval;
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Scenario scenario = mix[random.nextInt(mix.length)];
+            LatencyStats scenarioStats = stats.get(scenario);
+
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                scenarioStats.failures.increment();
+                continue;
+            }
+            send(client, scenario, scenarioStats, userToken, adminToken, intendedStart);
+        }
+
+        // Let the tail of the schedule complete before reading the histograms
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return stats;
+    }
+
+    private void send(HttpClient client, Scenario scenario, LatencyStats stats,
+                      String userToken, String adminToken, long intendedStart) {
+        long actualStart = System.nanoTime();
+
+        client.headers(headers -> {
+                    switch (scenario) {
+                        case AUTHENTICATED -> headers.set(HttpHeaderNames.AUTHORIZATION, userToken);
+                        case ADMIN -> headers.set(HttpHeaderNames.AUTHORIZATION, adminToken);
+                        case INVALID_TOKEN -> headers.set(HttpHeaderNames.AUTHORIZATION, "Bearer not.a.valid-token");
+                        case PREFLIGHT -> headers
+                                .set(HttpHeaderNames.ORIGIN, "http://localhost:8080")
+                                .set(HttpHeaderNames.ACCESS_CONTROL_REQUEST_METHOD, "GET");
+                        default -> {
+                        }
+                    }
+                })
+                .request(scenario.method())
+                .uri(scenario.path())
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                .subscribe(
+                        status -> {
+                            stats.record(intendedStart, actualStart, System.nanoTime());
+                            if (status != scenario.expectedStatus()) {
+                                stats.unexpectedStatus.increment();
+                            }
+                        },
+                        error -> {
+                            stats.failures.increment();
+                            inFlight.decrementAndGet();
+                        },
+                        inFlight::decrementAndGet);
+    }
+
+    private static Scenario[] weightedMix() {
+        List<Scenario> mix = new ArrayList<>();
+        for (Scenario scenario : Scenario.values()) {
+            for (int i = 0; i < scenario.weight(); i++) {
+                mix.add(scenario);
+            }
+        }
+        return mix.toArray(new Scenario[0]);
+    }
+
+    private String token(String subject, String role) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject(subject)
+                .claim("role", role)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + TimeUnit.HOURS.toMillis(2)))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                .compact();
+    }
+
+    private static void report(Map<Scenario, LatencyStats> stats, long elapsedNanos, PrintStream out) {
+        LatencyStats all = new LatencyStats();
+        stats.values().forEach(all::add);
+
+        out.printf(Locale.ROOT, "%nThroughput: %.1f req/s (%d completed)%n",
+                all.count() / (elapsedNanos / 1e9), all.count());
+        out.printf(Locale.ROOT, "%-15s %9s %9s %9s %9s %9s %9s %7s %7s%n",
+                "scenario", "count", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "svc p99", "status", "failed");
+        stats.forEach((scenario, s) -> row(out, scenario.name(), s));
+        row(out, "ALL", all);
+        out.println("Percentiles are coordinated-omission corrected; 'svc p99' is measured from actual send time.");
+    }
+
+    private static void row(PrintStream out, String name, LatencyStats s) {
+        out.printf(Locale.ROOT, "%-15s %9d %9.2f %9.2f %9.2f %9.2f %9.2f %7d %7d%n",
+                name, s.count(),
+                LatencyStats.millis(s.corrected, 50),
+                LatencyStats.millis(s.corrected, 99),
+                LatencyStats.millis(s.corrected, 99.9),
+                s.corrected.getMaxValue() / 1_000_000.0,
+                LatencyStats.millis(s.service, 99),
+                s.unexpectedStatus.sum(),
+                s.failures.sum());
+    }
+
+    private void writeJson(Map<Scenario, LatencyStats> stats, long elapsedNanos, Path file) throws IOException {
+        StringBuilder json = new StringBuilder()
+                .append("{\"rate\":").append(rate)
+                .append(",\"durationSeconds\":").append(duration.toSeconds())
+                .append(",\"stubLatencyMs\":").append(stubLatency.toMillis())
+                .append(",\"payloadBytes\":").append(payloadBytes)
+                .append(",\"elapsedSeconds\":").append(elapsedNanos / 1e9)
+                .append(",\"scenarios\":{");
+        boolean first = true;
+        for (Map.Entry<Scenario, LatencyStats> entry : stats.entrySet()) {
+            LatencyStats s = entry.getValue();
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(entry.getKey().name()).append("\":{")
+                    .append("\"count\":").append(s.count())
+                    .append(",\"p50Ms\":").append(LatencyStats.millis(s.corrected, 50))
+                    .append(",\"p99Ms\":").append(LatencyStats.millis(s.corrected, 99))
+                    .append(",\"p999Ms\":").append(LatencyStats.millis(s.corrected, 99.9))
+                    .append(",\"maxMs\":").append(s.corrected.getMaxValue() / 1_000_000.0)
+                    .append(",\"serviceP99Ms\":").append(LatencyStats.millis(s.service, 99))
+                    .append(",\"unexpectedStatus\":").append(s.unexpectedStatus.sum())
+                    .append(",\"failures\":").append(s.failures.sum())
+                    .append('}');
+        }
+        json.append("}}");
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Files.writeString(file, json);
+        System.out.println("Results written to " + file);
+    }
+}
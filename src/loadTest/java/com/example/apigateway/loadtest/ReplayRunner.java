@@ -0,0 +1,310 @@
+package com.example.apigateway.loadtest;
+
+import com.example.apigateway.ApiGatewayApplication;
+import com.example.apigateway.capture.CaptureLog;
+import com.example.apigateway.capture.CaptureRecord;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpMethod;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Re-drives a capture log ({@code gateway.capture}) against the gateway and local stub backends.
+ *
+ * <p>Requests go out on the captured schedule, divided by {@code replay.speed}, with idle gaps
+ * longer than {@code replay.maxGapMs} shortened to that. Each captured caller gets a token of
+ * its own with the captured role, rejected tokens are replayed as invalid ones, request bodies
+ * are filler of the captured size and the stubs answer with the captured response size. The
+ * same log therefore produces the same traffic on every run, so latency percentiles per route
+ * can be compared across builds; the captured gateway latency is shown next to them.
+ *
+ * <p>Settings are read from {@code replay.*} system properties, see {@code ./gradlew replay}.
+ */
+public final class ReplayRunner {
+
+    private static final Map<String, Integer> BACKENDS = Map.of(
+            "user-service", 8081,
+            "subscription-service", 8082,
+            "user-subscription-service", 8083,
+            "email-service", 8084);
+
+    private static final String NO_ROUTE = "(no route)";
+    private static final int MAX_REQUEST_BYTES = 1024 * 1024;
+    private static final long MAX_TRACKABLE = TimeUnit.MINUTES.toNanos(2);
+
+    private final String file = System.getProperty("replay.file", "");
+    private final double speed = Double.parseDouble(System.getProperty("replay.speed", "1.0"));
+    private final long maxGapNanos = TimeUnit.MILLISECONDS.toNanos(Long.getLong("replay.maxGapMs", 1000));
+    private final long limit = Long.getLong("replay.limit", Long.MAX_VALUE);
+    private final Duration warmup = Duration.ofSeconds(Long.getLong("replay.warmupSeconds", 10));
+    private final Duration stubLatency = Duration.ofMillis(Long.getLong("replay.stubLatencyMs", 5));
+    private final int maxInFlight = Integer.getInteger("replay.maxInFlight", 10_000);
+    private final String target = System.getProperty("replay.target", "");
+    private final String secret = System.getProperty("replay.secret", "mySecretKey123456789012345678901234567890");
+    private final String resultsFile = System.getProperty("replay.resultsFile", "");
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<String, RouteStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, String> tokens = new HashMap<>();
+
+    public static void main(String[] args) throws Exception {
+        new ReplayRunner().run(args);
+    }
+
+    private void run(String[] gatewayArgs) throws Exception {
+        if (file.isEmpty() || !Files.exists(Path.of(file))) {
+            throw new IllegalArgumentException("set replay.file to a capture log, got '" + file + "'");
+        }
+        if (speed <= 0) {
+            throw new IllegalArgumentException("replay.speed must be positive");
+        }
+
+        List<StubBackend> stubs = new ArrayList<>();
+        ConfigurableApplicationContext gateway = null;
+        ConnectionProvider connections = ConnectionProvider.builder("replay")
+                .maxConnections(maxInFlight)
+                .pendingAcquireMaxCount(-1)
+                .build();
+
+        try {
+            BACKENDS.forEach((name, port) -> stubs.add(StubBackend.start(name, port, stubLatency, 1024)));
+
+            String baseUrl = target;
+            if (baseUrl.isEmpty()) {
+                gateway = SpringApplication.run(ApiGatewayApplication.class, gatewayArgs);
+                baseUrl = "http://localhost:" + gateway.getEnvironment().getProperty("local.server.port", "8080");
+            }
+            HttpClient client = HttpClient.create(connections).baseUrl(baseUrl);
+
+            if (!warmup.isZero()) {
+                // The head of the log, unrecorded, so a cold JVM does not skew the percentiles
+                System.out.printf(Locale.ROOT, "Warming up for up to %ds against %s%n", warmup.toSeconds(), baseUrl);
+                replay(client, warmup.toNanos());
+                awaitInFlight();
+                stats.clear();
+            }
+
+            System.out.printf(Locale.ROOT, "Replaying %s at %.2fx against %s%n", file, speed, baseUrl);
+            long start = System.nanoTime();
+            long sent = replay(client, Long.MAX_VALUE);
+            awaitInFlight();
+            long elapsed = System.nanoTime() - start;
+
+            report(sent, elapsed, System.out);
+            if (!resultsFile.isEmpty()) {
+                writeJson(sent, elapsed, Path.of(resultsFile));
+            }
+        } finally {
+            connections.disposeLater().block(Duration.ofSeconds(5));
+            if (gateway != null) {
+                gateway.close();
+            }
+            stubs.forEach(StubBackend::close);
+        }
+    }
+
+    private void awaitInFlight() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    // Replays the log on its schedule until the end, replay.limit requests or maxNanos of schedule
+    private long replay(HttpClient client, long maxNanos) throws IOException {
+        long sent = 0;
+        try (CaptureLog.Reader reader = CaptureLog.open(Path.of(file))) {
+            long start = System.nanoTime();
+            long offset = 0;
+            long previousMicros = -1;
+            CaptureRecord record;
+            while (sent < limit && (record = reader.next()) != null) {
+                if (previousMicros >= 0) {
+                    long gap = (long) (TimeUnit.MICROSECONDS.toNanos(Math.max(0, record.epochMicros() - previousMicros)) / speed);
+                    offset += Math.min(gap, maxGapNanos);
+                    if (offset > maxNanos) {
+                        break;
+                    }
+                }
+                previousMicros = record.epochMicros();
+
+                long intendedStart = start + offset;
+                long wait;
+                while ((wait = intendedStart - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                RouteStats routeStats = stats.computeIfAbsent(
+                        record.routeId() != null ? record.routeId() : NO_ROUTE, id -> new RouteStats());
+                routeStats.recorded.recordValue(Math.min(TimeUnit.MICROSECONDS.toNanos(record.latencyMicros()), MAX_TRACKABLE));
+                sent++;
+                if (inFlight.incrementAndGet() > maxInFlight) {
+                    inFlight.decrementAndGet();
+                    routeStats.replayed.failures.increment();
+                    continue;
+                }
+                send(client, record, routeStats.replayed, intendedStart);
+            }
+        }
+        return sent;
+    }
+
+    private void send(HttpClient client, CaptureRecord record, LatencyStats stats, long intendedStart) {
+        String authorization = switch (record.auth()) {
+            case CaptureRecord.AUTH_VERIFIED -> "Bearer " + token(record.subjectHash(), record.role());
+            case CaptureRecord.AUTH_REJECTED -> "Bearer not.a.valid-token";
+            default -> null;
+        };
+        String uri = record.query() != null ? record.path() + "?" + record.query() : record.path();
+        String body = record.requestBytes() > 0 ? "x".repeat((int) Math.min(record.requestBytes(), MAX_REQUEST_BYTES)) : null;
+
+        HttpClient.RequestSender request = client.headers(headers -> {
+                    record.headers().forEach(headers::set);
+                    if (authorization != null) {
+                        headers.set(HttpHeaderNames.AUTHORIZATION, authorization);
+                    }
+                    if (body != null) {
+                        headers.set(HttpHeaderNames.CONTENT_LENGTH, body.length());
+                    }
+                    if (record.responseBytes() > 0) {
+                        headers.set(StubBackend.RESPONSE_BYTES_HEADER, String.valueOf(record.responseBytes()));
+                    }
+                })
+                .request(HttpMethod.valueOf(record.method()))
+                .uri(uri);
+        HttpClient.ResponseReceiver<?> receiver = body != null
+                ? request.send(ByteBufFlux.fromString(Mono.just(body), StandardCharsets.US_ASCII, ByteBufAllocator.DEFAULT))
+                : request;
+
+        long actualStart = System.nanoTime();
+        receiver.responseSingle((response, content) -> content.then(Mono.just(response.status().code())))
+                .subscribe(
+                        status -> {
+                            stats.record(intendedStart, actualStart, System.nanoTime());
+                            if (status != record.status()) {
+                                stats.unexpectedStatus.increment();
+                            }
+                        },
+                        error -> {
+                            stats.failures.increment();
+                            inFlight.decrementAndGet();
+                        },
+                        inFlight::decrementAndGet);
+    }
+
+    // One token per captured caller; only called from the replay thread
+    private String token(long subjectHash, String role) {
+        String subject = "replay-" + Long.toHexString(subjectHash);
+        return tokens.computeIfAbsent(subject + "/" + role, key -> {
+            long now = System.currentTimeMillis();
+            return Jwts.builder()
+                    .subject(subject)
+                    .claim("role", role != null ? role : "USER")
+                    .issuedAt(new Date(now))
+                    .expiration(new Date(now + TimeUnit.HOURS.toMillis(12)))
+                    .signWith(Keys.hmacShaKeyFor(secret.getBytes()))
+                    .compact();
+        });
+    }
+
+    private void report(long sent, long elapsedNanos, PrintStream out) {
+        LatencyStats all = new LatencyStats();
+        Histogram recordedAll = new ConcurrentHistogram(MAX_TRACKABLE, 3);
+        stats.values().forEach(s -> {
+            all.add(s.replayed);
+            recordedAll.add(s.recorded);
+        });
+
+        out.printf(Locale.ROOT, "%nReplayed %d requests in %.1fs (%.1f req/s)%n",
+                sent, elapsedNanos / 1e9, all.count() / (elapsedNanos / 1e9));
+        out.printf(Locale.ROOT, "%-28s %8s %9s %9s %9s %9s %11s %11s %7s %7s%n",
+                "route", "count", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "capt p50", "capt p99", "status", "failed");
+        new TreeMap<>(stats).forEach((route, s) -> row(out, route, s.replayed, s.recorded));
+        row(out, "ALL", all, recordedAll);
+        out.println("Percentiles are coordinated-omission corrected; 'capt' is the gateway latency when captured;");
+        out.println("'status' counts responses whose status differs from the captured one.");
+    }
+
+    private static void row(PrintStream out, String name, LatencyStats s, Histogram recorded) {
+        out.printf(Locale.ROOT, "%-28s %8d %9.2f %9.2f %9.2f %9.2f %11.2f %11.2f %7d %7d%n",
+                name, s.count(),
+                LatencyStats.millis(s.corrected, 50),
+                LatencyStats.millis(s.corrected, 99),
+                LatencyStats.millis(s.corrected, 99.9),
+                s.corrected.getMaxValue() / 1_000_000.0,
+                LatencyStats.millis(recorded, 50),
+                LatencyStats.millis(recorded, 99),
+                s.unexpectedStatus.sum(),
+                s.failures.sum());
+    }
+
+    private void writeJson(long sent, long elapsedNanos, Path results) throws IOException {
+        StringBuilder json = new StringBuilder()
+                .append("{\"file\":\"").append(Path.of(file).getFileName()).append('"')
+                .append(",\"speed\":").append(speed)
+                .append(",\"requests\":").append(sent)
+                .append(",\"stubLatencyMs\":").append(stubLatency.toMillis())
+                .append(",\"elapsedSeconds\":").append(elapsedNanos / 1e9)
+                .append(",\"routes\":{");
+        boolean first = true;
+        for (Map.Entry<String, RouteStats> entry : new TreeMap<>(stats).entrySet()) {
+            LatencyStats s = entry.getValue().replayed;
+            Histogram recorded = entry.getValue().recorded;
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(entry.getKey()).append("\":{")
+                    .append("\"count\":").append(s.count())
+                    .append(",\"p50Ms\":").append(LatencyStats.millis(s.corrected, 50))
+                    .append(",\"p99Ms\":").append(LatencyStats.millis(s.corrected, 99))
+                    .append(",\"p999Ms\":").append(LatencyStats.millis(s.corrected, 99.9))
+                    .append(",\"maxMs\":").append(s.corrected.getMaxValue() / 1_000_000.0)
+                    .append(",\"capturedP50Ms\":").append(LatencyStats.millis(recorded, 50))
+                    .append(",\"capturedP99Ms\":").append(LatencyStats.millis(recorded, 99))
+                    .append(",\"statusMismatches\":").append(s.unexpectedStatus.sum())
+                    .append(",\"failures\":").append(s.failures.sum())
+                    .append('}');
+        }
+        json.append("}}");
+
+        if (results.getParent() != null) {
+            Files.createDirectories(results.getParent());
+        }
+        Files.writeString(results, json);
+        System.out.println("Results written to " + results);
+    }
+
+    private static final class RouteStats {
+
+        final LatencyStats replayed = new LatencyStats();
+        final Histogram recorded = new ConcurrentHistogram(MAX_TRACKABLE, 3);
+    }
+}
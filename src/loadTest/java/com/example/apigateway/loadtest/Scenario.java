@@ -0,0 +1,43 @@
+package com.example.apigateway.loadtest;
+
+import io.netty.handler.codec.http.HttpMethod;
+
+/**
+ * Request types in the traffic mix. Weights are relative and need not add up to 100.
+ */
+public enum Scenario {
+
+    AUTHENTICATED(HttpMethod.GET, "/api/users/profile", 200, 50),
+    PUBLIC(HttpMethod.GET, "/api/subscriptions/available", 200, 20),
+    ADMIN(HttpMethod.GET, "/api/admin/users", 200, 10),
+    PREFLIGHT(HttpMethod.OPTIONS, "/api/user-subscriptions", 200, 10),
+    INVALID_TOKEN(HttpMethod.GET, "/api/user-subscriptions", 401, 10);
+
+    private final HttpMethod method;
+    private final String path;
+    private final int expectedStatus;
+    private final int weight;
+
+    Scenario(HttpMethod method, String path, int expectedStatus, int weight) {
+        this.method = method;
+        this.path = path;
+        this.expectedStatus = expectedStatus;
+        this.weight = weight;
+    }
+
+    public HttpMethod method() {
+        return method;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    public int expectedStatus() {
+        return expectedStatus;
+    }
+
+    public int weight() {
+        return weight;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.apigateway.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Startup comparison of the gateway packagings: the boot jar, and the fast-start jar run plain,
+ * with the AOT-processed context, and with AOT plus its AppCDS archive.
+ *
+ * <p>Each run launches a fresh JVM against stub backends and measures the time from process
+ * start to the first successful proxied request (a public route, so the whole filter chain and
+ * upstream client are on the path), then the process's resident memory at that point.
+ * Variants whose files are missing are skipped. Settings are {@code startup.*} system
+ * properties, see {@code ./gradlew startupBenchmark}.
+ */
+public final class StartupBenchmark {
+
+    private static final Map<String, Integer> BACKENDS = Map.of(
+            "user-service", 8081,
+            "subscription-service", 8082,
+            "user-subscription-service", 8083,
+            "email-service", 8084);
+
+    private static final String PROBE_PATH = "/api/subscriptions/available/plans";
+
+    private final int runs = Integer.getInteger("startup.runs", 5);
+    private final int port = Integer.getInteger("startup.port", 8080);
+    private final Duration timeout = Duration.ofSeconds(Long.getLong("startup.timeoutSeconds", 120));
+    private final String bootJar = System.getProperty("startup.bootJar", "build/libs/ApiGateway-1.0.0.jar");
+    private final Path fastStartDir = Path.of(System.getProperty("startup.fastStartDir", "build/fast-start"));
+    private final String resultsFile = System.getProperty("startup.resultsFile", "");
+
+    private final HttpClient probe = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        new StartupBenchmark().run();
+    }
+
+    private void run() throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String fastStartJar = fastStartDir.resolve("app.jar").toString();
+        String archive = fastStartDir.resolve("app.jsa").toString();
+
+        Map<String, List<String>> variants = new LinkedHashMap<>();
+        if (Files.exists(Path.of(bootJar))) {
+            variants.put("boot-jar", List.of(java, "-jar", bootJar));
+        }
+        if (Files.exists(Path.of(fastStartJar))) {
+            // Same layout without AOT and CDS, separating their effect from the packaging
+            variants.put("plain", List.of(java, "-jar", fastStartJar));
+            variants.put("aot", List.of(java, "-Dspring.aot.enabled=true", "-jar", fastStartJar));
+            if (Files.exists(Path.of(archive))) {
+                variants.put("aot-cds", List.of(java, "-XX:SharedArchiveFile=" + archive,
+                        "-Dspring.aot.enabled=true", "-jar", fastStartJar));
+            }
+        }
+        if (variants.isEmpty()) {
+            throw new IllegalStateException("nothing to run: neither " + bootJar + " nor " + fastStartJar + " exists");
+        }
+
+        List<StubBackend> stubs = new ArrayList<>();
+        Map<String, List<Sample>> samples = new LinkedHashMap<>();
+        variants.keySet().forEach(name -> samples.put(name, new ArrayList<>()));
+        try {
+            BACKENDS.forEach((name, backendPort) -> stubs.add(StubBackend.start(name, backendPort, Duration.ZERO, 256)));
+
+            // Interleaved, so drift on the machine hits every variant alike
+            for (int run = 1; run <= runs; run++) {
+                for (Map.Entry<String, List<String>> variant : variants.entrySet()) {
+                    Sample sample = measure(variant.getValue());
+                    samples.get(variant.getKey()).add(sample);
+                    System.out.printf(Locale.ROOT, "run %d %-8s first request %6d ms, RSS %4d MB%n",
+                            run, variant.getKey(), sample.firstRequestMillis(), sample.rssKb() / 1024);
+                }
+            }
+        } finally {
+            stubs.forEach(StubBackend::close);
+        }
+
+        report(samples, System.out);
+        if (!resultsFile.isEmpty()) {
+            writeJson(samples, Path.of(resultsFile));
+        }
+    }
+
+    private Sample measure(List<String> command) throws Exception {
+        List<String> args = new ArrayList<>(command);
+        args.add("--server.port=" + port);
+        ProcessBuilder builder = new ProcessBuilder(args)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD);
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + PROBE_PATH))
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            long deadline = start + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("gateway exited with " + process.exitValue() + ": " + command);
+                }
+                try {
+                    if (probe.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long elapsed = System.nanoTime() - start;
+                        return new Sample(TimeUnit.NANOSECONDS.toMillis(elapsed), rssKb(process.pid()));
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("no successful request within " + timeout.toSeconds() + "s: " + command);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // Linux only; -1 elsewhere
+    private static long rssKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not available on this platform
+        }
+        return -1;
+    }
+
+    private static void report(Map<String, List<Sample>> samples, PrintStream out) {
+        out.printf(Locale.ROOT, "%n%-10s %5s %12s %12s %12s%n", "variant", "runs", "median ms", "min ms", "median RSS MB");
+        samples.forEach((name, list) -> out.printf(Locale.ROOT, "%-10s %5d %12d %12d %12d%n",
+                name, list.size(), median(list, Sample::firstRequestMillis),
+                list.stream().mapToLong(Sample::firstRequestMillis).min().orElse(0),
+                median(list, Sample::rssKb) / 1024));
+        out.println("Time is from process start to the first proxied 200 on " + PROBE_PATH + ".");
+    }
+
+    private void writeJson(Map<String, List<Sample>> samples, Path file) throws IOException {
+        StringBuilder json = new StringBuilder().append("{\"runs\":").append(runs).append(",\"variants\":{");
+        boolean first = true;
+        for (Map.Entry<String, List<Sample>> entry : samples.entrySet()) {
+            List<Sample> list = entry.getValue();
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(entry.getKey()).append("\":{")
+                    .append("\"medianFirstRequestMs\":").append(median(list, Sample::firstRequestMillis))
+                    .append(",\"minFirstRequestMs\":").append(list.stream().mapToLong(Sample::firstRequestMillis).min().orElse(0))
+                    .append(",\"medianRssKb\":").append(median(list, Sample::rssKb))
+                    .append('}');
+        }
+        json.append("}}");
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, json);
+        System.out.println("Results written to " + file);
+    }
+
+    private static long median(List<Sample> samples, ToLongFunction<Sample> metric) {
+        long[] values = samples.stream().mapToLong(metric).sorted().toArray();
+        return values.length == 0 ? 0 : values[values.length / 2];
+    }
+
+    private record Sample(long firstRequestMillis, long rssKb) {
+    }
+}
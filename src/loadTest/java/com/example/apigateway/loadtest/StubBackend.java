@@ -0,0 +1,71 @@
+package com.example.apigateway.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Minimal Reactor Netty backend standing in for one of the routed services.
+ * Every request gets the same JSON payload after a fixed delay, or one of the size asked for
+ * in {@link #RESPONSE_BYTES_HEADER} (used by the replay to mirror captured response sizes).
+ */
+public final class StubBackend implements AutoCloseable {
+
+    public static final String RESPONSE_BYTES_HEADER = "X-Stub-Response-Bytes";
+
+    private static final int MAX_RESPONSE_BYTES = 16 * 1024 * 1024;
+
+    private final String name;
+    private final DisposableServer server;
+
+    private StubBackend(String name, DisposableServer server) {
+        this.name = name;
+        this.server = server;
+    }
+
+    public static StubBackend start(String name, int port, Duration latency, int payloadBytes) {
+        byte[] payload = payload(name, payloadBytes);
+
+        DisposableServer server = HttpServer.create()
+                .port(port)
+                .handle((request, response) -> {
+                    String size = request.requestHeaders().get(RESPONSE_BYTES_HEADER);
+                    byte[] body = size != null ? payload(name, Math.min(Integer.parseInt(size), MAX_RESPONSE_BYTES)) : payload;
+                    Mono<Void> reply = request.receive().then(response
+                            .header(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                            .header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(body.length))
+                            .sendByteArray(Mono.just(body))
+                            .then());
+                    return latency.isZero() ? reply : Mono.delay(latency).then(reply);
+                })
+                .bindNow();
+
+        return new StubBackend(name, server);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int port() {
+        return server.port();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private static byte[] payload(String name, int size) {
+        StringBuilder json = new StringBuilder(Math.max(size, 64))
+                .append("{\"service\":\"").append(name).append("\",\"data\":\"");
+        int padding = Math.max(0, size - json.length() - 2);
+        json.append("x".repeat(padding)).append("\"}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.apigateway.accesslog;
+
+import com.example.apigateway.config.AccessLogProperties;
+import com.example.apigateway.filter.JwtAuthFilter;
+import com.example.apigateway.util.JwtPrincipal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Emits one {@link AccessLogRecord} per routed exchange.
+ * Sampling is decided when the response completes, so unsampled requests never build a record.
+ */
+@Component
+public class AccessLogFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = -200;
+
+    private static final String REDACTED = "***";
+
+    private final AccessLogWriter writer;
+    private final double[] statusRates = new double[6];
+    private final Map<String, Double> routeRates;
+    private final List<String> headers;
+    private final Set<String> redactedHeaders;
+
+    @Autowired
+    public AccessLogFilter(AccessLogWriter writer, AccessLogProperties properties) {
+        this.writer = writer;
+
+        // Index 1..5 maps to the status class; anything not configured is always logged
+        for (int i = 0; i < statusRates.length; i++) {
+            statusRates[i] = properties.getStatusSampleRates().getOrDefault(i + "xx", 1.0);
+        }
+        this.routeRates = new HashMap<>(properties.getRouteSampleRates());
+        this.headers = List.copyOf(properties.getHeaders());
+        this.redactedHeaders = properties.getRedactedHeaders().stream()
+                .map(h -> h.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!writer.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        long start = System.nanoTime();
+        CountingResponse response = new CountingResponse(exchange.getResponse());
+
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> record(exchange, response, start));
+    }
+
+    private void record(ServerWebExchange exchange, CountingResponse response, long start) {
+        HttpStatusCode statusCode = response.getStatusCode();
+        int status = statusCode != null ? statusCode.value() : 0;
+
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : null;
+
+        if (!sampled(routeId, status)) {
+            return;
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        JwtPrincipal principal = exchange.getAttribute(JwtAuthFilter.PRINCIPAL_ATTR);
+
+        writer.submit(new AccessLogRecord(
+                System.currentTimeMillis(),
+                request.getMethod().name(),
+                request.getURI().getRawPath(),
+                routeId,
+                status,
+                (System.nanoTime() - start) / 1_000,
+                principal != null ? principal.username() : null,
+                response.bytesWritten(),
+                selectHeaders(request.getHeaders())));
+    }
+
+    private boolean sampled(String routeId, int status) {
+        int statusClass = status / 100;
+        double rate = statusClass > 0 && statusClass < statusRates.length ? statusRates[statusClass] : 1.0;
+        if (routeId != null) {
+            rate *= routeRates.getOrDefault(routeId, 1.0);
+        }
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private Map<String, String> selectHeaders(HttpHeaders requestHeaders) {
+        if (headers.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> selected = new LinkedHashMap<>();
+        for (String name : headers) {
+            String value = requestHeaders.getFirst(name);
+            if (value != null) {
+                selected.put(name, redactedHeaders.contains(name.toLowerCase(Locale.ROOT)) ? REDACTED : value);
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.apigateway.accesslog;
+
+import java.util.Map;
+
+/**
+ * One structured access log entry per exchange.
+ * Headers are already filtered and redacted when the record is built.
+ */
+public record AccessLogRecord(
+        long timestamp,
+        String method,
+        String path,
+        String routeId,
+        int status,
+        long latencyMicros,
+        String user,
+        long bytes,
+        Map<String, String> headers) {
+}
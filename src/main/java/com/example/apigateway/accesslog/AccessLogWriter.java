@@ -0,0 +1,162 @@
+package com.example.apigateway.accesslog;
+
+import com.example.apigateway.config.AccessLogProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the access log ring buffer and the background thread that drains it.
+ *
+ * <p>Request threads only call {@link #submit(AccessLogRecord)}, which never blocks:
+ * if the buffer is full the record is dropped and counted. Formatting and the
+ * actual (synchronous) appender call happen on the writer thread.
+ */
+@Component
+public class AccessLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLogWriter.class);
+
+    // Separate logger name so the access log can be routed to its own appender
+    private static final Logger accessLog = LoggerFactory.getLogger("ACCESS_LOG");
+
+    @Autowired
+    private AccessLogProperties properties;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private BufferDrainer<AccessLogRecord> drainer;
+    private Counter droppedCounter;
+    private Counter writtenCounter;
+
+    // Used by the writer thread only
+    private final StringBuilder line = new StringBuilder(256);
+
+    @PostConstruct
+    void start() {
+        if (!properties.isEnabled()) {
+            logger.info("Access log is disabled");
+            return;
+        }
+
+        // Writing one record never fails the others, so the drainer has nothing to stop for
+        drainer = new BufferDrainer<>("access-log-writer", properties.getBufferSize(), this::write, e -> { });
+
+        if (meterRegistry != null) {
+            droppedCounter = Counter.builder("gateway.accesslog.dropped")
+                    .description("Access log records dropped because the buffer was full")
+                    .register(meterRegistry);
+            writtenCounter = Counter.builder("gateway.accesslog.written")
+                    .description("Access log records written")
+                    .register(meterRegistry);
+            Gauge.builder("gateway.accesslog.buffer.size", drainer, BufferDrainer::size)
+                    .description("Access log records waiting to be written")
+                    .register(meterRegistry);
+        }
+
+        drainer.start();
+        logger.info("Access log writer started with buffer capacity {}", drainer.capacity());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (drainer != null) {
+            drainer.stop(TimeUnit.SECONDS.toMillis(2));
+        }
+    }
+
+    public boolean isEnabled() {
+        return drainer != null;
+    }
+
+    /**
+     * Non-blocking hand-off from the request thread.
+     */
+    public void submit(AccessLogRecord record) {
+        if (drainer != null && !drainer.offer(record) && droppedCounter != null) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void write(AccessLogRecord record) {
+        try {
+            line.setLength(0);
+            format(record, line);
+            accessLog.info(line.toString());
+            if (writtenCounter != null) {
+                writtenCounter.increment();
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to write access log record", e);
+        }
+    }
+
+    static void format(AccessLogRecord record, StringBuilder out) {
+        out.append("{\"ts\":").append(record.timestamp());
+        appendField(out, "method", record.method());
+        appendField(out, "path", record.path());
+        appendField(out, "route", record.routeId());
+        out.append(",\"status\":").append(record.status());
+        out.append(",\"latencyUs\":").append(record.latencyMicros());
+        appendField(out, "user", record.user());
+        out.append(",\"bytes\":").append(record.bytes());
+
+        Map<String, String> headers = record.headers();
+        if (headers != null && !headers.isEmpty()) {
+            out.append(",\"headers\":{");
+            boolean first = true;
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                appendString(out, header.getKey());
+                out.append(':');
+                appendString(out, header.getValue());
+            }
+            out.append('}');
+        }
+        out.append('}');
+    }
+
+    private static void appendField(StringBuilder out, String name, String value) {
+        out.append(",\"").append(name).append("\":");
+        if (value == null) {
+            out.append("null");
+        } else {
+            appendString(out, value);
+        }
+    }
+
+    private static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
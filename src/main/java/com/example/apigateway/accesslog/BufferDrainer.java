@@ -0,0 +1,113 @@
+package com.example.apigateway.accesslog;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * An {@link AccessLogRingBuffer} plus the single background thread that drains it into a
+ * {@link Sink}. Producers hand items over with {@link #offer}, which never blocks. The thread
+ * parks while the buffer is empty and is unparked by the next offer, so an idle drainer costs
+ * nothing and a busy one never sleeps. The sink is flushed each time the buffer runs dry.
+ */
+public final class BufferDrainer<T> {
+
+    /**
+     * Called on the drainer thread only.
+     */
+    public interface Sink<T> {
+
+        void write(T item) throws IOException;
+
+        /**
+         * The buffer ran dry, or the drainer is stopping.
+         */
+        default void flush() throws IOException {
+        }
+    }
+
+    // Upper bound only; offer() wakes the thread when it has gone idle
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final AccessLogRingBuffer<T> buffer;
+    private final Sink<T> sink;
+    private final Consumer<IOException> onFailure;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean idle;
+
+    /**
+     * @param onFailure called if the sink throws; the thread then ends and later offers are refused
+     */
+    public BufferDrainer(String threadName, int capacity, Sink<T> sink, Consumer<IOException> onFailure) {
+        this.buffer = new AccessLogRingBuffer<>(capacity);
+        this.sink = sink;
+        this.onFailure = onFailure;
+        this.thread = new Thread(this::drain, threadName);
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    /**
+     * Writes out what is already buffered, then ends the thread, waiting at most the given time.
+     */
+    public void stop(long timeoutMillis) {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Non-blocking hand-off from the request thread.
+     *
+     * @return false if the buffer is full or the drainer has stopped
+     */
+    public boolean offer(T item) {
+        if (!running || !buffer.offer(item)) {
+            return false;
+        }
+        if (idle) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    public int size() {
+        return buffer.size();
+    }
+
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    private void drain() {
+        try {
+            while (running || buffer.size() > 0) {
+                T item = buffer.poll();
+                if (item == null) {
+                    sink.flush();
+                    // Announce the park before the last look, so a concurrent offer either is seen here or unparks us
+                    idle = true;
+                    if (buffer.size() == 0 && running) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    idle = false;
+                    continue;
+                }
+                sink.write(item);
+            }
+            sink.flush();
+        } catch (IOException e) {
+            running = false;
+            onFailure.accept(e);
+        }
+    }
+}
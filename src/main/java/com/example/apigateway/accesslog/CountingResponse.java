@@ -0,0 +1,37 @@
+package com.example.apigateway.accesslog;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts body bytes as they are written instead of buffering the body. The body is written
+ * once, by one subscriber, so the count needs no synchronization; read it when the exchange
+ * has completed.
+ */
+public final class CountingResponse extends ServerHttpResponseDecorator {
+
+    private long bytesWritten;
+
+    public CountingResponse(ServerHttpResponse delegate) {
+        super(delegate);
+    }
+
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        return super.writeWith(Flux.from(body).doOnNext(buffer -> bytesWritten += buffer.readableByteCount()));
+    }
+
+    @Override
+    public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+        return super.writeAndFlushWith(Flux.from(body)
+                .map(part -> Flux.from(part).doOnNext(buffer -> bytesWritten += buffer.readableByteCount())));
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Immutable cached upstream response. The body is a read-only direct buffer;
+ * callers must use {@link #body()} which hands out an independent view.
+ */
+public record CachedResponse(HttpHeaders headers, ByteBuffer content, String etag, long expiresAtNanos) {
+
+    public ByteBuffer body() {
+        return content.duplicate();
+    }
+
+    public int size() {
+        return content.capacity();
+    }
+
+    public boolean isExpired(long nowNanos) {
+        return nowNanos - expiresAtNanos >= 0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.apigateway.cache;
+
+import com.example.apigateway.config.ResponseCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared, bounded store for cached upstream responses.
+ *
+ * <p>Entries are weighed by body size, with a floor of {@code maxBytes / maxEntries}, so one
+ * Caffeine weight bound enforces both the byte limit and the entry-count limit.
+ * Each entry expires at its own deadline (route TTL or upstream max-age).
+ */
+@Component
+public class ResponseCache {
+
+    private final Cache<String, CachedResponse> cache;
+    private final AtomicLong storedBytes = new AtomicLong();
+    private final Counter notModified;
+    private final long maxEntryBytes;
+
+    public ResponseCache(ResponseCacheProperties properties, MeterRegistry registry) {
+        long maxBytes = properties.getMaxBytes().toBytes();
+        int minWeight = (int) Math.max(1, maxBytes / Math.max(1, properties.getMaxEntries()));
+        this.maxEntryBytes = properties.getMaxEntryBytes().toBytes();
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .<String, CachedResponse>weigher((key, value) -> Math.max(minWeight, value.size()))
+                .expireAfter(new DeadlineExpiry())
+                .removalListener((String key, CachedResponse value, RemovalCause cause) -> {
+                    if (value != null) {
+                        storedBytes.addAndGet(-value.size());
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(registry, cache, "gateway.response");
+        Gauge.builder("gateway.response.cache.bytes", storedBytes, AtomicLong::get)
+                .description("Off-heap bytes held by cached response bodies")
+                .baseUnit("bytes")
+                .register(registry);
+        this.notModified = Counter.builder("gateway.response.cache.not.modified")
+                .description("Conditional requests answered with 304 by the gateway")
+                .register(registry);
+    }
+
+    public CachedResponse get(String key) {
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null && cached.isExpired(System.nanoTime())) {
+            cache.invalidate(key);
+            return null;
+        }
+        return cached;
+    }
+
+    public void put(String key, CachedResponse response) {
+        storedBytes.addAndGet(response.size());
+        cache.put(key, response);
+    }
+
+    public long maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    private static final class DeadlineExpiry implements Expiry<String, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+            return Math.max(0, value.expiresAtNanos() - System.nanoTime());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.apigateway.capture;
+
+import com.example.apigateway.accesslog.AccessLogFilter;
+import com.example.apigateway.accesslog.CountingResponse;
+import com.example.apigateway.config.CaptureProperties;
+import com.example.apigateway.filter.JwtAuthFilter;
+import com.example.apigateway.util.JwtPrincipal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands a sample of routed exchanges to {@link CaptureWriter} for offline replay. The sampling
+ * decision is made on arrival, so unsampled requests cost one random number; sampled ones are
+ * recorded when the response completes. Runs just outside the access log, so its latency covers
+ * the same path.
+ */
+@Component
+public class CaptureFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = AccessLogFilter.ORDER - 1;
+
+    // Never recorded, whatever gateway.capture.headers says
+    private static final Set<String> CREDENTIAL_HEADERS = Set.of(
+            "authorization", "proxy-authorization", "cookie", "x-revocation-key");
+
+    private final CaptureWriter writer;
+    private final double sampleRate;
+    private final Set<String> routes;
+    private final List<String> headers;
+
+    // Wall clock at startup plus nanoTime since, so arrival times are precise and never go backwards
+    private final long baseEpochMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    private final long baseNanos = System.nanoTime();
+
+    @Autowired
+    public CaptureFilter(CaptureWriter writer, CaptureProperties properties) {
+        this.writer = writer;
+        this.sampleRate = properties.getSampleRate();
+        this.routes = Set.copyOf(properties.getRoutes());
+        this.headers = properties.getHeaders().stream()
+                .filter(name -> !CREDENTIAL_HEADERS.contains(name.toLowerCase(Locale.ROOT)))
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!writer.isCapturing()
+                || (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return chain.filter(exchange);
+        }
+
+        long start = System.nanoTime();
+        CountingResponse response = new CountingResponse(exchange.getResponse());
+        return chain.filter(exchange.mutate().response(response).build())
+                .doFinally(signal -> record(exchange, response, start));
+    }
+
+    private void record(ServerWebExchange exchange, CountingResponse response, long start) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : null;
+        if (!routes.isEmpty() && !routes.contains(routeId)) {
+            return;
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders requestHeaders = request.getHeaders();
+        JwtPrincipal principal = exchange.getAttribute(JwtAuthFilter.PRINCIPAL_ATTR);
+        int auth = principal != null ? CaptureRecord.AUTH_VERIFIED
+                : requestHeaders.containsKey(HttpHeaders.AUTHORIZATION) ? CaptureRecord.AUTH_REJECTED
+                : CaptureRecord.AUTH_NONE;
+        HttpStatusCode status = response.getStatusCode();
+
+        writer.submit(new CaptureWriter.Capture(
+                baseEpochMicros + (start - baseNanos) / 1_000,
+                request.getMethod().name(),
+                request.getURI().getRawPath(),
+                request.getURI().getRawQuery(),
+                routeId,
+                status != null ? status.value() : 0,
+                (System.nanoTime() - start) / 1_000,
+                requestHeaders.getContentLength(),
+                response.bytesWritten(),
+                auth,
+                principal != null ? principal.username() : null,
+                principal != null ? principal.role() : null,
+                selectHeaders(requestHeaders)));
+    }
+
+    private Map<String, String> selectHeaders(HttpHeaders requestHeaders) {
+        Map<String, String> selected = new LinkedHashMap<>();
+        for (String name : headers) {
+            String value = requestHeaders.getFirst(name);
+            if (value != null) {
+                selected.put(name, value);
+            }
+        }
+        return selected;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
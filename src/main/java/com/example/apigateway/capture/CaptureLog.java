@@ -0,0 +1,194 @@
+package com.example.apigateway.capture;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Binary format of the capture log: an 8-byte file header (magic {@code GWCP}, version), then
+ * length-prefixed records, appended in arrival order. Strings are a 16-bit length (0xFFFF for
+ * null) and UTF-8 bytes. A record cut short by a crash ends the log when read back.
+ */
+public final class CaptureLog {
+
+    static final int MAGIC = 0x47574350;
+    static final int VERSION = 1;
+
+    public static final int HEADER_BYTES = 8;
+
+    private static final int MAX_STRING_BYTES = 4096;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final int NULL_STRING = 0xFFFF;
+
+    private CaptureLog() {
+    }
+
+    public static void writeHeader(ByteBuffer out) {
+        out.putInt(MAGIC).putInt(VERSION);
+    }
+
+    /**
+     * @throws IOException when the header is not one this version wrote
+     */
+    public static void checkHeader(ByteBuffer in) throws IOException {
+        int magic = in.getInt();
+        int version = in.getInt();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("not a capture log (version " + VERSION + ")");
+        }
+    }
+
+    /**
+     * Appends one record to {@code out}.
+     *
+     * @return false, with {@code out} unchanged, when the record does not fit
+     */
+    public static boolean encode(CaptureRecord record, ByteBuffer out) {
+        int start = out.position();
+        try {
+            out.position(start + 4);
+            out.putLong(record.epochMicros());
+            putString(out, record.method());
+            putString(out, record.path());
+            putString(out, record.query());
+            putString(out, record.routeId());
+            out.putShort((short) record.status());
+            out.putLong(record.latencyMicros());
+            out.putLong(record.requestBytes());
+            out.putLong(record.responseBytes());
+            out.put((byte) record.auth());
+            out.putLong(record.subjectHash());
+            putString(out, record.role());
+            Map<String, String> headers = record.headers();
+            int count = headers != null ? Math.min(headers.size(), 255) : 0;
+            out.put((byte) count);
+            if (count > 0) {
+                int written = 0;
+                for (Map.Entry<String, String> header : headers.entrySet()) {
+                    if (written++ == count) {
+                        break;
+                    }
+                    putString(out, header.getKey());
+                    putString(out, header.getValue());
+                }
+            }
+            out.putInt(start, out.position() - start - 4);
+            return true;
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            out.position(start);
+            return false;
+        }
+    }
+
+    static CaptureRecord decode(ByteBuffer in) {
+        long epochMicros = in.getLong();
+        String method = getString(in);
+        String path = getString(in);
+        String query = getString(in);
+        String routeId = getString(in);
+        int status = in.getShort() & 0xFFFF;
+        long latencyMicros = in.getLong();
+        long requestBytes = in.getLong();
+        long responseBytes = in.getLong();
+        int auth = in.get();
+        long subjectHash = in.getLong();
+        String role = getString(in);
+        int count = in.get() & 0xFF;
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            headers.put(getString(in), getString(in));
+        }
+        return new CaptureRecord(epochMicros, method, path, query, routeId, status, latencyMicros,
+                requestBytes, responseBytes, auth, subjectHash, role, headers);
+    }
+
+    public static Reader open(Path file) throws IOException {
+        return new Reader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        out.putShort((short) length).put(bytes, 0, length);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sequential reader through a buffered channel; not thread-safe.
+     */
+    public static final class Reader implements AutoCloseable {
+
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).flip();
+
+        Reader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            if (!fill(HEADER_BYTES)) {
+                throw new EOFException("capture log has no header");
+            }
+            checkHeader(buffer);
+        }
+
+        /**
+         * @return the next record, or {@code null} at the end of the log (including a torn last record)
+         */
+        public CaptureRecord next() throws IOException {
+            if (!fill(4)) {
+                return null;
+            }
+            int length = buffer.getInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES) {
+                throw new IOException("corrupt capture record length " + length);
+            }
+            if (!fill(length)) {
+                return null;
+            }
+            ByteBuffer record = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            return decode(record);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private boolean fill(int needed) throws IOException {
+            if (buffer.remaining() >= needed) {
+                return true;
+            }
+            if (buffer.capacity() < needed) {
+                buffer = ByteBuffer.allocate(needed).put(buffer).flip();
+            }
+            buffer.compact();
+            while (buffer.position() < needed) {
+                if (channel.read(buffer) < 0) {
+                    buffer.flip();
+                    return false;
+                }
+            }
+            buffer.flip();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.apigateway.capture;
+
+import java.util.Map;
+
+/**
+ * One captured exchange as stored in the capture log. Holds no credentials or bodies: the caller
+ * is a salted hash of the token subject, query values are hashed, and bodies are only sized.
+ *
+ * @param epochMicros   arrival time, microseconds since the epoch (monotonic within one gateway run)
+ * @param query         raw query with every value replaced by its hash, or {@code null}
+ * @param routeId       matched route, or {@code null} when none matched
+ * @param latencyMicros time spent in the gateway, for comparison with a replay
+ * @param requestBytes  request Content-Length, or -1 when the body size was not declared
+ * @param auth          one of {@link #AUTH_NONE}, {@link #AUTH_VERIFIED}, {@link #AUTH_REJECTED}
+ * @param subjectHash   salted hash of the token subject, 0 without a verified token
+ * @param headers       allow-listed request headers
+ */
+public record CaptureRecord(long epochMicros, String method, String path, String query, String routeId,
+                            int status, long latencyMicros, long requestBytes, long responseBytes,
+                            int auth, long subjectHash, String role, Map<String, String> headers) {
+
+    // No Authorization header
+    public static final int AUTH_NONE = 0;
+    // A bearer token JwtAuthFilter accepted
+    public static final int AUTH_VERIFIED = 1;
+    // A bearer token that was not (or not yet) accepted
+    public static final int AUTH_REJECTED = 2;
+}
@@ -0,0 +1,236 @@
+package com.example.apigateway.capture;
+
+import com.example.apigateway.accesslog.BufferDrainer;
+import com.example.apigateway.config.CaptureProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the capture ring buffer and the background thread that appends it to the capture log.
+ *
+ * <p>Request threads only call {@link #submit(Capture)}, which never blocks; a full buffer drops
+ * the capture and counts it. Hashing, encoding and the file writes happen on the writer thread,
+ * which batches records in a direct buffer and writes whenever the queue runs dry or the buffer
+ * fills (see {@link BufferDrainer}). Subjects and query values are hashed with a salt that only
+ * lives in this process, so the same caller maps to the same hash within one run but hashes
+ * cannot be looked up.
+ */
+@Component
+public class CaptureWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaptureWriter.class);
+
+    private static final int WRITE_BUFFER_BYTES = 256 * 1024;
+
+    @Autowired
+    private CaptureProperties properties;
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    private BufferDrainer<Capture> drainer;
+    private FileChannel channel;
+    private ByteBuffer out;
+    private final MessageDigest digest = sha256();
+    private final byte[] salt = new byte[16];
+    private long maxFileBytes;
+    private Counter droppedCounter;
+    private Counter writtenCounter;
+    private volatile boolean capturing;
+
+    public CaptureWriter() {
+        new SecureRandom().nextBytes(salt);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!properties.isEnabled() || !StringUtils.hasText(properties.getFile())) {
+            logger.info("Traffic capture is disabled");
+            return;
+        }
+
+        Path file = Path.of(properties.getFile());
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        // Appended to by the writer thread only; READ to check the header of an existing log
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        out = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        if (channel.size() == 0) {
+            CaptureLog.writeHeader(out);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(CaptureLog.HEADER_BYTES);
+            channel.read(header, 0);
+            CaptureLog.checkHeader(header.flip());
+            channel.position(channel.size());
+        }
+
+        maxFileBytes = properties.getMaxFileSize().toBytes();
+        drainer = new BufferDrainer<>("capture-writer", properties.getBufferSize(), new BufferDrainer.Sink<>() {
+            @Override
+            public void write(Capture capture) throws IOException {
+                CaptureWriter.this.write(capture);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                CaptureWriter.this.flush();
+            }
+        }, e -> {
+            capturing = false;
+            logger.warn("Traffic capture stopped, cannot write {}: {}", properties.getFile(), e.getMessage());
+        });
+
+        if (meterRegistry != null) {
+            droppedCounter = Counter.builder("gateway.capture.dropped")
+                    .description("Captured requests dropped because the buffer was full")
+                    .register(meterRegistry);
+            writtenCounter = Counter.builder("gateway.capture.written")
+                    .description("Captured requests written to the capture log")
+                    .register(meterRegistry);
+            Gauge.builder("gateway.capture.buffer.size", drainer, BufferDrainer::size)
+                    .description("Captured requests waiting to be written")
+                    .register(meterRegistry);
+        }
+
+        capturing = true;
+        drainer.start();
+        logger.info("Capturing {}% of requests to {}", properties.getSampleRate() * 100, file.toAbsolutePath());
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (drainer != null) {
+            drainer.stop(TimeUnit.SECONDS.toMillis(2));
+        }
+        if (channel != null) {
+            try {
+                channel.force(false);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * False when capture is off, or stopped after reaching the size limit or a write error.
+     */
+    public boolean isCapturing() {
+        return capturing;
+    }
+
+    /**
+     * Non-blocking hand-off from the request thread.
+     */
+    public void submit(Capture capture) {
+        if (!capturing) {
+            return;
+        }
+        if (!drainer.offer(capture) && droppedCounter != null) {
+            droppedCounter.increment();
+        }
+    }
+
+    private void write(Capture capture) throws IOException {
+        CaptureRecord record = redact(capture);
+        if (!CaptureLog.encode(record, out)) {
+            flush();
+            if (!CaptureLog.encode(record, out)) {
+                return;
+            }
+        }
+        if (writtenCounter != null) {
+            writtenCounter.increment();
+        }
+    }
+
+    private void flush() throws IOException {
+        if (out.position() == 0) {
+            return;
+        }
+        out.flip();
+        if (channel.size() + out.remaining() > maxFileBytes) {
+            if (capturing) {
+                capturing = false;
+                logger.warn("Traffic capture stopped, {} reached {}", properties.getFile(), properties.getMaxFileSize());
+            }
+        } else {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        out.clear();
+    }
+
+    CaptureRecord redact(Capture capture) {
+        return new CaptureRecord(capture.epochMicros(), capture.method(), capture.path(), redactQuery(capture.query()),
+                capture.routeId(), capture.status(), capture.latencyMicros(), capture.requestBytes(),
+                capture.responseBytes(), capture.auth(), capture.subject() != null ? hash(capture.subject()) : 0,
+                capture.role(), capture.headers());
+    }
+
+    // Keeps parameter names and which ones had a value; each value becomes its hash
+    private String redactQuery(String query) {
+        if (!StringUtils.hasLength(query)) {
+            return null;
+        }
+        StringBuilder redacted = new StringBuilder(query.length());
+        for (String parameter : query.split("&")) {
+            if (!redacted.isEmpty()) {
+                redacted.append('&');
+            }
+            int equals = parameter.indexOf('=');
+            if (equals < 0 || equals == parameter.length() - 1) {
+                redacted.append(parameter);
+            } else {
+                redacted.append(parameter, 0, equals + 1).append(Long.toHexString(hash(parameter.substring(equals + 1))));
+            }
+        }
+        return redacted.toString();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private long hash(String value) {
+        digest.update(salt);
+        byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+        long result = ByteBuffer.wrap(hash).getLong();
+        // 0 means "no subject" in the log
+        return result != 0 ? result : 1;
+    }
+
+    /**
+     * A sampled exchange as seen by {@link CaptureFilter}, before redaction.
+     */
+    public record Capture(long epochMicros, String method, String path, String query, String routeId,
+                          int status, long latencyMicros, long requestBytes, long responseBytes,
+                          int auth, String subject, String role, Map<String, String> headers) {
+    }
+}
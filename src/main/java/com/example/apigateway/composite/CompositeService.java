@@ -0,0 +1,387 @@
+package com.example.apigateway.composite;
+
+import com.example.apigateway.concurrency.AdmissionControlFilter;
+import com.example.apigateway.config.CompositeProperties;
+import com.example.apigateway.config.TimeoutProperties;
+import com.example.apigateway.config.UpstreamProperties;
+import com.example.apigateway.loadbalancer.Endpoint;
+import com.example.apigateway.loadbalancer.ServicePool;
+import com.example.apigateway.loadbalancer.ServiceRegistry;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.util.JwtPrincipal;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Answers a composite view ({@code gateway.composite.views}): every part is requested from its
+ * backend at once, over the same pooled client and load balancer as routed traffic, and written
+ * into the response document as soon as it completes, so the slowest part alone sets the total
+ * time.
+ *
+ * <p>The document is {@code {"parts":{"<name>":{...},...},"complete":<all ok>}}, parts in
+ * completion order. A part is {@code {"ok":true,"status":200,"body":...}} for a 2xx answer;
+ * {@code ok} is false for any other status, and a part that timed out, had no instance or failed
+ * to connect carries a gateway status (504, 503, 502) and an {@code error} instead of a body.
+ * JSON bodies are embedded as they are, other bodies as a string.
+ *
+ * <p>A part that names a {@code route} is held to that route's protections as if the call had
+ * been routed there: it takes a slot from the route's admission limiter, and goes through the
+ * route's bulkhead and circuit breaker (5xx answers, timeouts and failed calls count as breaker
+ * failures). A part turned away by any of them is reported with 503. Each part's timeout is
+ * capped by the caller's {@code X-Request-Deadline}, and the resulting deadline is sent on.
+ */
+@Component
+public class CompositeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompositeService.class);
+
+    private static final byte[] EMPTY = new byte[0];
+
+    @Autowired
+    private CompositeProperties properties;
+
+    @Autowired
+    private UpstreamProperties upstreamProperties;
+
+    @Autowired
+    private ServiceRegistry serviceRegistry;
+
+    @Autowired
+    private HttpClient httpClient;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AdmissionControlFilter admissionControl;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private TimeoutProperties timeoutProperties;
+
+    private HttpClient h2cClient;
+
+    @PostConstruct
+    void init() {
+        h2cClient = httpClient.protocol(HttpProtocol.H2C);
+        properties.getViews().forEach((name, view) -> view.getParts().forEach((part, spec) -> {
+            if (spec.getUri() == null || !"lb".equals(spec.getUri().getScheme())) {
+                throw new IllegalStateException("composite part " + name + "." + part + " needs an lb:// uri");
+            }
+        }));
+    }
+
+    public boolean hasView(String view) {
+        return properties.getViews().containsKey(view);
+    }
+
+    public Flux<DataBuffer> compose(String view, String routeId, JwtPrincipal principal, ServerHttpRequest request,
+                                    DataBufferFactory factory) {
+        Map<String, CompositeProperties.Part> parts = properties.getViews().get(view).getParts();
+        HttpHeaders requestHeaders = request.getHeaders();
+        long deadline = incomingDeadline(requestHeaders);
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : properties.getForwardHeaders()) {
+            List<String> values = requestHeaders.get(name);
+            if (values != null) {
+                headers.put(name, values);
+            }
+        }
+        headers.set("X-User-Id", principal.username());
+        headers.set("X-User-Role", principal.role());
+
+        AtomicBoolean complete = new AtomicBoolean(true);
+        Flux<DataBuffer> written = Flux.fromIterable(parts.entrySet())
+                .flatMap(part -> fetch(part.getKey(), part.getValue(), headers, request, deadline), Math.max(1, parts.size()))
+                .index()
+                .map(indexed -> {
+                    PartResult result = indexed.getT2();
+                    if (!result.ok()) {
+                        complete.set(false);
+                    }
+                    gatewayMetrics.compositePart(routeId, result.outcome());
+                    return write(factory, indexed.getT1() == 0, result);
+                });
+
+        return Flux.concat(
+                Mono.fromSupplier(() -> factory.wrap("{\"parts\":{".getBytes(StandardCharsets.UTF_8))),
+                written,
+                Mono.fromSupplier(() -> factory.wrap(("},\"complete\":" + complete.get() + "}").getBytes(StandardCharsets.UTF_8))));
+    }
+
+    private Mono<PartResult> fetch(String name, CompositeProperties.Part part, HttpHeaders headers,
+                                   ServerHttpRequest request, long deadline) {
+        Duration configured = part.getTimeout() != null ? part.getTimeout() : properties.getDefaultTimeout();
+        long now = System.currentTimeMillis();
+        if (deadline <= now) {
+            return Mono.just(PartResult.failed(name, 504, "deadline passed"));
+        }
+        Duration timeout = deadline - now < configured.toMillis() ? Duration.ofMillis(deadline - now) : configured;
+        HttpHeaders partHeaders = headers;
+        if (timeoutProperties.isEnabled()) {
+            partHeaders = new HttpHeaders();
+            partHeaders.addAll(headers);
+            partHeaders.set(timeoutProperties.getHeader(), String.valueOf(now + timeout.toMillis()));
+        }
+
+        Mono<PartResult> call = call(name, part.getUri(), partHeaders, timeout);
+        String route = part.getRoute();
+        if (route == null) {
+            return call.onErrorResume(e -> Mono.just(failed(name, e, timeout)));
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.find(route).orElse(null);
+        Bulkhead bulkhead = bulkheadRegistry.find(route).orElse(null);
+        if (circuitBreaker != null) {
+            call = call
+                    .flatMap(result -> result.status() >= 500 ? Mono.error(new PartServerError(result)) : Mono.just(result))
+                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                    .onErrorResume(PartServerError.class, e -> Mono.just(e.result));
+        }
+        // Outermost, so a full bulkhead never counts against the breaker
+        if (bulkhead != null) {
+            call = call.transformDeferred(BulkheadOperator.of(bulkhead));
+        }
+        call = call
+                .onErrorResume(CallNotPermittedException.class, e -> {
+                    gatewayMetrics.resilienceRejected(route, GatewayMetrics.REJECTED_CIRCUIT_OPEN);
+                    return Mono.just(PartResult.failed(name, 503, "circuit open"));
+                })
+                .onErrorResume(BulkheadFullException.class, e -> {
+                    gatewayMetrics.resilienceRejected(route, GatewayMetrics.REJECTED_BULKHEAD_FULL);
+                    return Mono.just(PartResult.failed(name, 503, "too many concurrent calls"));
+                })
+                .onErrorResume(e -> Mono.just(failed(name, e, timeout)));
+        return admissionControl.admit(route, request, call,
+                Mono.fromSupplier(() -> PartResult.failed(name, 503, "overloaded")),
+                result -> result.status() == 503 || result.status() == 504);
+    }
+
+    // One backend GET; fails with the cause when there is no answer to put into the document
+    private Mono<PartResult> call(String name, URI uri, HttpHeaders headers, Duration timeout) {
+        return Mono.defer(() -> {
+            ServicePool pool = serviceRegistry.pool(uri.getHost());
+            Endpoint endpoint = pool != null ? pool.choose() : null;
+            if (endpoint == null) {
+                return Mono.error(new NoInstanceException());
+            }
+
+            URI instance = endpoint.uri();
+            String target = UriComponentsBuilder.fromUri(uri)
+                    .scheme(instance.getScheme())
+                    .host(instance.getHost())
+                    .port(instance.getPort())
+                    .build(true)
+                    .toUriString();
+            long maxBytes = properties.getMaxPartSize().toBytes();
+
+            pool.started(endpoint);
+            long start = System.nanoTime();
+            return client(uri.getHost())
+                    .headers(outbound -> headers.forEach(outbound::add))
+                    .get()
+                    .uri(target)
+                    .response((response, body) -> {
+                        String contentType = response.responseHeaders().get(HttpHeaders.CONTENT_TYPE);
+                        int status = response.status().code();
+                        if (response.responseHeaders().getInt(HttpHeaders.CONTENT_LENGTH, 0) > maxBytes) {
+                            return Mono.error(new PartTooLargeException());
+                        }
+                        return body.asByteArray()
+                                .collect(ByteArrayOutputStream::new, (out, chunk) -> {
+                                    if (out.size() + chunk.length > maxBytes) {
+                                        throw new PartTooLargeException();
+                                    }
+                                    out.writeBytes(chunk);
+                                })
+                                .map(out -> new PartResult(name, status, isJson(contentType), out.toByteArray(), null));
+                    })
+                    .next()
+                    .timeout(timeout)
+                    .doOnNext(result -> {
+                        if (result.status() >= 500) {
+                            pool.failed(endpoint);
+                        } else {
+                            pool.succeeded(endpoint, System.nanoTime() - start);
+                        }
+                    })
+                    .doOnError(e -> {
+                        if (e instanceof TimeoutException) {
+                            pool.cancelled(endpoint);
+                            return;
+                        }
+                        pool.failed(endpoint);
+                        logger.debug("Composite part {} from {} failed: {}", name, target, e.toString());
+                    })
+                    // Client went away, or the breaker or bulkhead gave up, before this part finished
+                    .doOnCancel(() -> pool.cancelled(endpoint));
+        });
+    }
+
+    private PartResult failed(String name, Throwable e, Duration timeout) {
+        if (e instanceof TimeoutException) {
+            return PartResult.failed(name, 504, "timed out after " + timeout.toMillis() + "ms");
+        }
+        if (e instanceof NoInstanceException) {
+            return PartResult.failed(name, 503, "no instance available");
+        }
+        return PartResult.failed(name, 502, e instanceof PartTooLargeException
+                ? "response larger than " + properties.getMaxPartSize().toBytes() + " bytes" : "upstream unavailable");
+    }
+
+    private long incomingDeadline(HttpHeaders requestHeaders) {
+        String value = timeoutProperties.isEnabled() && timeoutProperties.isHonorIncoming()
+                ? requestHeaders.getFirst(timeoutProperties.getHeader()) : null;
+        if (value == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private HttpClient client(String service) {
+        UpstreamProperties.Pool pool = upstreamProperties.getPools().get(service);
+        return pool != null && pool.isH2c() ? h2cClient : httpClient;
+    }
+
+    private DataBuffer write(DataBufferFactory factory, boolean first, PartResult result) {
+        StringBuilder head = new StringBuilder(64);
+        if (!first) {
+            head.append(',');
+        }
+        head.append(quote(result.name())).append(":{\"ok\":").append(result.ok())
+                .append(",\"status\":").append(result.status());
+        byte[] body;
+        if (result.error() != null) {
+            head.append(",\"error\":").append(quote(result.error()));
+            body = EMPTY;
+        } else {
+            head.append(",\"body\":");
+            body = result.body().length == 0 ? "null".getBytes(StandardCharsets.UTF_8)
+                    : result.json() ? result.body()
+                    : quote(new String(result.body(), StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] prefix = head.toString().getBytes(StandardCharsets.UTF_8);
+
+        DataBuffer buffer = factory.allocateBuffer(prefix.length + body.length + 1);
+        buffer.write(prefix);
+        buffer.write(body);
+        buffer.write((byte) '}');
+        return buffer;
+    }
+
+    private String quote(String value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isJson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            MediaType type = MediaType.parseMediaType(contentType);
+            return MediaType.APPLICATION_JSON.isCompatibleWith(type) || type.getSubtype().endsWith("+json");
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private record PartResult(String name, int status, boolean json, byte[] body, String error) {
+
+        static PartResult failed(String name, int status, String error) {
+            return new PartResult(name, status, false, EMPTY, error);
+        }
+
+        boolean ok() {
+            return error == null && status >= 200 && status < 300;
+        }
+
+        int outcome() {
+            if (ok()) {
+                return GatewayMetrics.COMPOSITE_PART_OK;
+            }
+            return status == 504 && error != null ? GatewayMetrics.COMPOSITE_PART_TIMEOUT : GatewayMetrics.COMPOSITE_PART_FAILED;
+        }
+    }
+
+    private static final class PartTooLargeException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        PartTooLargeException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class NoInstanceException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        NoInstanceException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Carries a 5xx part answer through the circuit breaker as a failure; the answer itself is kept.
+     */
+    private static final class PartServerError extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient PartResult result;
+
+        PartServerError(PartResult result) {
+            super(null, null, false, false);
+            this.result = result;
+        }
+    }
+}
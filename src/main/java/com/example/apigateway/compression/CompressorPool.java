@@ -0,0 +1,56 @@
+package com.example.apigateway.compression;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reuses {@link GzipCompressor}s, whose native deflate state is costly to set up per response.
+ * At most {@code maxIdle} are kept; beyond that, released compressors are closed.
+ */
+public final class CompressorPool {
+
+    private final int level;
+    private final int maxIdle;
+    private final Queue<GzipCompressor> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    public CompressorPool(int level, int maxIdle) {
+        this.level = level;
+        this.maxIdle = maxIdle;
+    }
+
+    public GzipCompressor acquire() {
+        GzipCompressor compressor = idle.poll();
+        if (compressor == null) {
+            return new GzipCompressor(level);
+        }
+        idleCount.decrementAndGet();
+        return compressor;
+    }
+
+    /**
+     * Returns a compressor whose stream was finished.
+     */
+    public void release(GzipCompressor compressor) {
+        compressor.reset();
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(compressor);
+        } else {
+            idleCount.decrementAndGet();
+            compressor.end();
+        }
+    }
+
+    /**
+     * Closes a compressor whose stream was abandoned (cancelled or failed); a cancelled write
+     * may still be inside it, so it is never handed out again.
+     */
+    public void discard(GzipCompressor compressor) {
+        compressor.end();
+    }
+
+    int idleCount() {
+        return idleCount.get();
+    }
+}
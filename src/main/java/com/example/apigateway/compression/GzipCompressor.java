@@ -0,0 +1,136 @@
+package com.example.apigateway.compression;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Streaming gzip (RFC 1952) over data buffers: a raw deflate stream between a fixed header and
+ * the CRC32/length trailer, produced chunk by chunk so a body is never held in full.
+ *
+ * <p>Serves one response at a time and is reused through {@link CompressorPool}; not thread-safe.
+ */
+public final class GzipCompressor {
+
+    // Magic, deflate, no flags, no mtime, no extra flags, unknown OS
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int TRAILER_LENGTH = 8;
+
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] scratch = new byte[8192];
+
+    private boolean headerWritten;
+    private long bytesIn;
+    private long bytesOut;
+    private long nanos;
+
+    GzipCompressor(int level) {
+        this.deflater = new Deflater(level, true);
+    }
+
+    /**
+     * Feeds one chunk of the body and releases it.
+     *
+     * @return the compressed bytes ready so far, or {@code null} while deflate is still buffering
+     */
+    public DataBuffer compress(DataBuffer input, DataBufferFactory factory) {
+        long start = System.nanoTime();
+        DataBuffer output = null;
+        try (DataBuffer.ByteBufferIterator chunks = input.readableByteBuffers()) {
+            while (chunks.hasNext()) {
+                ByteBuffer chunk = chunks.next();
+                bytesIn += chunk.remaining();
+                crc.update(chunk.duplicate());
+                deflater.setInput(chunk);
+                while (!deflater.needsInput()) {
+                    output = deflate(output, factory);
+                }
+            }
+            return output;
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(output);
+            throw e;
+        } finally {
+            DataBufferUtils.release(input);
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Ends the stream: whatever deflate still buffers, then the trailer. A body with no bytes
+     * still yields a valid (empty) gzip member.
+     */
+    public DataBuffer finish(DataBufferFactory factory) {
+        long start = System.nanoTime();
+        DataBuffer output = null;
+        try {
+            deflater.finish();
+            while (!deflater.finished()) {
+                output = deflate(output, factory);
+            }
+            int checksum = (int) crc.getValue();
+            int length = (int) bytesIn;
+            byte[] trailer = {
+                    (byte) checksum, (byte) (checksum >>> 8), (byte) (checksum >>> 16), (byte) (checksum >>> 24),
+                    (byte) length, (byte) (length >>> 8), (byte) (length >>> 16), (byte) (length >>> 24)
+            };
+            return append(output, factory, trailer, TRAILER_LENGTH);
+        } catch (RuntimeException e) {
+            DataBufferUtils.release(output);
+            throw e;
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    public long bytesIn() {
+        return bytesIn;
+    }
+
+    // Including gzip header and trailer
+    public long bytesOut() {
+        return bytesOut;
+    }
+
+    // Time spent in deflate and checksums, not waiting for the body
+    public long nanos() {
+        return nanos;
+    }
+
+    void reset() {
+        deflater.reset();
+        crc.reset();
+        headerWritten = false;
+        bytesIn = 0;
+        bytesOut = 0;
+        nanos = 0;
+    }
+
+    void end() {
+        deflater.end();
+    }
+
+    private DataBuffer deflate(DataBuffer output, DataBufferFactory factory) {
+        int length = deflater.deflate(scratch, 0, scratch.length, Deflater.NO_FLUSH);
+        return length > 0 ? append(output, factory, scratch, length) : output;
+    }
+
+    private DataBuffer append(DataBuffer output, DataBufferFactory factory, byte[] bytes, int length) {
+        if (output == null) {
+            output = factory.allocateBuffer(headerWritten ? length : HEADER.length + length);
+        }
+        if (!headerWritten) {
+            output.write(HEADER);
+            bytesOut += HEADER.length;
+            headerWritten = true;
+        }
+        output.write(bytes, 0, length);
+        bytesOut += length;
+        return output;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.apigateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that follows observed latency, after the gradient algorithm in Netflix's
+ * concurrency-limits. A long-term RTT average is compared with each new sample: while they
+ * agree the limit creeps up by about sqrt(limit), and as latency rises above the average
+ * the limit shrinks in proportion (at most halving per sample). Dropped calls (errors,
+ * timeouts, 5xx) back off multiplicatively. The limit only grows while it is actually being
+ * used, so an idle route does not drift up to the maximum.
+ *
+ * <p>Admission is a CAS on the in-flight counter. Samples update the estimate under a lock that
+ * is only ever tried, never waited for: under contention a latency sample is skipped (the rest
+ * still sample the same RTT distribution), and a drop is counted and applied by whichever
+ * release next gets the lock, so completions never queue behind each other.
+ */
+public final class AdaptiveLimiter {
+
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final int longWindow;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final AtomicInteger pendingDrops = new AtomicInteger();
+
+    // Guarded by updateLock
+    private double estimatedLimit;
+    private double longRtt;
+    private long samples;
+
+    public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit, double smoothing, int longWindow) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.longWindow = longWindow;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @param share fraction of the limit the caller's priority class may fill, in (0, 1]
+     * @return true if a slot was taken; it must be given back with {@link #release} or {@link #cancel}
+     */
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gives back a slot and feeds its round trip time into the estimate.
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightAtRelease = inFlight.getAndDecrement();
+        if (dropped) {
+            pendingDrops.incrementAndGet();
+        }
+        if (!updateLock.tryLock()) {
+            return;
+        }
+        try {
+            update(dropped ? 0 : rttNanos, inFlightAtRelease);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Gives back a slot without a sample, e.g. when the client went away.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    private void update(long rttNanos, int inFlightAtRelease) {
+        int drops = pendingDrops.getAndSet(0);
+        if (drops > 0) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * Math.pow(BACKOFF_RATIO, drops));
+            limit = (int) estimatedLimit;
+            return;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+
+        double shortRtt = rttNanos;
+        samples++;
+        longRtt += (shortRtt - longRtt) / Math.min(samples, longWindow);
+
+        // Latency has dropped for good (e.g. a backend recovered): let the average catch up faster
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+
+        // Far below the limit the samples say nothing about how much more the backend could take
+        if (inFlightAtRelease < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    @Override
+    public String toString() {
+        return name + "[limit=" + limit + ", inFlight=" + inFlight.get() + "]";
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.apigateway.concurrency;
+
+import com.example.apigateway.accesslog.AccessLogFilter;
+import com.example.apigateway.config.AdmissionProperties;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.util.JsonErrorBody;
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Sheds load before it queues up toward the backends. Every request to a backend route takes a
+ * slot from the gateway-wide {@link AdaptiveLimiter} and from its route's limiter; when either is
+ * full the request gets an immediate 503 with {@code Retry-After}.
+ *
+ * <p>Priority classes from {@code gateway.admission.priorities} may fill different shares of each
+ * limit, so low-priority traffic is turned away first as a limit is approached. Runs right after
+ * the access log and before JwtAuthFilter, so a shed request costs a path match and two counters.
+ */
+@Component
+public class AdmissionControlFilter implements GlobalFilter, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    public static final int ORDER = AccessLogFilter.ORDER + 1;
+
+    private static final String DEFAULT_PRIORITY = "default";
+
+    private static final JsonErrorBody OVERLOADED = JsonErrorBody.of("Gateway is overloaded, please retry", 503);
+
+    @Autowired
+    private AdmissionProperties properties;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    private final ConcurrentMap<String, AdaptiveLimiter> routeLimiters = new ConcurrentHashMap<>();
+    private AdaptiveLimiter gatewayLimiter;
+    private List<PriorityClass> priorities;
+    private String[] priorityNames;
+    private double[] shares;
+    private String retryAfter;
+
+    @PostConstruct
+    void init() {
+        int factor = properties.getGatewayFactor();
+        gatewayLimiter = newLimiter("gateway", factor);
+
+        PathPatternParser parser = new PathPatternParser();
+        priorities = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Double> priorityShares = new ArrayList<>();
+        for (AdmissionProperties.Priority priority : properties.getPriorities()) {
+            List<PathPattern> patterns = priority.getPaths().stream().map(parser::parse).toList();
+            priorities.add(new PriorityClass(patterns, priority.getAuthenticated()));
+            names.add(priority.getName());
+            priorityShares.add(priority.getShare());
+        }
+        // The last index is the default class
+        names.add(DEFAULT_PRIORITY);
+        priorityShares.add(properties.getDefaultShare());
+        priorityNames = names.toArray(String[]::new);
+        shares = priorityShares.stream().mapToDouble(Double::doubleValue).toArray();
+        retryAfter = String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds()));
+
+        if (properties.isEnabled()) {
+            logger.info("Admission control: route limits {}..{} (initial {}), priorities {}",
+                    properties.getMinLimit(), properties.getMaxLimit(), properties.getInitialLimit(), names);
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        // Local forward: served by the gateway itself (composite parts are admitted one by one, see admit)
+        if (!properties.isEnabled() || route == null || "forward".equals(route.getUri().getScheme())) {
+            return chain.filter(exchange);
+        }
+
+        int priority = priorityOf(exchange.getRequest());
+        double share = shares[priority];
+        AdaptiveLimiter routeLimiter = routeLimiter(route.getId());
+
+        if (!gatewayLimiter.tryAcquire(share)) {
+            return shed(exchange, route.getId(), priority, gatewayLimiter);
+        }
+        if (!routeLimiter.tryAcquire(share)) {
+            gatewayLimiter.cancel();
+            return shed(exchange, route.getId(), priority, routeLimiter);
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> release(routeLimiter, start, signal, isOverloaded(exchange)));
+    }
+
+    /**
+     * Admits a call the gateway makes itself to a route's backend, e.g. a composite part, against
+     * the same gateway-wide and route limiters as requests routed there.
+     *
+     * @param request    the client request the call is made for; decides the priority class
+     * @param overloaded whether a result signals overload and should shrink the limits, as a 503 or 504 does
+     * @return the call, or {@code whenShed} without subscribing to the call if either limit is full
+     */
+    public <T> Mono<T> admit(String routeId, ServerHttpRequest request, Mono<T> call, Mono<T> whenShed,
+                             Predicate<? super T> overloaded) {
+        if (!properties.isEnabled()) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            int priority = priorityOf(request);
+            double share = shares[priority];
+            AdaptiveLimiter routeLimiter = routeLimiter(routeId);
+            if (!gatewayLimiter.tryAcquire(share)) {
+                gatewayMetrics.admissionRejected(routeId, priority, priorityNames);
+                return whenShed;
+            }
+            if (!routeLimiter.tryAcquire(share)) {
+                gatewayLimiter.cancel();
+                gatewayMetrics.admissionRejected(routeId, priority, priorityNames);
+                return whenShed;
+            }
+
+            long start = System.nanoTime();
+            AtomicBoolean dropped = new AtomicBoolean();
+            return call
+                    .doOnNext(result -> dropped.set(overloaded.test(result)))
+                    .doFinally(signal -> release(routeLimiter, start, signal, dropped.get()));
+        });
+    }
+
+    private AdaptiveLimiter routeLimiter(String routeId) {
+        AdaptiveLimiter limiter = routeLimiters.get(routeId);
+        return limiter != null ? limiter : routeLimiters.computeIfAbsent(routeId, id -> newLimiter(id, 1));
+    }
+
+    private void release(AdaptiveLimiter routeLimiter, long start, SignalType signal, boolean overloaded) {
+        if (signal == SignalType.CANCEL) {
+            routeLimiter.cancel();
+            gatewayLimiter.cancel();
+            return;
+        }
+        long rtt = System.nanoTime() - start;
+        boolean dropped = signal == SignalType.ON_ERROR || overloaded;
+        routeLimiter.release(rtt, dropped);
+        gatewayLimiter.release(rtt, dropped);
+    }
+
+    private int priorityOf(ServerHttpRequest request) {
+        if (priorities.isEmpty()) {
+            return 0;
+        }
+        PathContainer path = request.getPath().pathWithinApplication();
+        boolean authenticated = request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION);
+        for (int i = 0; i < priorities.size(); i++) {
+            if (priorities.get(i).matches(path, authenticated)) {
+                return i;
+            }
+        }
+        return priorities.size();
+    }
+
+    // Only overload signals shrink the limit; a backend bug returning 500 fast says nothing about capacity
+    private static boolean isOverloaded(ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null && (status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status.value() == HttpStatus.GATEWAY_TIMEOUT.value());
+    }
+
+    private AdaptiveLimiter newLimiter(String name, int factor) {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(name,
+                properties.getInitialLimit() * factor,
+                properties.getMinLimit() * factor,
+                properties.getMaxLimit() * factor,
+                properties.getSmoothing(),
+                properties.getLongWindow());
+        Gauge.builder("gateway.admission.limit", limiter, AdaptiveLimiter::limit)
+                .description("Current adaptive concurrency limit")
+                .tag("limiter", name)
+                .register(gatewayMetrics.registry());
+        Gauge.builder("gateway.admission.inflight", limiter, AdaptiveLimiter::inFlight)
+                .description("Requests currently admitted")
+                .tag("limiter", name)
+                .register(gatewayMetrics.registry());
+        return limiter;
+    }
+
+    private Mono<Void> shed(ServerWebExchange exchange, String routeId, int priority, AdaptiveLimiter limiter) {
+        gatewayMetrics.admissionRejected(routeId, priority, priorityNames);
+        logger.debug("Shed {} request for route {}: {}", priorityNames[priority], routeId, limiter);
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.getHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(OVERLOADED.render(System.currentTimeMillis()))));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    private record PriorityClass(List<PathPattern> patterns, Boolean authenticated) {
+
+        boolean matches(PathContainer path, boolean hasAuthorization) {
+            if (authenticated != null && authenticated != hasAuthorization) {
+                return false;
+            }
+            for (PathPattern pattern : patterns) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.apigateway.concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gateway-wide cap on a byte count shared by concurrent requests, e.g. request body bytes
+ * being proxied. Acquiring is a CAS that fails instead of waiting once the capacity is used up.
+ */
+public final class ByteBudget {
+
+    private final long capacity;
+    private final AtomicLong used = new AtomicLong();
+
+    public ByteBudget(long capacity) {
+        this.capacity = capacity;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public long used() {
+        return used.get();
+    }
+
+    /**
+     * @return true if the bytes were taken; they must be given back with {@link #release}
+     */
+    public boolean tryAcquire(long bytes) {
+        long current;
+        do {
+            current = used.get();
+            if (bytes > capacity - current) {
+                return false;
+            }
+        } while (!used.compareAndSet(current, current + bytes));
+        return true;
+    }
+
+    public void release(long bytes) {
+        used.addAndGet(-bytes);
+    }
+
+    @Override
+    public String toString() {
+        return "ByteBudget[used=" + used.get() + ", capacity=" + capacity + "]";
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings from {@code gateway.access-log} in application.yaml.
+ */
+@ConfigurationProperties(prefix = "gateway.access-log")
+public class AccessLogProperties {
+
+    private boolean enabled = true;
+
+    // Rounded up to a power of two
+    private int bufferSize = 8192;
+
+    // Keyed by status class: 1xx, 2xx, 3xx, 4xx, 5xx. Missing classes are always logged.
+    private Map<String, Double> statusSampleRates = new HashMap<>();
+
+    // Keyed by route id, multiplied with the status class rate
+    private Map<String, Double> routeSampleRates = new HashMap<>();
+
+    // Request headers copied into each record
+    private List<String> headers = new ArrayList<>();
+
+    // Headers whose value is always replaced before logging
+    private List<String> redactedHeaders = new ArrayList<>(List.of("Authorization", "Cookie", "Proxy-Authorization"));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public Map<String, Double> getStatusSampleRates() {
+        return statusSampleRates;
+    }
+
+    public void setStatusSampleRates(Map<String, Double> statusSampleRates) {
+        this.statusSampleRates = statusSampleRates;
+    }
+
+    public Map<String, Double> getRouteSampleRates() {
+        return routeSampleRates;
+    }
+
+    public void setRouteSampleRates(Map<String, Double> routeSampleRates) {
+        this.routeSampleRates = routeSampleRates;
+    }
+
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(List<String> headers) {
+        this.headers = headers;
+    }
+
+    public List<String> getRedactedHeaders() {
+        return redactedHeaders;
+    }
+
+    public void setRedactedHeaders(List<String> redactedHeaders) {
+        this.redactedHeaders = redactedHeaders;
+    }
+}
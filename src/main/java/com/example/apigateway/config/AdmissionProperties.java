@@ -0,0 +1,161 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adaptive admission control from {@code gateway.admission} in application.yaml.
+ * Each backend route has its own limit, and one more limit covers the gateway as a whole.
+ */
+@ConfigurationProperties(prefix = "gateway.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    // Limits per route; the gateway-wide limit is scaled by gateway-factor
+    private int initialLimit = 50;
+    private int minLimit = 5;
+    private int maxLimit = 500;
+    private int gatewayFactor = 4;
+
+    // Weight of each new estimate, and the number of samples the long-term RTT averages over
+    private double smoothing = 0.2;
+    private int longWindow = 600;
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    // Share of the limit for requests that match no priority class
+    private double defaultShare = 0.8;
+
+    // Checked in order, first match wins
+    private List<Priority> priorities = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public int getGatewayFactor() {
+        return gatewayFactor;
+    }
+
+    public void setGatewayFactor(int gatewayFactor) {
+        this.gatewayFactor = gatewayFactor;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public int getLongWindow() {
+        return longWindow;
+    }
+
+    public void setLongWindow(int longWindow) {
+        this.longWindow = longWindow;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public double getDefaultShare() {
+        return defaultShare;
+    }
+
+    public void setDefaultShare(double defaultShare) {
+        this.defaultShare = defaultShare;
+    }
+
+    public List<Priority> getPriorities() {
+        return priorities;
+    }
+
+    public void setPriorities(List<Priority> priorities) {
+        this.priorities = priorities;
+    }
+
+    /**
+     * A class of requests and the share of each limit it may fill. Lower shares are shed first
+     * as in-flight requests approach the limit.
+     */
+    public static class Priority {
+
+        private String name;
+        private List<String> paths = new ArrayList<>();
+
+        // true: only requests carrying an Authorization header; false: only those without; unset: any
+        private Boolean authenticated;
+        private double share = 1.0;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public Boolean getAuthenticated() {
+            return authenticated;
+        }
+
+        public void setAuthenticated(Boolean authenticated) {
+            this.authenticated = authenticated;
+        }
+
+        public double getShare() {
+            return share;
+        }
+
+        public void setShare(double share) {
+            this.share = share;
+        }
+    }
+}
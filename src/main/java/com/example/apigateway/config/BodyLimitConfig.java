@@ -0,0 +1,9 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BodyLimitProperties.class)
+public class BodyLimitConfig {
+}
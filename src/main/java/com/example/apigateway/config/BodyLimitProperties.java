@@ -0,0 +1,109 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Request body limits from {@code gateway.body-limit} in application.yaml. Routes may override
+ * the size and upload rate with a {@code body-limit} policy in the route file.
+ */
+@ConfigurationProperties(prefix = "gateway.body-limit")
+public class BodyLimitProperties {
+
+    private boolean enabled = true;
+
+    // Largest body a route accepts unless its policy says otherwise
+    private DataSize maxSize = DataSize.ofMegabytes(1);
+
+    // Average upload rate (bytes per second) a body must keep after the grace period; 0 = no minimum.
+    // grace + maxSize / minRate should stay within the route's deadline, which covers the upload
+    private DataSize minRate = DataSize.ofKilobytes(256);
+    private Duration rateGracePeriod = Duration.ofSeconds(2);
+
+    // Body bytes of all requests in progress, across routes; more are refused with 503
+    private DataSize maxInFlight = DataSize.ofMegabytes(64);
+
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public DataSize getMinRate() {
+        return minRate;
+    }
+
+    public void setMinRate(DataSize minRate) {
+        this.minRate = minRate;
+    }
+
+    public Duration getRateGracePeriod() {
+        return rateGracePeriod;
+    }
+
+    public void setRateGracePeriod(Duration rateGracePeriod) {
+        this.rateGracePeriod = rateGracePeriod;
+    }
+
+    public DataSize getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(DataSize maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public void setRetryAfter(Duration retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    public static class Policy {
+
+        // Unset: the gateway-wide value
+        private DataSize maxSize;
+        private DataSize minRate;
+        private Duration rateGracePeriod;
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public DataSize getMinRate() {
+            return minRate;
+        }
+
+        public void setMinRate(DataSize minRate) {
+            this.minRate = minRate;
+        }
+
+        public Duration getRateGracePeriod() {
+            return rateGracePeriod;
+        }
+
+        public void setRateGracePeriod(Duration rateGracePeriod) {
+            this.rateGracePeriod = rateGracePeriod;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traffic capture settings from {@code gateway.capture} in application.yaml.
+ */
+@ConfigurationProperties(prefix = "gateway.capture")
+public class CaptureProperties {
+
+    private boolean enabled = false;
+
+    // Capture log, appended to across restarts; capture stays off without one
+    private String file = "";
+
+    // Fraction of requests captured
+    private double sampleRate = 0.01;
+
+    // Route ids to capture; empty means all
+    private List<String> routes = new ArrayList<>();
+
+    // Request headers recorded for replay; credentials are never recorded, even if listed
+    private List<String> headers = new ArrayList<>(List.of(
+            "Content-Type", "Accept", "Accept-Encoding", "Origin", "Access-Control-Request-Method"));
+
+    // Rounded up to a power of two
+    private int bufferSize = 8192;
+
+    // Capture stops once the file reaches this size
+    private DataSize maxFileSize = DataSize.ofGigabytes(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    public List<String> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<String> routes) {
+        this.routes = routes;
+    }
+
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    public void setHeaders(List<String> headers) {
+        this.headers = headers;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public DataSize getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    public void setMaxFileSize(DataSize maxFileSize) {
+        this.maxFileSize = maxFileSize;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Request coalescing settings from {@code gateway.coalescing} in application.yaml.
+ * Routes opt in with {@code coalescing: true} in the route file.
+ */
+@ConfigurationProperties(prefix = "gateway.coalescing")
+public class CoalescingProperties {
+
+    private boolean enabled = true;
+
+    // Responses larger than this are not shared; waiting requests make their own call instead
+    private DataSize maxBodyBytes = DataSize.ofMegabytes(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    public void setMaxBodyBytes(DataSize maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Composite views from {@code gateway.composite} in application.yaml: each view is a set of
+ * backend GETs answered as one JSON document by {@code /composite/<view>}.
+ */
+@ConfigurationProperties(prefix = "gateway.composite")
+public class CompositeProperties {
+
+    // Client request headers passed on to every part; X-User-Id/X-User-Role come from the token
+    private List<String> forwardHeaders = new ArrayList<>(List.of("Authorization", "Accept-Language"));
+
+    // Part timeout when the part does not set one
+    private Duration defaultTimeout = Duration.ofSeconds(3);
+
+    // Larger part bodies are reported as failed rather than buffered
+    private DataSize maxPartSize = DataSize.ofMegabytes(1);
+
+    private Map<String, View> views = new LinkedHashMap<>();
+
+    public List<String> getForwardHeaders() {
+        return forwardHeaders;
+    }
+
+    public void setForwardHeaders(List<String> forwardHeaders) {
+        this.forwardHeaders = forwardHeaders;
+    }
+
+    public Duration getDefaultTimeout() {
+        return defaultTimeout;
+    }
+
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public DataSize getMaxPartSize() {
+        return maxPartSize;
+    }
+
+    public void setMaxPartSize(DataSize maxPartSize) {
+        this.maxPartSize = maxPartSize;
+    }
+
+    public Map<String, View> getViews() {
+        return views;
+    }
+
+    public void setViews(Map<String, View> views) {
+        this.views = views;
+    }
+
+    public static class View {
+
+        // Part name (the key in the response document) -> backend call
+        private Map<String, Part> parts = new LinkedHashMap<>();
+
+        public Map<String, Part> getParts() {
+            return parts;
+        }
+
+        public void setParts(Map<String, Part> parts) {
+            this.parts = parts;
+        }
+    }
+
+    public static class Part {
+
+        // lb://<service>/<path>, as in the route file
+        private URI uri;
+
+        private Duration timeout;
+
+        // Route whose admission limit, circuit breaker and bulkhead the part shares; unset: none
+        private String route;
+
+        public URI getUri() {
+            return uri;
+        }
+
+        public void setUri(URI uri) {
+            this.uri = uri;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public String getRoute() {
+            return route;
+        }
+
+        public void setRoute(String route) {
+            this.route = route;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Upstream response compression settings from {@code gateway.compression} in application.yaml.
+ * Routes inherit min-size and content-types and may override them, or switch compression off,
+ * with a {@code compression} policy in the route file.
+ */
+@ConfigurationProperties(prefix = "gateway.compression")
+public class CompressionProperties {
+
+    private boolean enabled = true;
+
+    // 1 (fastest) to 9 (smallest); 6 is zlib's default trade-off
+    private int level = Deflater.DEFAULT_COMPRESSION;
+
+    // Idle compressors kept for reuse; more concurrent responses allocate and then drop theirs
+    private int poolSize = 64;
+
+    // Responses with a smaller Content-Length go out as they are
+    private DataSize minSize = DataSize.ofKilobytes(1);
+
+    private List<String> contentTypes = new ArrayList<>(List.of(
+            "application/json", "application/*+json", "application/xml", "application/javascript", "text/*"));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public DataSize getMinSize() {
+        return minSize;
+    }
+
+    public void setMinSize(DataSize minSize) {
+        this.minSize = minSize;
+    }
+
+    public List<String> getContentTypes() {
+        return contentTypes;
+    }
+
+    public void setContentTypes(List<String> contentTypes) {
+        this.contentTypes = contentTypes;
+    }
+
+    public static class Policy {
+
+        private boolean enabled = true;
+
+        // Unset: the gateway-wide value
+        private DataSize minSize;
+        private List<String> contentTypes;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getMinSize() {
+            return minSize;
+        }
+
+        public void setMinSize(DataSize minSize) {
+            this.minSize = minSize;
+        }
+
+        public List<String> getContentTypes() {
+            return contentTypes;
+        }
+
+        public void setContentTypes(List<String> contentTypes) {
+            this.contentTypes = contentTypes;
+        }
+    }
+}
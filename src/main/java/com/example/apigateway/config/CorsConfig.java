@@ -0,0 +1,31 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.policy.CorsPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CorsProperties.class)
+public class CorsConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(CorsConfig.class);
+
+    @Bean
+    public CorsPolicy corsPolicy(CorsProperties properties) {
+        CorsPolicy policy = CorsPolicy.builder()
+                .allowedOrigins(properties.getAllowedOrigins())
+                .allowedMethods(properties.getAllowedMethods())
+                .allowedHeaders(properties.getAllowedHeaders())
+                .exposedHeaders(properties.getExposedHeaders())
+                .allowCredentials(properties.isAllowCredentials())
+                .maxAge(properties.getMaxAge())
+                .maxMatchedOrigins(properties.getMaxMatchedOrigins())
+                .build();
+
+        logger.info("Compiled CORS policy for {} origins", policy.originCount());
+        return policy;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CORS settings from {@code gateway.cors} in application.yaml, compiled into a
+ * {@link com.example.apigateway.policy.CorsPolicy}.
+ */
+@ConfigurationProperties(prefix = "gateway.cors")
+public class CorsProperties {
+
+    // Exact origins, or patterns such as http://localhost:* (any port)
+    private List<String> allowedOrigins = new ArrayList<>();
+    private List<String> allowedMethods = new ArrayList<>(List.of("GET", "HEAD", "POST"));
+
+    // "*" echoes whatever the preflight asks for
+    private List<String> allowedHeaders = new ArrayList<>(List.of("*"));
+    private List<String> exposedHeaders = new ArrayList<>();
+    private boolean allowCredentials = true;
+    private Duration maxAge = Duration.ofHours(1);
+
+    // Origins admitted by a pattern whose headers are kept prepared
+    private int maxMatchedOrigins = 1000;
+
+    public List<String> getAllowedOrigins() {
+        return allowedOrigins;
+    }
+
+    public void setAllowedOrigins(List<String> allowedOrigins) {
+        this.allowedOrigins = allowedOrigins;
+    }
+
+    public List<String> getAllowedMethods() {
+        return allowedMethods;
+    }
+
+    public void setAllowedMethods(List<String> allowedMethods) {
+        this.allowedMethods = allowedMethods;
+    }
+
+    public List<String> getAllowedHeaders() {
+        return allowedHeaders;
+    }
+
+    public void setAllowedHeaders(List<String> allowedHeaders) {
+        this.allowedHeaders = allowedHeaders;
+    }
+
+    public List<String> getExposedHeaders() {
+        return exposedHeaders;
+    }
+
+    public void setExposedHeaders(List<String> exposedHeaders) {
+        this.exposedHeaders = exposedHeaders;
+    }
+
+    public boolean isAllowCredentials() {
+        return allowCredentials;
+    }
+
+    public void setAllowCredentials(boolean allowCredentials) {
+        this.allowCredentials = allowCredentials;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public int getMaxMatchedOrigins() {
+        return maxMatchedOrigins;
+    }
+
+    public void setMaxMatchedOrigins(int maxMatchedOrigins) {
+        this.maxMatchedOrigins = maxMatchedOrigins;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Backend instance pools from {@code gateway.load-balancer} in application.yaml.
+ * Routes reach a pool through an {@code lb://<service>} URI.
+ */
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class LoadBalancerProperties {
+
+    // Service name -> instance base URIs
+    private Map<String, List<String>> services = new LinkedHashMap<>();
+
+    // Optional YAML/JSON file with a top-level "services" map in the same shape;
+    // its entries replace the static list of the same service and it is re-read when it changes
+    private String instancesFile;
+
+    private Duration reloadInterval = Duration.ofSeconds(5);
+
+    // Consecutive failures (connect errors or 5xx) before an instance is ejected
+    private int failureThreshold = 5;
+
+    private Duration ejectionTime = Duration.ofSeconds(30);
+
+    // Weight of the newest sample in the per-instance latency EWMA
+    private double ewmaAlpha = 0.3;
+
+    public Map<String, List<String>> getServices() {
+        return services;
+    }
+
+    public void setServices(Map<String, List<String>> services) {
+        this.services = services;
+    }
+
+    public String getInstancesFile() {
+        return instancesFile;
+    }
+
+    public void setInstancesFile(String instancesFile) {
+        this.instancesFile = instancesFile;
+    }
+
+    public Duration getReloadInterval() {
+        return reloadInterval;
+    }
+
+    public void setReloadInterval(Duration reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    public Duration getEjectionTime() {
+        return ejectionTime;
+    }
+
+    public void setEjectionTime(Duration ejectionTime) {
+        this.ejectionTime = ejectionTime;
+    }
+
+    public double getEwmaAlpha() {
+        return ewmaAlpha;
+    }
+
+    public void setEwmaAlpha(double ewmaAlpha) {
+        this.ewmaAlpha = ewmaAlpha;
+    }
+}
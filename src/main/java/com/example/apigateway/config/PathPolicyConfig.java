@@ -0,0 +1,29 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.policy.AccessDecision;
+import com.example.apigateway.policy.PathPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PathPolicyProperties.class)
+public class PathPolicyConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PathPolicyConfig.class);
+
+    @Bean
+    public PathPolicy pathPolicy(PathPolicyProperties properties) {
+        PathPolicy policy = PathPolicy.builder()
+                .defaultDecision(AccessDecision.AUTHENTICATED)
+                .add(AccessDecision.PUBLIC, properties.getPublicPaths())
+                .add(AccessDecision.AUTHENTICATED, properties.getAuthenticatedPaths())
+                .add(AccessDecision.ADMIN, properties.getAdminPaths())
+                .build();
+
+        logger.info("Compiled path policy with {} rules", policy.ruleCount());
+        return policy;
+    }
+}
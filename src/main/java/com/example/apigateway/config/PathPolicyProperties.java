@@ -0,0 +1,42 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Access rules from {@code gateway.access} in application.yaml.
+ * Paths not listed anywhere require authentication.
+ */
+@ConfigurationProperties(prefix = "gateway.access")
+public class PathPolicyProperties {
+
+    private List<String> publicPaths = new ArrayList<>();
+    private List<String> authenticatedPaths = new ArrayList<>();
+    private List<String> adminPaths = new ArrayList<>();
+
+    public List<String> getPublicPaths() {
+        return publicPaths;
+    }
+
+    public void setPublicPaths(List<String> publicPaths) {
+        this.publicPaths = publicPaths;
+    }
+
+    public List<String> getAuthenticatedPaths() {
+        return authenticatedPaths;
+    }
+
+    public void setAuthenticatedPaths(List<String> authenticatedPaths) {
+        this.authenticatedPaths = authenticatedPaths;
+    }
+
+    public List<String> getAdminPaths() {
+        return adminPaths;
+    }
+
+    public void setAdminPaths(List<String> adminPaths) {
+        this.adminPaths = adminPaths;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Response cache settings from {@code gateway.response-cache} in application.yaml.
+ * Caching is opt-in per route via the {@code cache} policy in the route file.
+ */
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    // Both limits apply to the whole cache, shared by all routes
+    private long maxEntries = 1_000;
+    private DataSize maxBytes = DataSize.ofMegabytes(64);
+
+    // Larger responses are passed through without caching
+    private DataSize maxEntryBytes = DataSize.ofMegabytes(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(long maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public DataSize getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(DataSize maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public DataSize getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void setMaxEntryBytes(DataSize maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public static class RoutePolicy {
+
+        // Upper bound; a shorter upstream max-age wins
+        private Duration ttl = Duration.ofSeconds(60);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
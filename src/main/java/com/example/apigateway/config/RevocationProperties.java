@@ -0,0 +1,105 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Token revocation settings from {@code gateway.revocation} in application.yaml.
+ */
+@ConfigurationProperties(prefix = "gateway.revocation")
+public class RevocationProperties {
+
+    private boolean enabled = true;
+
+    // Longest token lifetime user-service issues; bounds how long an entry without a known exp is kept
+    private Duration maxTokenLifetime = Duration.ofHours(24);
+
+    // Bloom filter sizing; the filter grows when the list outgrows it
+    private int expectedEntries = 10_000;
+    private double falsePositiveRate = 0.01;
+
+    private Duration purgeInterval = Duration.ofMinutes(1);
+
+    // Optional snapshot file (memory-mapped) so revocations survive a restart; empty disables it
+    private String snapshotFile = "";
+    private Duration snapshotInterval = Duration.ofSeconds(5);
+
+    // Shared key for service callers of /internal/revocations (X-Revocation-Key); admin tokens are accepted too
+    private String apiKey = "";
+
+    // A successful request to this path revokes the caller's token (empty disables it)
+    private String logoutPath = "/api/auth/logout";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getMaxTokenLifetime() {
+        return maxTokenLifetime;
+    }
+
+    public void setMaxTokenLifetime(Duration maxTokenLifetime) {
+        this.maxTokenLifetime = maxTokenLifetime;
+    }
+
+    public int getExpectedEntries() {
+        return expectedEntries;
+    }
+
+    public void setExpectedEntries(int expectedEntries) {
+        this.expectedEntries = expectedEntries;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public Duration getPurgeInterval() {
+        return purgeInterval;
+    }
+
+    public void setPurgeInterval(Duration purgeInterval) {
+        this.purgeInterval = purgeInterval;
+    }
+
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public void setSnapshotFile(String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    public Duration getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public void setSnapshotInterval(Duration snapshotInterval) {
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    public void setApiKey(String apiKey) {
+        this.apiKey = apiKey;
+    }
+
+    public String getLogoutPath() {
+        return logoutPath;
+    }
+
+    public void setLogoutPath(String logoutPath) {
+        this.logoutPath = logoutPath;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.routing.FileRouteLocator;
+import com.example.apigateway.routing.IndexedRoutePredicateHandlerMapping;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+@EnableConfigurationProperties(RouteTableProperties.class)
+public class RouteTableConfig {
+
+    // Takes the place of the gateway's default mapping, which is @ConditionalOnMissingBean
+    @Bean
+    public RoutePredicateHandlerMapping routePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+                                                                     GlobalCorsProperties globalCorsProperties,
+                                                                     Environment environment,
+                                                                     FileRouteLocator fileRouteLocator) {
+        return new IndexedRoutePredicateHandlerMapping(webHandler, routeLocator, globalCorsProperties, environment,
+                fileRouteLocator);
+    }
+}
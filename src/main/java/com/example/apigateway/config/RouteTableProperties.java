@@ -0,0 +1,34 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Location of the route file from {@code gateway.route-table} in application.yaml.
+ */
+@ConfigurationProperties(prefix = "gateway.route-table")
+public class RouteTableProperties {
+
+    // Spring resource location of a YAML or JSON file with a top-level "routes" list
+    private String file = "classpath:routes.yaml";
+
+    // How often a file on disk is checked for changes; resources inside a jar are loaded once
+    private Duration reloadInterval = Duration.ofSeconds(5);
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public Duration getReloadInterval() {
+        return reloadInterval;
+    }
+
+    public void setReloadInterval(Duration reloadInterval) {
+        this.reloadInterval = reloadInterval;
+    }
+}
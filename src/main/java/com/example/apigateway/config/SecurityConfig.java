@@ -1,65 +1,36 @@
 package com.example.apigateway.config;
 
+import com.example.apigateway.policy.PathPolicy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.web.server.SecurityWebFilterChain;
-import org.springframework.web.cors.CorsConfiguration;
-import org.springframework.web.cors.reactive.CorsConfigurationSource;
-import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
-
-import java.util.Arrays;
-import java.util.List;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
 
 @Configuration
 @EnableWebFluxSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, PathPolicy pathPolicy) {
         return http
                 .csrf(csrf -> csrf.disable()) // Disable CSRF for REST APIs
-                .cors(cors -> cors.configurationSource(corsConfigurationSource()))
+                // CORS is answered by CorsFilter before this chain runs
+                .cors(cors -> cors.disable())
+                // Backends own their Cache-Control; a blanket no-store would also defeat ResponseCacheFilter
+                .headers(headers -> headers.cache(cache -> cache.disable()))
                 .authorizeExchange(exchanges -> exchanges
-                        .pathMatchers(
-                                "/api/auth/**",
-                                "/api/subscriptions/available/**",
-                                "/actuator/**",
-                                "/actuator/health/**"
-                        ).permitAll()
+                        // Same compiled policy as JwtAuthFilter
+                        .matchers(publicPaths(pathPolicy)).permitAll()
                         .anyExchange().permitAll() // Since we handle auth in JWT filter
                 )
                 .build();
     }
 
-    @Bean
-    public CorsConfigurationSource corsConfigurationSource() {
-        CorsConfiguration configuration = new CorsConfiguration();
-
-        // Allow specific origins
-        configuration.setAllowedOriginPatterns(Arrays.asList(
-                "http://localhost:*",
-                "https://localhost:*"
-        ));
-
-        // Allow all methods
-        configuration.setAllowedMethods(Arrays.asList(
-                "GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"
-        ));
-
-        // Allow all headers
-        configuration.setAllowedHeaders(Arrays.asList("*"));
-
-        // Allow credentials
-        configuration.setAllowCredentials(true);
-
-        // Cache preflight response
-        configuration.setMaxAge(3600L);
-
-        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
-        source.registerCorsConfiguration("/**", configuration);
-
-        return source;
+    private static ServerWebExchangeMatcher publicPaths(PathPolicy pathPolicy) {
+        return exchange -> pathPolicy.isPublic(exchange.getRequest().getURI().getPath())
+                ? ServerWebExchangeMatcher.MatchResult.match()
+                : ServerWebExchangeMatcher.MatchResult.notMatch();
     }
-}
\ No newline at end of file
+}
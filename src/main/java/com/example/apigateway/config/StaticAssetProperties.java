@@ -0,0 +1,56 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * In-memory static asset settings from {@code gateway.static-assets} in application.yaml.
+ */
+@ConfigurationProperties(prefix = "gateway.static-assets")
+public class StaticAssetProperties {
+
+    private String location = "classpath*:/static/";
+
+    // Smaller files are not worth a gzip variant
+    private DataSize gzipMinSize = DataSize.ofBytes(1024);
+
+    // Cache lifetime for assets whose name carries no content hash; HTML is always revalidated
+    private Duration maxAge = Duration.ofHours(1);
+
+    // Assets whose file name contains a content hash (app.3f9a2c1b.js) are cached for a year as immutable
+    private String fingerprintPattern = ".*[.-][0-9a-fA-F]{8,}\\.[a-zA-Z0-9]+$";
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public DataSize getGzipMinSize() {
+        return gzipMinSize;
+    }
+
+    public void setGzipMinSize(DataSize gzipMinSize) {
+        this.gzipMinSize = gzipMinSize;
+    }
+
+    public Duration getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    public String getFingerprintPattern() {
+        return fingerprintPattern;
+    }
+
+    public void setFingerprintPattern(String fingerprintPattern) {
+        this.fingerprintPattern = fingerprintPattern;
+    }
+}
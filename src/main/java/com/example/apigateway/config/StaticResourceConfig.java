@@ -1,28 +1,23 @@
 package com.example.apigateway.config;
 
+import com.example.apigateway.staticassets.StaticAssetHandler;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
-import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
-
+/**
+ * The router function mapping is consulted before the gateway's route mapping, so static
+ * assets are answered from memory without going through the gateway filters.
+ */
 @Configuration
+@EnableConfigurationProperties(StaticAssetProperties.class)
 public class StaticResourceConfig {
 
     @Bean
-    public RouterFunction<ServerResponse> staticResourceRouter() {
-        return RouterFunctions.route(GET("/"), request ->
-                ServerResponse.ok()
-                        .contentType(MediaType.TEXT_HTML)
-                        .bodyValue(new ClassPathResource("static/index.html"))
-        ).andRoute(GET("/index.html"), request ->
-                ServerResponse.ok()
-                        .contentType(MediaType.TEXT_HTML)
-                        .bodyValue(new ClassPathResource("static/index.html"))
-        );
+    public RouterFunction<ServerResponse> staticResourceRouter(StaticAssetHandler handler) {
+        return RouterFunctions.route(handler, handler);
     }
-}
\ No newline at end of file
+}
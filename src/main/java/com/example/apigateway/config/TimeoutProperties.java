@@ -0,0 +1,126 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Request deadlines from {@code gateway.timeouts} in application.yaml. Routes may override the
+ * budget with their own {@link Policy} in the route file.
+ */
+@ConfigurationProperties(prefix = "gateway.timeouts")
+public class TimeoutProperties {
+
+    private boolean enabled = true;
+
+    // Budget for routes that declare none
+    private Duration defaultBudget = Duration.ofSeconds(10);
+
+    // Absolute deadline (epoch millis) sent to backends; also read from callers that already have one
+    private String header = "X-Request-Deadline";
+    private boolean honorIncoming = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getDefaultBudget() {
+        return defaultBudget;
+    }
+
+    public void setDefaultBudget(Duration defaultBudget) {
+        this.defaultBudget = defaultBudget;
+    }
+
+    public String getHeader() {
+        return header;
+    }
+
+    public void setHeader(String header) {
+        this.header = header;
+    }
+
+    public boolean isHonorIncoming() {
+        return honorIncoming;
+    }
+
+    public void setHonorIncoming(boolean honorIncoming) {
+        this.honorIncoming = honorIncoming;
+    }
+
+    public static class Policy {
+
+        // Time from entering the route until the upstream response headers arrive; unset: default-budget
+        private Duration budget;
+
+        // Connect timeout to the backend; unset: spring.cloud.gateway.httpclient.connect-timeout
+        private Duration connect;
+
+        // Tighten the budget to multiplier x the route's recent percentile latency, never below min
+        private boolean adaptive;
+        private double percentile = 0.99;
+        private double multiplier = 2.0;
+        private Duration min = Duration.ofMillis(200);
+        private int window = 1024;
+
+        public Duration getBudget() {
+            return budget;
+        }
+
+        public void setBudget(Duration budget) {
+            this.budget = budget;
+        }
+
+        public Duration getConnect() {
+            return connect;
+        }
+
+        public void setConnect(Duration connect) {
+            this.connect = connect;
+        }
+
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        public void setAdaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        public Duration getMin() {
+            return min;
+        }
+
+        public void setMin(Duration min) {
+            this.min = min;
+        }
+
+        public int getWindow() {
+            return window;
+        }
+
+        public void setWindow(int window) {
+            this.window = window;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.apigateway.config;
+
+import com.example.apigateway.loadbalancer.ServiceRegistry;
+import com.example.apigateway.upstream.UpstreamHttpClientFactory;
+import com.example.apigateway.upstream.UpstreamRoutingFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpResources;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.LoopResources;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Upstream HTTP client wiring: per-backend pools, h2c routing and the event loop transport.
+ * The stock routing filter is switched off in application.yaml
+ * ({@code spring.cloud.gateway.global-filter.netty-routing.enabled}) in favour of {@link UpstreamRoutingFilter}.
+ */
+@Configuration
+@EnableConfigurationProperties(UpstreamProperties.class)
+public class UpstreamConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamConfig.class);
+
+    @Bean
+    public HttpClientFactory gatewayHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                                      List<HttpClientCustomizer> customizers, HttpClientSslConfigurer sslConfigurer,
+                                                      UpstreamProperties upstreamProperties, ServiceRegistry serviceRegistry) {
+        return new UpstreamHttpClientFactory(properties, serverProperties, sslConfigurer, customizers,
+                upstreamProperties, serviceRegistry);
+    }
+
+    @Bean
+    public NettyRoutingFilter upstreamRoutingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                                    HttpClientProperties properties, UpstreamProperties upstreamProperties) {
+        Set<String> h2cServices = upstreamProperties.getPools().entrySet().stream()
+                .filter(pool -> pool.getValue().isH2c())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        return new UpstreamRoutingFilter(httpClient, headersFilters, properties, h2cServices);
+    }
+
+    // Switched off together with the stock routing filter, but still needed to write the upstream response
+    @Bean
+    public NettyWriteResponseFilter nettyWriteResponseFilter(GatewayProperties gatewayProperties) {
+        return new NettyWriteResponseFilter(gatewayProperties.getStreamingMediaTypes());
+    }
+
+    // Both sides share the Reactor Netty event loops; prefer-native picks epoll/io_uring over NIO when available
+    @Bean
+    public HttpClientCustomizer transportHttpClientCustomizer(UpstreamProperties properties) {
+        return client -> client.runOn(HttpResources.get(), properties.isNativeTransport());
+    }
+
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> transportServerCustomizer(UpstreamProperties properties) {
+        logger.info("Native transport {} (available: {})", properties.isNativeTransport() ? "preferred" : "off",
+                LoopResources.hasNativeSupport());
+        return factory -> factory.addServerCustomizers(server -> server.runOn(HttpResources.get(), properties.isNativeTransport()));
+    }
+}
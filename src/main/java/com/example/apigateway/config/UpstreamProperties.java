@@ -0,0 +1,110 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Upstream transport and per-backend connection pools from {@code gateway.upstream} in
+ * application.yaml. Backends are the {@code lb://} services of {@code gateway.load-balancer};
+ * anything not set falls back to {@code spring.cloud.gateway.httpclient.pool}.
+ */
+@ConfigurationProperties(prefix = "gateway.upstream")
+public class UpstreamProperties {
+
+    // Epoll (or io_uring when its incubator jar is on the classpath) instead of NIO, for server and client
+    private boolean nativeTransport = true;
+
+    private Map<String, Pool> pools = new LinkedHashMap<>();
+
+    public boolean isNativeTransport() {
+        return nativeTransport;
+    }
+
+    public void setNativeTransport(boolean nativeTransport) {
+        this.nativeTransport = nativeTransport;
+    }
+
+    public Map<String, Pool> getPools() {
+        return pools;
+    }
+
+    public void setPools(Map<String, Pool> pools) {
+        this.pools = pools;
+    }
+
+    public static class Pool {
+
+        // Connections per backend instance (HTTP/2: connections, each multiplexing many streams)
+        private Integer maxConnections;
+
+        // Requests allowed to wait for a connection, and for how long, before failing fast
+        private Integer pendingAcquireMaxCount;
+        private Duration pendingAcquireTimeout;
+
+        private Duration maxIdleTime;
+        private Duration maxLifeTime;
+        private Duration evictInBackground;
+
+        // HTTP/2 cleartext with prior knowledge; only for backends that speak it
+        private boolean h2c;
+
+        public Integer getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(Integer maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Integer getPendingAcquireMaxCount() {
+            return pendingAcquireMaxCount;
+        }
+
+        public void setPendingAcquireMaxCount(Integer pendingAcquireMaxCount) {
+            this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        }
+
+        public Duration getPendingAcquireTimeout() {
+            return pendingAcquireTimeout;
+        }
+
+        public void setPendingAcquireTimeout(Duration pendingAcquireTimeout) {
+            this.pendingAcquireTimeout = pendingAcquireTimeout;
+        }
+
+        public Duration getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(Duration maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public Duration getMaxLifeTime() {
+            return maxLifeTime;
+        }
+
+        public void setMaxLifeTime(Duration maxLifeTime) {
+            this.maxLifeTime = maxLifeTime;
+        }
+
+        public Duration getEvictInBackground() {
+            return evictInBackground;
+        }
+
+        public void setEvictInBackground(Duration evictInBackground) {
+            this.evictInBackground = evictInBackground;
+        }
+
+        public boolean isH2c() {
+            return h2c;
+        }
+
+        public void setH2c(boolean h2c) {
+            this.h2c = h2c;
+        }
+    }
+}
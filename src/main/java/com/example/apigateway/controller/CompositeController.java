@@ -0,0 +1,60 @@
+package com.example.apigateway.controller;
+
+import com.example.apigateway.composite.CompositeService;
+import com.example.apigateway.filter.JwtAuthFilter;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.util.JsonErrorBody;
+import com.example.apigateway.util.JwtPrincipal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Composite views, reached through a forward route in the route file (e.g. /api/composite/dashboard),
+ * so JwtAuthFilter has verified the token once for all parts. Requests that did not come through
+ * such a route carry no principal and are refused.
+ */
+@RestController
+@RequestMapping("/composite")
+public class CompositeController {
+
+    private static final JsonErrorBody NOT_AUTHENTICATED = JsonErrorBody.of("Authentication required", 401);
+    private static final JsonErrorBody UNKNOWN_VIEW = JsonErrorBody.of("Unknown composite view", 404);
+
+    @Autowired
+    private CompositeService compositeService;
+
+    @GetMapping("/{view}")
+    public Mono<Void> compose(@PathVariable String view, ServerWebExchange exchange) {
+        JwtPrincipal principal = exchange.getAttribute(JwtAuthFilter.PRINCIPAL_ATTR);
+        if (principal == null) {
+            return error(exchange.getResponse(), NOT_AUTHENTICATED);
+        }
+        if (!compositeService.hasView(view)) {
+            return error(exchange.getResponse(), UNKNOWN_VIEW);
+        }
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        // Per-user document
+        response.getHeaders().setCacheControl("no-store");
+        return response.writeWith(compositeService.compose(view, GatewayMetrics.routeId(exchange), principal,
+                exchange.getRequest(), response.bufferFactory()));
+    }
+
+    private static Mono<Void> error(ServerHttpResponse response, JsonErrorBody body) {
+        response.setStatusCode(HttpStatusCode.valueOf(body.status()));
+        response.getHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.render(System.currentTimeMillis()))));
+    }
+}
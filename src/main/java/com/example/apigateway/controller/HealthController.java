@@ -5,7 +5,6 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
@@ -31,34 +30,6 @@ public class HealthController {
         return ResponseEntity.ok(response);
     }
 
-// Bu hissəni JwtAuthFilter.java faylında istifadə edin
-
-    private boolean isPublicPath(String path) {
-        List<String> publicPaths = List.of(
-                "/",
-                "/index.html",
-                "/static/",
-                "/css/",
-                "/js/",
-                "/images/",
-                "/favicon.ico",
-                "/api/auth/login",
-                "/api/auth/register",
-                "/api/auth/refresh",
-                "/api/subscriptions/available",
-                "/actuator/health",
-                "/api/health",
-                "/health"
-        );
-
-        // Check if path starts with any public path
-        boolean isPublic = publicPaths.stream().anyMatch(path::startsWith) || "/".equals(path);
-
-        // Bu logger artıq JwtAuthFilter class-ında təyin edilmişdir
-        logger.debug("Path '{}' is public: {}", path, isPublic);
-        return isPublic;
-    }
-
     // Alternative API style endpoint
     @GetMapping("/api/health")
     public ResponseEntity<?> apiHealth() {
@@ -0,0 +1,105 @@
+package com.example.apigateway.controller;
+
+import com.example.apigateway.config.RevocationProperties;
+import com.example.apigateway.revocation.RevocationService;
+import com.example.apigateway.util.JwtPrincipal;
+import com.example.apigateway.util.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Internal endpoint for user-service (or an admin) to revoke a token ID or every token of a
+ * subject. Callers authenticate with the shared {@code X-Revocation-Key} or an ADMIN bearer token.
+ * Not a gateway route, so it is answered here and never forwarded.
+ */
+@RestController
+@RequestMapping("/internal/revocations")
+public class RevocationController {
+
+    private static final String KEY_HEADER = "X-Revocation-Key";
+
+    // Keeps snapshot records small; real jti and subject values are far shorter
+    private static final int MAX_KEY_LENGTH = 512;
+
+    @Autowired
+    private RevocationService revocationService;
+
+    @Autowired
+    private RevocationProperties properties;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @PostMapping
+    public ResponseEntity<?> revoke(@RequestHeader(value = KEY_HEADER, required = false) String key,
+                                    @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                    @RequestBody RevocationRequest request) {
+        if (!authorized(key, authorization)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("success", false, "message", "Not authorized"));
+        }
+        if (!revocationService.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("success", false, "message", "Revocation is disabled"));
+        }
+        boolean hasToken = valid(request.tokenId());
+        boolean hasSubject = valid(request.subject());
+        if (hasToken == hasSubject) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", "Give either tokenId or subject"));
+        }
+
+        if (hasToken) {
+            Instant expiresAt = request.expiresAt() != null ? Instant.ofEpochSecond(request.expiresAt()) : null;
+            revocationService.revokeToken(request.tokenId(), expiresAt);
+        } else {
+            revocationService.revokeSubject(request.subject());
+        }
+        return ResponseEntity.ok(Map.of("success", true, "revoked", hasToken ? "token" : "subject"));
+    }
+
+    @GetMapping
+    public ResponseEntity<?> stats(@RequestHeader(value = KEY_HEADER, required = false) String key,
+                                   @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        if (!authorized(key, authorization)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("success", false, "message", "Not authorized"));
+        }
+        return ResponseEntity.ok(Map.of(
+                "enabled", revocationService.isEnabled(),
+                "tokens", revocationService.tokenCount(),
+                "subjects", revocationService.subjectCount()));
+    }
+
+    private boolean authorized(String key, String authorization) {
+        String apiKey = properties.getApiKey();
+        if (StringUtils.hasText(apiKey) && key != null) {
+            return MessageDigest.isEqual(apiKey.getBytes(StandardCharsets.UTF_8), key.getBytes(StandardCharsets.UTF_8));
+        }
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            JwtPrincipal principal = jwtUtil.verify(authorization.substring(7));
+            return principal != null && "ADMIN".equals(principal.role());
+        }
+        return false;
+    }
+
+    private static boolean valid(String value) {
+        return StringUtils.hasText(value) && value.length() <= MAX_KEY_LENGTH;
+    }
+
+    /**
+     * @param expiresAt the revoked token's exp claim (epoch seconds), so the entry can be purged then
+     */
+    public record RevocationRequest(String tokenId, String subject, Long expiresAt) {
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.concurrency.ByteBudget;
+import com.example.apigateway.config.BodyLimitProperties;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.util.JsonErrorBody;
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enforces the route's request body limits while the body streams through to the backend.
+ * A declared Content-Length over the route's maximum is answered with 413 before any of the body
+ * is read. Otherwise each chunk is counted as it passes (the buffers themselves are forwarded
+ * untouched, never aggregated): a chunked body that grows past the maximum fails with 413, and
+ * one that falls below the route's minimum average upload rate after the grace period with 408.
+ * Either way the upstream call is cancelled and the client connection closed.
+ *
+ * <p>All bodies in progress also share a gateway-wide {@link ByteBudget}: a declared length is
+ * reserved up front, a chunked body as it arrives, and requests that do not fit get a 503 with
+ * {@code Retry-After}. Runs ahead of JwtAuthFilter, so an oversized upload costs no token check.
+ */
+@Component
+public class BodyLimitFilter extends AbstractGatewayFilterFactory<BodyLimitFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BodyLimitFilter.class);
+
+    public static final int ORDER = CompressionFilter.ORDER + 1;
+
+    @Autowired
+    private BodyLimitProperties properties;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    private ByteBudget budget;
+    private String retryAfter;
+
+    public BodyLimitFilter() {
+        super(Config.class);
+    }
+
+    @PostConstruct
+    void init() {
+        budget = new ByteBudget(properties.getMaxInFlight().toBytes());
+        retryAfter = String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds()));
+        Gauge.builder("gateway.body.inflight.bytes", budget, ByteBudget::used)
+                .description("Request body bytes of requests in progress, counted against gateway.body-limit.max-in-flight")
+                .register(gatewayMetrics.registry());
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId();
+        BodyLimitProperties.Policy policy = config.getPolicy() != null ? config.getPolicy() : new BodyLimitProperties.Policy();
+        if (!properties.isEnabled()) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+
+        long maxSize = (policy.getMaxSize() != null ? policy.getMaxSize() : properties.getMaxSize()).toBytes();
+        long minRate = (policy.getMinRate() != null ? policy.getMinRate() : properties.getMinRate()).toBytes();
+        long grace = (policy.getRateGracePeriod() != null ? policy.getRateGracePeriod() : properties.getRateGracePeriod()).toNanos();
+        logger.debug("Body limit for route {}: {} bytes, at least {} bytes/s after {}", routeId, maxSize, minRate,
+                Duration.ofNanos(grace));
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            HttpHeaders headers = exchange.getRequest().getHeaders();
+            long declared = headers.getContentLength();
+            if (declared <= 0 && !headers.containsKey(HttpHeaders.TRANSFER_ENCODING)) {
+                return chain.filter(exchange);
+            }
+            if (declared > maxSize) {
+                return reject(exchange, routeId, BodyLimitExceeded.TOO_LARGE);
+            }
+            if (declared > 0 && !budget.tryAcquire(declared)) {
+                return reject(exchange, routeId, BodyLimitExceeded.BUSY);
+            }
+
+            LimitedBody body = new LimitedBody(exchange.getRequest(), Math.max(declared, 0), maxSize, minRate, grace);
+            return chain.filter(exchange.mutate().request(body).build())
+                    .onErrorResume(BodyLimitExceeded.class, e -> {
+                        // Before the error response: doFinally may run after the caller has seen it
+                        body.release();
+                        return reject(exchange, routeId, e);
+                    })
+                    .doFinally(signal -> body.release());
+        }, ORDER);
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String routeId, BodyLimitExceeded reason) {
+        gatewayMetrics.bodyRejected(routeId, reason.metric);
+        logger.debug("Rejected request body on route {}: {}", routeId, reason.getMessage());
+
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.empty();
+        }
+        response.setStatusCode(HttpStatusCode.valueOf(reason.body.status()));
+        HttpHeaders headers = response.getHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        // The rest of the body is never read, so the connection cannot be reused
+        headers.set(HttpHeaders.CONNECTION, "close");
+        if (reason == BodyLimitExceeded.BUSY) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(reason.body.render(System.currentTimeMillis()))));
+    }
+
+    /**
+     * Request whose body counts its bytes as the backend call consumes it. The body is only
+     * subscribed once, by the routing filter, so the received count needs no synchronization.
+     */
+    private class LimitedBody extends ServerHttpRequestDecorator {
+
+        private final long maxSize;
+        private final long minRate;
+        private final long grace;
+        private final long start = System.nanoTime();
+
+        // Budget bytes held by this request
+        private final AtomicLong reserved;
+        private volatile boolean released;
+        private long received;
+
+        LimitedBody(ServerHttpRequest delegate, long reserved, long maxSize, long minRate, long grace) {
+            super(delegate);
+            this.reserved = new AtomicLong(reserved);
+            this.maxSize = maxSize;
+            this.minRate = minRate;
+            this.grace = grace;
+        }
+
+        @Override
+        public Flux<DataBuffer> getBody() {
+            Flux<DataBuffer> body = super.getBody().handle((buffer, sink) -> {
+                int size = buffer.readableByteCount();
+                received += size;
+                BodyLimitExceeded exceeded = null;
+                if (received > maxSize) {
+                    exceeded = BodyLimitExceeded.TOO_LARGE;
+                } else if (received > reserved.get()) {
+                    // Chunked, or more than declared: take the excess from the shared budget
+                    long more = received - reserved.get();
+                    if (budget.tryAcquire(more)) {
+                        reserved.addAndGet(more);
+                        if (released) {
+                            // The exchange ended while this chunk was in flight
+                            budget.release(reserved.getAndSet(0));
+                        }
+                    } else {
+                        exceeded = BodyLimitExceeded.BUSY;
+                    }
+                }
+                if (exceeded != null) {
+                    DataBufferUtils.release(buffer);
+                    sink.error(exceeded);
+                } else {
+                    sink.next(buffer);
+                }
+            });
+            if (minRate <= 0) {
+                return body;
+            }
+            // Each chunk must arrive before the average rate since the grace period would drop below the minimum
+            return body.timeout(Mono.delay(Duration.ofNanos(grace)),
+                    buffer -> Mono.delay(Duration.ofNanos(Math.max(0, nextChunkDeadline() - System.nanoTime()))),
+                    Flux.error(BodyLimitExceeded.TOO_SLOW));
+        }
+
+        void release() {
+            released = true;
+            budget.release(reserved.getAndSet(0));
+        }
+
+        private long nextChunkDeadline() {
+            return start + grace + TimeUnit.SECONDS.toNanos(received) / minRate;
+        }
+    }
+
+    /**
+     * Ends the request body early; turned into the matching error response by this filter.
+     */
+    public static final class BodyLimitExceeded extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        static final BodyLimitExceeded TOO_LARGE = new BodyLimitExceeded("body exceeds the route's maximum size",
+                JsonErrorBody.of("Request body too large", 413), GatewayMetrics.BODY_TOO_LARGE);
+        static final BodyLimitExceeded TOO_SLOW = new BodyLimitExceeded("body arrives below the route's minimum rate",
+                JsonErrorBody.of("Request body not received in time", 408), GatewayMetrics.BODY_TOO_SLOW);
+        static final BodyLimitExceeded BUSY = new BodyLimitExceeded("gateway-wide in-flight body bytes exhausted",
+                JsonErrorBody.of("Gateway is overloaded, please retry", 503), GatewayMetrics.BODY_BUDGET_EXHAUSTED);
+
+        private final transient JsonErrorBody body;
+        private final int metric;
+
+        private BodyLimitExceeded(String message, JsonErrorBody body, int metric) {
+            super(message, null, false, false);
+            this.body = body;
+            this.metric = metric;
+        }
+    }
+
+    public static class Config {
+
+        private String routeId;
+
+        private BodyLimitProperties.Policy policy;
+
+        public Config() {
+        }
+
+        public Config(String routeId, BodyLimitProperties.Policy policy) {
+            this.routeId = routeId;
+            this.policy = policy;
+        }
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public BodyLimitProperties.Policy getPolicy() {
+            return policy;
+        }
+
+        public void setPolicy(BodyLimitProperties.Policy policy) {
+            this.policy = policy;
+        }
+    }
+}
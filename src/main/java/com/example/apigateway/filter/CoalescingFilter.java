@@ -0,0 +1,286 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.CoalescingProperties;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.policy.PathPolicy;
+import com.example.apigateway.util.TokenDigest;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Single-flight for idempotent GETs: concurrent identical requests share one upstream call
+ * and the leader's response is replayed to every waiter.
+ *
+ * <p>The key is method, path and query. On paths that are not public it also includes a digest
+ * of the Authorization header, so only requests carrying the same token (and therefore the same
+ * {@code X-User-Id}) are merged. Runs after {@link JwtAuthFilter} and {@link RateLimitFilter}, so
+ * every follower is authenticated and charged against the route's rate limit on its own.
+ * Headers that belong to the leader's request (rate-limit state, cookies) are not replayed.
+ * The leader's body and headers are captured as the backend sent them, before
+ * {@link CompressionFilter} encodes them for the leader's client, so each follower's own
+ * compression still applies.
+ *
+ * <p>If the leader fails, is cancelled or its body exceeds {@code max-body-bytes}, waiters fall
+ * back to making their own call.
+ */
+@Component
+public class CoalescingFilter extends AbstractGatewayFilterFactory<CoalescingFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingFilter.class);
+
+    // Same slot as ResponseCacheFilter: the leader's response decorator must be installed
+    // before NettyWriteResponseFilter captures the exchange
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    public static final String COALESCED_HEADER = "X-Coalesced";
+
+    // Describe the leader's own request rather than the upstream response
+    private static final Set<String> PER_REQUEST_HEADERS = Set.of(
+            RateLimitFilter.LIMIT_HEADER.toLowerCase(Locale.ROOT),
+            RateLimitFilter.REMAINING_HEADER.toLowerCase(Locale.ROOT),
+            ResponseCacheFilter.CACHE_STATUS_HEADER.toLowerCase(Locale.ROOT),
+            HttpHeaders.SET_COOKIE.toLowerCase(Locale.ROOT));
+
+    private final ConcurrentMap<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    private CoalescingProperties properties;
+
+    @Autowired
+    private PathPolicy pathPolicy;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    public CoalescingFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId();
+        if (!properties.isEnabled() || !config.isEnabled()) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+
+        long maxBodyBytes = properties.getMaxBodyBytes().toBytes();
+        logger.info("Request coalescing enabled for route {}", routeId);
+
+        GatewayFilter filter = (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+
+            String key = key(routeId, request);
+            Flight flight = new Flight(maxBodyBytes);
+            Flight existing = inFlight.putIfAbsent(key, flight);
+
+            if (existing != null) {
+                gatewayMetrics.coalesced(routeId, GatewayMetrics.COALESCE_FOLLOWER);
+                return existing.result()
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(replay -> {
+                            if (replay.isPresent()) {
+                                return replay(exchange, replay.get());
+                            }
+                            gatewayMetrics.coalesced(routeId, GatewayMetrics.COALESCE_FALLBACK);
+                            return chain.filter(exchange);
+                        });
+            }
+
+            gatewayMetrics.coalesced(routeId, GatewayMetrics.COALESCE_LEADER);
+            return lead(exchange, chain, key, flight);
+        };
+
+        return new OrderedGatewayFilter(filter, ORDER);
+    }
+
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain, String key, Flight flight) {
+        TeeResponse response = new TeeResponse(exchange.getResponse(), flight);
+
+        return chain.filter(exchange.mutate().response(response).build())
+                .doOnSuccess(done -> flight.complete(response))
+                .doFinally(signal -> {
+                    inFlight.remove(key, flight);
+                    // No-op if already completed; releases waiters on error or cancel
+                    flight.abandon();
+                });
+    }
+
+    private Mono<Void> replay(ServerWebExchange exchange, Replay replay) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(replay.status());
+
+        HttpHeaders headers = response.getHeaders();
+        // Keep this exchange's own CORS/security headers, add the upstream ones it doesn't have yet
+        for (Map.Entry<String, List<String>> header : replay.headers().entrySet()) {
+            if (!headers.containsKey(header.getKey())
+                    && !PER_REQUEST_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                headers.put(header.getKey(), header.getValue());
+            }
+        }
+        headers.set(COALESCED_HEADER, "true");
+
+        if (replay.body().length == 0) {
+            return response.setComplete();
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(replay.body())));
+    }
+
+    private String key(String routeId, ServerHttpRequest request) {
+        String path = request.getURI().getRawPath();
+        String query = request.getURI().getRawQuery();
+
+        StringBuilder key = new StringBuilder(routeId.length() + path.length() + 80)
+                .append(routeId).append(' ').append(path);
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        if (!pathPolicy.isPublic(request.getURI().getPath())) {
+            String authorization = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            key.append(' ').append(authorization != null ? TokenDigest.of(authorization) : "-");
+        }
+        return key.toString();
+    }
+
+    private record Replay(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    /**
+     * One in-flight upstream call and the result waiters subscribe to.
+     */
+    private static final class Flight {
+
+        private final Sinks.One<Replay> sink = Sinks.one();
+        private final long maxBodyBytes;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private HttpHeaders headers;
+        private boolean overflow;
+
+        Flight(long maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+
+        Mono<Replay> result() {
+            return sink.asMono();
+        }
+
+        // Headers as they stood when the body started; compression further out rewrites them
+        void capture(HttpHeaders headers) {
+            this.headers = new HttpHeaders();
+            this.headers.putAll(headers);
+        }
+
+        void append(DataBuffer buffer) {
+            if (overflow) {
+                return;
+            }
+            int length = buffer.readableByteCount();
+            if (body.size() + (long) length > maxBodyBytes) {
+                overflow = true;
+                body.reset();
+                return;
+            }
+            byte[] chunk = new byte[length];
+            buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(chunk), 0, length);
+            body.writeBytes(chunk);
+        }
+
+        void complete(ServerHttpResponse response) {
+            HttpStatusCode status = response.getStatusCode();
+            if (overflow || status == null) {
+                sink.tryEmitEmpty();
+                return;
+            }
+            if (headers == null) {
+                capture(response.getHeaders());
+            }
+            sink.tryEmitValue(new Replay(status, HttpHeaders.readOnlyHttpHeaders(headers), body.toByteArray()));
+        }
+
+        void abandon() {
+            sink.tryEmitEmpty();
+        }
+    }
+
+    /**
+     * Passes the leader's body through unchanged while copying it into the flight.
+     */
+    private static final class TeeResponse extends ServerHttpResponseDecorator {
+
+        private final Flight flight;
+
+        TeeResponse(ServerHttpResponse delegate, Flight flight) {
+            super(delegate);
+            this.flight = flight;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            flight.capture(getHeaders());
+            return super.writeWith(Flux.from(body).doOnNext(flight::append));
+        }
+    }
+
+    public static class Config {
+
+        private String routeId;
+
+        private boolean enabled;
+
+        public Config() {
+        }
+
+        public Config(String routeId, boolean enabled) {
+            this.routeId = routeId;
+            this.enabled = enabled;
+        }
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.compression.CompressorPool;
+import com.example.apigateway.compression.GzipCompressor;
+import com.example.apigateway.config.CompressionProperties;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.staticassets.AcceptEncoding;
+import jakarta.annotation.PostConstruct;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.List;
+
+/**
+ * Gzip-compresses upstream response bodies as they stream through, for clients that accept it.
+ * A response qualifies when its content type is on the route's allowlist, its Content-Length
+ * (if known) reaches the route's minimum size, and it is not already encoded, partial or marked
+ * {@code no-transform}. Qualifying responses always get {@code Vary: Accept-Encoding}.
+ *
+ * <p>Runs ahead of the response cache and coalescing, so they keep the identity body and each
+ * hit or replay is compressed for its own client. Streamed media types (written with flushes)
+ * are left alone.
+ */
+@Component
+public class CompressionFilter extends AbstractGatewayFilterFactory<CompressionFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CompressionFilter.class);
+
+    public static final int ORDER = DeadlineFilter.ORDER + 1;
+
+    @Autowired
+    private CompressionProperties properties;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    private CompressorPool pool;
+
+    public CompressionFilter() {
+        super(Config.class);
+    }
+
+    @PostConstruct
+    void init() {
+        pool = new CompressorPool(properties.getLevel(), properties.getPoolSize());
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId();
+        CompressionProperties.Policy policy = config.getPolicy() != null ? config.getPolicy() : new CompressionProperties.Policy();
+        if (!properties.isEnabled() || !policy.isEnabled()) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+
+        long minSize = (policy.getMinSize() != null ? policy.getMinSize() : properties.getMinSize()).toBytes();
+        List<MediaType> contentTypes = MediaType.parseMediaTypes(
+                policy.getContentTypes() != null ? policy.getContentTypes() : properties.getContentTypes());
+        logger.debug("Compression for route {}: gzip from {} bytes for {}", routeId, minSize, contentTypes);
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (exchange.getRequest().getMethod() == HttpMethod.HEAD) {
+                return chain.filter(exchange);
+            }
+            boolean gzip = AcceptEncoding.parse(exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING)).gzip();
+            ServerHttpResponse response = new CompressingResponse(exchange.getResponse(), routeId, gzip, minSize, contentTypes);
+            return chain.filter(exchange.mutate().response(response).build());
+        }, ORDER);
+    }
+
+    private class CompressingResponse extends ServerHttpResponseDecorator {
+
+        private final String routeId;
+        private final boolean gzip;
+        private final long minSize;
+        private final List<MediaType> contentTypes;
+
+        CompressingResponse(ServerHttpResponse delegate, String routeId, boolean gzip, long minSize,
+                            List<MediaType> contentTypes) {
+            super(delegate);
+            this.routeId = routeId;
+            this.gzip = gzip;
+            this.minSize = minSize;
+            this.contentTypes = contentTypes;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!qualifies()) {
+                return super.writeWith(body);
+            }
+            HttpHeaders headers = getHeaders();
+            if (headers.getVary().stream().noneMatch(HttpHeaders.ACCEPT_ENCODING::equalsIgnoreCase)) {
+                headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            if (!gzip) {
+                return super.writeWith(body);
+            }
+
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            // The bytes differ from the identity representation the backend tagged
+            String etag = headers.getETag();
+            if (etag != null && !etag.startsWith("W/")) {
+                headers.setETag("W/" + etag);
+            }
+
+            GzipCompressor compressor = pool.acquire();
+            DataBufferFactory factory = bufferFactory();
+            Flux<DataBuffer> compressed = Flux.from(body)
+                    .mapNotNull(buffer -> compressor.compress(buffer, factory))
+                    .concatWith(Mono.fromSupplier(() -> compressor.finish(factory)))
+                    .doFinally(signal -> {
+                        if (signal == SignalType.ON_COMPLETE) {
+                            gatewayMetrics.compressed(routeId, compressor.bytesIn(), compressor.bytesOut(), compressor.nanos());
+                            pool.release(compressor);
+                        } else {
+                            pool.discard(compressor);
+                        }
+                    });
+            return super.writeWith(compressed);
+        }
+
+        private boolean qualifies() {
+            HttpStatusCode status = getStatusCode();
+            if (status != null && (status.value() == 204 || status.value() == 304 || status.is1xxInformational())) {
+                return false;
+            }
+            HttpHeaders headers = getHeaders();
+            if (headers.containsKey(HttpHeaders.CONTENT_ENCODING) || headers.containsKey(HttpHeaders.CONTENT_RANGE)) {
+                return false;
+            }
+            long length = headers.getContentLength();
+            if (length >= 0 && length < minSize) {
+                return false;
+            }
+            String cacheControl = headers.getCacheControl();
+            if (cacheControl != null && cacheControl.contains("no-transform")) {
+                return false;
+            }
+            try {
+                MediaType contentType = headers.getContentType();
+                return contentType != null && contentTypes.stream().anyMatch(type -> type.includes(contentType));
+            } catch (InvalidMediaTypeException e) {
+                return false;
+            }
+        }
+    }
+
+    public static class Config {
+
+        private String routeId;
+
+        private CompressionProperties.Policy policy;
+
+        public Config() {
+        }
+
+        public Config(String routeId, CompressionProperties.Policy policy) {
+            this.routeId = routeId;
+            this.policy = policy;
+        }
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public CompressionProperties.Policy getPolicy() {
+            return policy;
+        }
+
+        public void setPolicy(CompressionProperties.Policy policy) {
+            this.policy = policy;
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package com.example.apigateway.filter;
 
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.policy.CorsPolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cloud.gateway.filter.GatewayFilterChain;
-import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.Ordered;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -12,54 +13,75 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
+/**
+ * The only CORS handling in the gateway. Runs as the first web filter, ahead of Spring Security,
+ * static assets and the gateway routes, and answers preflights itself from {@link CorsPolicy}.
+ * On other requests the CORS headers are written just before commit, replacing any a backend
+ * sent, so each appears exactly once.
+ */
 @Component
-public class CorsFilter implements GlobalFilter, Ordered {
+public class CorsFilter implements WebFilter, Ordered {
 
     private static final Logger logger = LoggerFactory.getLogger(CorsFilter.class);
 
-    @Override
-    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        ServerHttpRequest request = exchange.getRequest();
-        ServerHttpResponse response = exchange.getResponse();
+    public static final int ORDER = Ordered.HIGHEST_PRECEDENCE;
 
-        String origin = request.getHeaders().getFirst(HttpHeaders.ORIGIN);
-        String method = request.getMethod().name();
-        String path = request.getURI().getPath();
+    @Autowired
+    private CorsPolicy corsPolicy;
 
-        logger.debug("CORS Filter - Method: {}, Path: {}, Origin: {}", method, path, origin);
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
 
-        // Add CORS headers
-        HttpHeaders headers = response.getHeaders();
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpHeaders requestHeaders = request.getHeaders();
+        String origin = requestHeaders.getFirst(HttpHeaders.ORIGIN);
+        if (origin == null) {
+            return chain.filter(exchange);
+        }
 
-        // Allow multiple origins if needed
-        if (origin != null && (origin.equals("http://localhost:3000") ||
-                origin.equals("http://localhost:8080") ||
-                origin.equals("http://localhost:4200"))) {
-            headers.add("Access-Control-Allow-Origin", origin);
-        } else {
-            headers.add("Access-Control-Allow-Origin", "http://localhost:3000");
+        CorsPolicy.Origin allowed = corsPolicy.lookup(origin);
+        String requestedMethod = requestHeaders.getFirst(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD);
+        if (HttpMethod.OPTIONS.equals(request.getMethod()) && requestedMethod != null) {
+            return preflight(exchange, origin, allowed, requestedMethod);
         }
 
-        headers.add("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS, PATCH");
-        headers.add("Access-Control-Allow-Headers",
-                "Origin, Content-Type, Accept, Authorization, X-Requested-With, X-User-Id, X-User-Role");
-        headers.add("Access-Control-Allow-Credentials", "true");
-        headers.add("Access-Control-Max-Age", "3600");
+        ServerHttpResponse response = exchange.getResponse();
+        response.beforeCommit(() -> {
+            HttpHeaders headers = response.getHeaders();
+            CorsPolicy.RESPONSE_HEADERS.forEach(headers::remove);
+            if (allowed != null) {
+                allowed.applyTo(headers);
+            }
+            return Mono.empty();
+        });
+        return chain.filter(exchange);
+    }
 
-        // Handle preflight requests
-        if (HttpMethod.OPTIONS.equals(request.getMethod())) {
-            logger.info("Handling OPTIONS preflight request for path: {}", path);
-            response.setStatusCode(HttpStatus.OK);
+    private Mono<Void> preflight(ServerWebExchange exchange, String origin, CorsPolicy.Origin allowed, String requestedMethod) {
+        long start = System.nanoTime();
+        ServerHttpResponse response = exchange.getResponse();
+        String requestedHeaders = exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+
+        if (allowed == null || !corsPolicy.allowsMethod(requestedMethod) || !corsPolicy.allowsHeaders(requestedHeaders)) {
+            logger.debug("Rejected CORS preflight from {} for {} {}", origin, requestedMethod, exchange.getRequest().getPath());
+            response.setStatusCode(HttpStatus.FORBIDDEN);
             return response.setComplete();
         }
 
-        return chain.filter(exchange);
+        response.setStatusCode(HttpStatus.OK);
+        allowed.applyPreflightTo(response.getHeaders(), requestedHeaders);
+        gatewayMetrics.recordPreflight(System.nanoTime() - start);
+        return response.setComplete();
     }
 
     @Override
     public int getOrder() {
-        return -100; // Higher priority than other filters
+        return ORDER;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,204 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.concurrency.AdmissionControlFilter;
+import com.example.apigateway.config.TimeoutProperties;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.resilience.LatencyTracker;
+import com.example.apigateway.util.JsonErrorBody;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR;
+
+/**
+ * Gives each backend request a deadline and enforces it. The budget comes from the route's
+ * {@link TimeoutProperties.Policy}, optionally tightened to a multiple of the route's recent
+ * percentile latency, and never exceeds a deadline the caller already sent.
+ *
+ * <p>The deadline is passed downstream as an absolute epoch-millis header, so hedged or retried
+ * attempts sent later still carry the right value. When it passes before the response is
+ * committed, or the client disconnects first, the upstream call is cancelled, which closes its
+ * pooled connection instead of waiting on it; an expired deadline is answered with 504. Once the
+ * response headers are on their way the deadline no longer applies, so a slow download is never
+ * cut short. Runs ahead of all other route filters, so the budget covers the whole gateway path.
+ *
+ * <p>The adaptive budget learns from the time until upstream response headers, sampled only for
+ * responses that actually came from the backend without a server error.
+ */
+@Component
+public class DeadlineFilter extends AbstractGatewayFilterFactory<DeadlineFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeadlineFilter.class);
+
+    public static final int ORDER = AdmissionControlFilter.ORDER + 1;
+
+    private static final JsonErrorBody TIMED_OUT = JsonErrorBody.of("Upstream did not respond in time", 504);
+
+    // Whichever of the response commit and the deadline comes first wins
+    private static final int PENDING = 0;
+    private static final int COMMITTED = 1;
+    private static final int EXPIRED = 2;
+
+    @Autowired
+    private TimeoutProperties properties;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    public DeadlineFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId();
+        TimeoutProperties.Policy policy = config.getPolicy() != null ? config.getPolicy() : new TimeoutProperties.Policy();
+        if (!properties.isEnabled()) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+
+        long budget = (policy.getBudget() != null ? policy.getBudget() : properties.getDefaultBudget()).toNanos();
+        LatencyTracker tracker = policy.isAdaptive() ? new LatencyTracker(policy.getWindow(), policy.getPercentile()) : null;
+        long minBudget = Math.min(budget, policy.getMin().toNanos());
+        String header = properties.getHeader();
+        logger.info("Deadline for route {}: {}{}", routeId, Duration.ofNanos(budget),
+                tracker != null ? " (adaptive, " + policy.getMultiplier() + " x p" + Math.round(policy.getPercentile() * 100) + ")" : "");
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            long start = System.nanoTime();
+            long now = System.currentTimeMillis();
+            long routeBudget = budget;
+            if (tracker != null && tracker.percentileNanos() > 0) {
+                routeBudget = Math.max(minBudget, Math.min(budget, (long) (tracker.percentileNanos() * policy.getMultiplier())));
+            }
+            long deadline = now + TimeUnit.NANOSECONDS.toMillis(routeBudget);
+            if (properties.isHonorIncoming()) {
+                deadline = Math.min(deadline, incomingDeadline(exchange.getRequest(), header));
+            }
+            long remaining = deadline - now;
+            if (remaining <= 0) {
+                gatewayMetrics.deadlineCancelled(routeId, GatewayMetrics.DEADLINE_EXCEEDED);
+                return onDeadline(exchange);
+            }
+
+            String deadlineValue = String.valueOf(deadline);
+            ServerWebExchange withDeadline = exchange.mutate()
+                    .request(request -> request.headers(headers -> headers.set(header, deadlineValue)))
+                    .build();
+
+            AtomicInteger state = new AtomicInteger(PENDING);
+            ServerHttpResponse response = exchange.getResponse();
+            response.beforeCommit(() -> {
+                if (state.compareAndSet(PENDING, COMMITTED) && tracker != null && isUpstreamSuccess(exchange)) {
+                    tracker.record(System.nanoTime() - start);
+                }
+                return Mono.empty();
+            });
+            // Fires only if the response is not committed by then; afterwards the body may take as long as it needs
+            Mono<Long> expiry = Mono.delay(Duration.ofMillis(remaining))
+                    .filter(ignored -> state.compareAndSet(PENDING, EXPIRED))
+                    .switchIfEmpty(Mono.never());
+
+            return chain.filter(withDeadline)
+                    .takeUntilOther(clientGone(exchange.getRequest()).doOnSuccess(ignored -> {
+                        gatewayMetrics.deadlineCancelled(routeId, GatewayMetrics.DEADLINE_CLIENT_GONE);
+                        logger.debug("Client disconnected, cancelled upstream call on route {}", routeId);
+                    }))
+                    .timeout(expiry, Mono.defer(() -> {
+                        gatewayMetrics.deadlineCancelled(routeId, GatewayMetrics.DEADLINE_EXCEEDED);
+                        logger.debug("Deadline of {}ms exceeded on route {}", remaining, routeId);
+                        return onDeadline(exchange);
+                    }));
+        }, ORDER);
+    }
+
+    // Response headers from the backend itself, not a cache hit, coalesced replay or gateway error
+    private static boolean isUpstreamSuccess(ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return exchange.getAttribute(CLIENT_RESPONSE_ATTR) != null && (status == null || !status.is5xxServerError());
+    }
+
+    private static long incomingDeadline(ServerHttpRequest request, String header) {
+        String value = request.getHeaders().getFirst(header);
+        if (value == null) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    // Completes when the client connection closes; never on servers other than Reactor Netty
+    private static Mono<Void> clientGone(ServerHttpRequest request) {
+        Object nativeRequest;
+        try {
+            nativeRequest = ServerHttpRequestDecorator.getNativeRequest(request);
+        } catch (IllegalStateException e) {
+            // No underlying server request, e.g. a mock
+            return Mono.never();
+        }
+        return nativeRequest instanceof Connection connection ? connection.onDispose() : Mono.never();
+    }
+
+    private Mono<Void> onDeadline(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.empty();
+        }
+        response.setStatusCode(HttpStatus.GATEWAY_TIMEOUT);
+        response.getHeaders().set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(TIMED_OUT.render(System.currentTimeMillis()))));
+    }
+
+    public static class Config {
+
+        private String routeId;
+
+        private TimeoutProperties.Policy policy;
+
+        public Config() {
+        }
+
+        public Config(String routeId, TimeoutProperties.Policy policy) {
+            this.routeId = routeId;
+            this.policy = policy;
+        }
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public TimeoutProperties.Policy getPolicy() {
+            return policy;
+        }
+
+        public void setPolicy(TimeoutProperties.Policy policy) {
+            this.policy = policy;
+        }
+    }
+}
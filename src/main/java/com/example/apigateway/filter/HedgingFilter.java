@@ -0,0 +1,252 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.HedgingProperties;
+import com.example.apigateway.loadbalancer.LoadBalancerFilter;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.resilience.LatencyTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+
+/**
+ * Hedged requests for idempotent GETs: if the upstream has not answered within a recent
+ * latency percentile of the route, a second identical request is sent and whichever
+ * response headers arrive first win. The other attempt is cancelled or its connection closed.
+ *
+ * <p>Runs right before {@link LoadBalancerFilter}, so each attempt picks, counts and reports its
+ * own instance; the hedge avoids the one the primary is waiting on. Each attempt gets its own
+ * copy of the exchange attributes and response headers, and the winner's are copied back before
+ * {@code NettyWriteResponseFilter} streams the body.
+ */
+@Component
+public class HedgingFilter extends AbstractGatewayFilterFactory<HedgingFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(HedgingFilter.class);
+
+    public static final int ORDER = LoadBalancerFilter.ORDER - 1;
+
+    @Autowired
+    private HedgingProperties properties;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    public HedgingFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId();
+        HedgingProperties.Policy policy = config.getPolicy();
+        if (!properties.isEnabled() || policy == null) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+
+        LatencyTracker tracker = new LatencyTracker(policy.getWindow(), policy.getPercentile());
+        long minDelay = policy.getMinDelay().toNanos();
+        long maxDelay = policy.getMaxDelay().toNanos();
+        logger.info("Hedging enabled for route {} at p{} (between {} and {})", routeId,
+                Math.round(policy.getPercentile() * 100), policy.getMinDelay(), policy.getMaxDelay());
+
+        GatewayFilter filter = (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || hasBody(request)) {
+                return chain.filter(exchange);
+            }
+
+            long observed = tracker.percentileNanos();
+            long delay = observed < 0 ? maxDelay : Math.min(maxDelay, Math.max(minDelay, observed));
+            AtomicReference<Attempt> winner = new AtomicReference<>();
+
+            Attempt first = new Attempt(exchange, false);
+            Mono<Attempt> primary = attempt(first, chain, winner, tracker);
+            Mono<Attempt> hedge = Mono.delay(Duration.ofNanos(delay))
+                    .then(Mono.defer(() -> {
+                        gatewayMetrics.hedged(routeId, GatewayMetrics.HEDGE_SENT);
+                        Attempt second = new Attempt(exchange, true);
+                        Object busy = first.attributes.get(LoadBalancerFilter.ENDPOINT_ATTR);
+                        if (busy != null) {
+                            second.attributes.put(LoadBalancerFilter.AVOID_ENDPOINT_ATTR, busy);
+                        }
+                        return attempt(second, chain, winner, tracker);
+                    }))
+                    // A failed hedge never fails the request; the primary's outcome decides
+                    .onErrorResume(e -> Mono.empty());
+
+            return Flux.merge(primary, hedge)
+                    .next()
+                    .doOnNext(attempt -> {
+                        if (attempt.hedge) {
+                            gatewayMetrics.hedged(routeId, GatewayMetrics.HEDGE_WON);
+                        }
+                        attempt.applyTo(exchange);
+                    })
+                    .then();
+        };
+
+        return new OrderedGatewayFilter(filter, ORDER);
+    }
+
+    private Mono<Attempt> attempt(Attempt attempt, GatewayFilterChain chain, AtomicReference<Attempt> winner,
+                                  LatencyTracker tracker) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return chain.filter(attempt.exchange)
+                    .then(Mono.just(attempt))
+                    .filter(done -> {
+                        if (winner.compareAndSet(null, done)) {
+                            tracker.record(System.nanoTime() - start);
+                            return true;
+                        }
+                        // Lost the race after its headers arrived: drop the unread response
+                        done.release();
+                        return false;
+                    });
+        });
+    }
+
+    private static boolean hasBody(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        return headers.getContentLength() > 0 || headers.containsKey(HttpHeaders.TRANSFER_ENCODING);
+    }
+
+    /**
+     * One upstream attempt with private attributes, response status and headers.
+     */
+    private static final class Attempt {
+
+        private final boolean hedge;
+        private final Map<String, Object> attributes;
+        private final HttpHeaders headers = new HttpHeaders();
+        private final ServerWebExchange exchange;
+        private volatile HttpStatusCode status;
+
+        Attempt(ServerWebExchange original, boolean hedge) {
+            this.hedge = hedge;
+            this.attributes = new ConcurrentHashMap<>(original.getAttributes());
+            this.headers.addAll(original.getResponse().getHeaders());
+
+            // GETs without a body; the inbound body may only be subscribed once
+            ServerHttpRequest request = new ServerHttpRequestDecorator(original.getRequest()) {
+                @Override
+                public Flux<DataBuffer> getBody() {
+                    return Flux.empty();
+                }
+            };
+            ServerHttpResponse response = new ServerHttpResponseDecorator(original.getResponse()) {
+                @Override
+                public HttpHeaders getHeaders() {
+                    return headers;
+                }
+
+                @Override
+                public boolean setStatusCode(HttpStatusCode statusCode) {
+                    status = statusCode;
+                    return true;
+                }
+
+                @Override
+                @Deprecated
+                public boolean setRawStatusCode(Integer statusCode) {
+                    return setStatusCode(statusCode != null ? HttpStatusCode.valueOf(statusCode) : null);
+                }
+
+                @Override
+                public HttpStatusCode getStatusCode() {
+                    return status;
+                }
+            };
+            this.exchange = new ServerWebExchangeDecorator(original) {
+                @Override
+                public ServerHttpRequest getRequest() {
+                    return request;
+                }
+
+                @Override
+                public ServerHttpResponse getResponse() {
+                    return response;
+                }
+
+                @Override
+                public Map<String, Object> getAttributes() {
+                    return attributes;
+                }
+            };
+        }
+
+        void applyTo(ServerWebExchange original) {
+            original.getAttributes().putAll(attributes);
+            ServerHttpResponse response = original.getResponse();
+            response.getHeaders().clear();
+            response.getHeaders().putAll(headers);
+            if (status != null) {
+                response.setStatusCode(status);
+            }
+        }
+
+        void release() {
+            Connection connection = (Connection) attributes.get(CLIENT_RESPONSE_CONN_ATTR);
+            if (connection != null) {
+                connection.dispose();
+            }
+        }
+    }
+
+    public static class Config {
+
+        private String routeId;
+
+        // Null means the route does not hedge
+        private HedgingProperties.Policy policy;
+
+        public Config() {
+        }
+
+        public Config(String routeId, HedgingProperties.Policy policy) {
+            this.routeId = routeId;
+            this.policy = policy;
+        }
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public HedgingProperties.Policy getPolicy() {
+            return policy;
+        }
+
+        public void setPolicy(HedgingProperties.Policy policy) {
+            this.policy = policy;
+        }
+    }
+}
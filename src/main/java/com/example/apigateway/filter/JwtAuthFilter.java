@@ -1,15 +1,20 @@
 package com.example.apigateway.filter;
 
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.policy.AccessDecision;
+import com.example.apigateway.policy.PathPolicy;
+import com.example.apigateway.util.JsonErrorBody;
+import com.example.apigateway.util.JwtPrincipal;
 import com.example.apigateway.util.JwtUtil;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.apigateway.util.LogThrottle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
-import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
@@ -17,20 +22,35 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.time.Duration;
 
 @Component
 public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Config> {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthFilter.class);
 
+    // Ahead of rate limiting, which keys on the principal, and of the response cache and coalescing
+    public static final int ORDER = RateLimitFilter.ORDER - 1;
+
+    /** Exchange attribute holding the verified {@link JwtPrincipal} for authenticated requests. */
+    public static final String PRINCIPAL_ATTR = JwtAuthFilter.class.getName() + ".principal";
+
+    // Encoded once; a rejection only patches in the timestamp
+    private static final JsonErrorBody MISSING_TOKEN = JsonErrorBody.of("Missing or invalid Authorization header", 401);
+    private static final JsonErrorBody INVALID_TOKEN = JsonErrorBody.of("Invalid or expired token", 401);
+    private static final JsonErrorBody VALIDATION_FAILED = JsonErrorBody.of("Token validation failed", 401);
+    private static final JsonErrorBody ADMIN_REQUIRED = JsonErrorBody.of("Admin access required", 403);
+
     @Autowired
     private JwtUtil jwtUtil;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private PathPolicy pathPolicy;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    private final LogThrottle rejectionLog = new LogThrottle(60, Duration.ofMinutes(1));
 
     public JwtAuthFilter() {
         super(Config.class);
@@ -38,61 +58,49 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
 
     @Override
     public GatewayFilter apply(Config config) {
-        return (exchange, chain) -> {
+        return new OrderedGatewayFilter((exchange, chain) -> {
             ServerHttpRequest request = exchange.getRequest();
             String path = request.getURI().getPath();
-            String method = request.getMethod().name();
 
-            logger.info("=== REQUEST START ===");
-            logger.info("Processing request: {} {}", method, path);
-            logger.info("Request Headers: {}", request.getHeaders());
-            logger.info("Query Params: {}", request.getQueryParams());
+            // Per-request details go to the access log (see AccessLogFilter), keep this at DEBUG
+            logger.debug("Processing request: {} {}", request.getMethod(), path);
 
-            // Public paths - no authentication needed (including static resources)
-            if (isPublicPath(path)) {
-                logger.info("Public path accessed: {}", path);
+            AccessDecision access = pathPolicy.decide(path);
 
-                // Continue with chain and log response
+            // Public paths - no authentication needed (including static resources)
+            if (access == AccessDecision.PUBLIC) {
                 return chain.filter(exchange)
-                        .doOnSuccess(aVoid -> {
-                            ServerHttpResponse response = exchange.getResponse();
-                            logger.info("=== RESPONSE SUCCESS ===");
-                            logger.info("Response Status: {}", response.getStatusCode());
-                            logger.info("Response Headers: {}", response.getHeaders());
-                            logger.info("=== REQUEST END ===");
-                        })
-                        .doOnError(throwable -> {
-                            logger.error("=== RESPONSE ERROR ===");
-                            logger.error("Error processing request: ", throwable);
-                            logger.info("=== REQUEST END ===");
-                        });
+                        .doOnError(throwable -> logger.error("Error processing request: {}", path, throwable));
             }
 
             String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
-            logger.info("Authorization header present: {}", authHeader != null);
 
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-                logger.warn("Missing or invalid Authorization header for path: {}", path);
-                return onError(exchange, "Missing or invalid Authorization header", HttpStatus.UNAUTHORIZED);
+                logRejection("Missing or invalid Authorization header", path);
+                return onError(exchange, MISSING_TOKEN);
             }
 
             String token = authHeader.substring(7);
 
             try {
-                if (!jwtUtil.validateToken(token)) {
-                    logger.warn("Invalid token for path: {}", path);
-                    return onError(exchange, "Invalid or expired token", HttpStatus.UNAUTHORIZED);
+                // Single parse: signature, expiry and claims are verified together
+                JwtPrincipal principal = jwtUtil.verify(token);
+                if (principal == null) {
+                    // JwtUtil already logged why
+                    logger.debug("Invalid token for path: {}", path);
+                    return onError(exchange, INVALID_TOKEN);
                 }
 
-                String username = jwtUtil.extractUsername(token);
-                String role = jwtUtil.extractRole(token);
+                String username = principal.username();
+                String role = principal.role();
 
-                logger.info("Authenticated user: {} with role: {} accessing: {}", username, role, path);
+                // Shared with the other filters through exchange attributes
+                exchange.getAttributes().put(PRINCIPAL_ATTR, principal);
 
                 // Check admin access
-                if (isAdminPath(path) && !"ADMIN".equals(role)) {
-                    logger.warn("Non-admin user {} attempted to access admin path: {}", username, path);
-                    return onError(exchange, "Admin access required", HttpStatus.FORBIDDEN);
+                if (access == AccessDecision.ADMIN && !"ADMIN".equals(role)) {
+                    logRejection("Non-admin user " + username + " attempted to access admin path", path);
+                    return onError(exchange, ADMIN_REQUIRED);
                 }
 
                 // Add user info to headers for downstream services
@@ -101,84 +109,35 @@ public class JwtAuthFilter extends AbstractGatewayFilterFactory<JwtAuthFilter.Co
                         .header("X-User-Role", role)
                         .build();
 
-                logger.info("Request forwarded for user: {}", username);
+                logger.debug("Authenticated user: {} with role: {} accessing: {}", username, role, path);
 
                 return chain.filter(exchange.mutate().request(modifiedRequest).build())
-                        .doOnSuccess(aVoid -> {
-                            ServerHttpResponse response = exchange.getResponse();
-                            logger.info("=== RESPONSE SUCCESS ===");
-                            logger.info("Response Status: {}", response.getStatusCode());
-                            logger.info("Response Headers: {}", response.getHeaders());
-                            logger.info("=== REQUEST END ===");
-                        })
-                        .doOnError(throwable -> {
-                            logger.error("=== RESPONSE ERROR ===");
-                            logger.error("Error processing authenticated request: ", throwable);
-                            logger.info("=== REQUEST END ===");
-                        });
+                        .doOnError(throwable -> logger.error("Error processing authenticated request: {}", path, throwable));
 
             } catch (Exception e) {
-                logger.error("Error processing JWT token for path: {}", path, e);
-                return onError(exchange, "Token validation failed", HttpStatus.UNAUTHORIZED);
+                logRejection("Error processing JWT token (" + e + ")", path);
+                logger.debug("Error processing JWT token for path: {}", path, e);
+                return onError(exchange, VALIDATION_FAILED);
             }
-        };
-    }
-
-    private boolean isPublicPath(String path) {
-        List<String> publicPaths = List.of(
-                "/",
-                "/index.html",
-                "/static/",
-                "/css/",
-                "/js/",
-                "/images/",
-                "/favicon.ico",
-                "/api/auth/login",
-                "/api/auth/register",
-                "/api/auth/refresh",
-                "/api/subscriptions/available",
-                "/actuator/health"
-        );
-
-        // Check if path starts with any public path
-        boolean isPublic = publicPaths.stream().anyMatch(path::startsWith) || "/".equals(path);
-        logger.debug("Path '{}' is public: {}", path, isPublic);
-        return isPublic;
+        }, ORDER);
     }
 
-    private boolean isAdminPath(String path) {
-        return path.contains("/admin/");
-    }
-
-    private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus status) {
+    private Mono<Void> onError(ServerWebExchange exchange, JsonErrorBody body) {
         ServerHttpResponse response = exchange.getResponse();
 
-        logger.error("=== ERROR RESPONSE ===");
-        logger.error("Status: {}, Message: {}", status, message);
+        gatewayMetrics.authRejected(GatewayMetrics.routeId(exchange), body.status());
 
-        response.setStatusCode(status);
+        response.setStatusCode(HttpStatusCode.valueOf(body.status()));
         response.getHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
-        response.getHeaders().add("Access-Control-Allow-Origin", "http://localhost:8080");
-        response.getHeaders().add("Access-Control-Allow-Credentials", "true");
-
-        Map<String, Object> errorResponse = new HashMap<>();
-        errorResponse.put("success", false);
-        errorResponse.put("message", message);
-        errorResponse.put("timestamp", System.currentTimeMillis());
-        errorResponse.put("status", status.value());
-
-        try {
-            String json = objectMapper.writeValueAsString(errorResponse);
-            logger.error("Error response JSON: {}", json);
-            DataBuffer buffer = response.bufferFactory().wrap(json.getBytes());
-
-            return response.writeWith(Mono.just(buffer))
-                    .doFinally(signalType -> {
-                        logger.error("=== REQUEST END (ERROR) ===");
-                    });
-        } catch (Exception e) {
-            logger.error("Error creating error response", e);
-            return response.setComplete();
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body.render(System.currentTimeMillis()))));
+    }
+
+    private void logRejection(String reason, String path) {
+        long suppressed = rejectionLog.tryAcquire();
+        if (suppressed > 0) {
+            logger.warn("{} for path: {} ({} earlier rejections not logged)", reason, path, suppressed);
+        } else if (suppressed == 0) {
+            logger.warn("{} for path: {}", reason, path);
         }
     }
 
@@ -0,0 +1,142 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.RateLimitProperties;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.ratelimit.RateLimiter;
+import com.example.apigateway.util.JsonErrorBody;
+import com.example.apigateway.util.JwtPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Local token-bucket rate limiting per route, keyed by the authenticated user
+ * (from {@link JwtAuthFilter}) or by client IP for anonymous requests.
+ * Orders itself right after JwtAuthFilter and ahead of the response cache and coalescing,
+ * so cache hits and coalesced followers are charged like any other request.
+ */
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    public static final int ORDER = ResponseCacheFilter.ORDER - 1;
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private static final JsonErrorBody TOO_MANY_REQUESTS = JsonErrorBody.of("Too many requests", 429);
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    public RateLimitFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        RateLimitProperties.Limit limit = config.getLimit();
+        if (!properties.isEnabled() || limit == null) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+
+        RateLimiter limiter = new RateLimiter(limit.getCapacity(), limit.getRefillPerSecond(),
+                properties.getMaxKeys(), properties.getIdleTimeout());
+        String capacity = String.valueOf(limiter.capacity());
+        logger.info("Rate limit for route {}: capacity {}, {} req/s", config.getRouteId(),
+                limit.getCapacity(), limit.getRefillPerSecond());
+
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            RateLimiter.Result result = limiter.tryAcquire(key(exchange));
+
+            HttpHeaders headers = exchange.getResponse().getHeaders();
+            headers.set(LIMIT_HEADER, capacity);
+            headers.set(REMAINING_HEADER, String.valueOf(result.remaining()));
+
+            if (result.allowed()) {
+                return chain.filter(exchange);
+            }
+
+            gatewayMetrics.rateLimited(config.getRouteId());
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(result.retryAfterSeconds()));
+            return onRejected(exchange);
+        }, ORDER);
+    }
+
+    // Users and IPs get distinct prefixes, so a username like "ip:10.0.0.1" cannot share an IP's bucket
+    private String key(ServerWebExchange exchange) {
+        JwtPrincipal principal = exchange.getAttribute(JwtAuthFilter.PRINCIPAL_ATTR);
+        if (principal != null) {
+            return "u:" + principal.username();
+        }
+        return "ip:" + clientIp(exchange.getRequest());
+    }
+
+    private String clientIp(ServerHttpRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int comma = forwardedFor.indexOf(',');
+                return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+        InetSocketAddress remote = request.getRemoteAddress();
+        return remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : "unknown";
+    }
+
+    private Mono<Void> onRejected(ServerWebExchange exchange) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(TOO_MANY_REQUESTS.render(System.currentTimeMillis()))));
+    }
+
+    public static class Config {
+
+        private String routeId;
+
+        // Null means the route is not limited
+        private RateLimitProperties.Limit limit;
+
+        public Config() {
+        }
+
+        public Config(String routeId, RateLimitProperties.Limit limit) {
+            this.routeId = routeId;
+            this.limit = limit;
+        }
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public RateLimitProperties.Limit getLimit() {
+            return limit;
+        }
+
+        public void setLimit(RateLimitProperties.Limit limit) {
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.util.JsonErrorBody;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Per-route semaphore bulkhead and circuit breaker around the upstream call.
+ *
+ * <p>Instances come from the {@code resilience4j.bulkhead} and {@code resilience4j.circuitbreaker}
+ * sections of application.yaml and are looked up by route id; a route without an instance is not
+ * wrapped. Upstream 5xx responses count as breaker failures. Rejected calls get a fast 503
+ * instead of waiting on the backend. Breaker and bulkhead state is exported by the
+ * resilience4j Micrometer binding ({@code resilience4j_circuitbreaker_*}, {@code resilience4j_bulkhead_*}).
+ */
+@Component
+public class ResilienceFilter extends AbstractGatewayFilterFactory<ResilienceFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilienceFilter.class);
+
+    private static final JsonErrorBody UNAVAILABLE = JsonErrorBody.of("Service temporarily unavailable", 503);
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    public ResilienceFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId();
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.find(routeId).orElse(null);
+        Bulkhead bulkhead = bulkheadRegistry.find(routeId).orElse(null);
+        if (circuitBreaker == null && bulkhead == null) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+
+        logger.info("Resilience for route {}: circuit breaker {}, bulkhead {}", routeId,
+                circuitBreaker != null ? "on" : "off",
+                bulkhead != null ? bulkhead.getBulkheadConfig().getMaxConcurrentCalls() + " calls" : "off");
+
+        // Seconds a client should wait before retrying against an open breaker
+        String openRetryAfter = circuitBreaker == null ? "1" : String.valueOf(Math.max(1, (circuitBreaker
+                .getCircuitBreakerConfig().getWaitIntervalFunctionInOpenState().apply(1) + 999) / 1000));
+
+        return (exchange, chain) -> {
+            // Completes when the upstream response headers arrive; the body is streamed afterwards.
+            // Deferred, so a rejected call never runs the rest of the chain (e.g. picks an instance)
+            Mono<Void> call = Mono.defer(() -> chain.filter(exchange))
+                    .then(Mono.defer(() -> isServerError(exchange) ? Mono.error(UpstreamServerError.INSTANCE) : Mono.empty()));
+
+            if (circuitBreaker != null) {
+                call = call.transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+            }
+            // Outermost, so a full bulkhead never counts against the breaker
+            if (bulkhead != null) {
+                call = call.transformDeferred(BulkheadOperator.of(bulkhead));
+            }
+
+            return call
+                    .onErrorResume(UpstreamServerError.class, e -> Mono.empty())
+                    .onErrorResume(CallNotPermittedException.class, e -> {
+                        gatewayMetrics.resilienceRejected(routeId, GatewayMetrics.REJECTED_CIRCUIT_OPEN);
+                        return onRejected(exchange, openRetryAfter);
+                    })
+                    .onErrorResume(BulkheadFullException.class, e -> {
+                        gatewayMetrics.resilienceRejected(routeId, GatewayMetrics.REJECTED_BULKHEAD_FULL);
+                        return onRejected(exchange, "1");
+                    });
+        };
+    }
+
+    private boolean isServerError(ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null && status.is5xxServerError();
+    }
+
+    private Mono<Void> onRejected(ServerWebExchange exchange, String retryAfter) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.getHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(UNAVAILABLE.render(System.currentTimeMillis()))));
+    }
+
+    /**
+     * Signals an upstream 5xx to the circuit breaker; the response itself is passed through.
+     */
+    private static final class UpstreamServerError extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        static final UpstreamServerError INSTANCE = new UpstreamServerError();
+
+        private UpstreamServerError() {
+            super("Upstream responded with 5xx", null, false, false);
+        }
+    }
+
+    public static class Config {
+
+        private String routeId;
+
+        public Config() {
+        }
+
+        public Config(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.cache.CachedResponse;
+import com.example.apigateway.cache.ResponseCache;
+import com.example.apigateway.config.ResponseCacheProperties;
+import com.example.apigateway.policy.PathPolicy;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Opt-in TTL cache for public, user-independent GET routes.
+ *
+ * <p>The filter runs after authentication and rate limiting (see {@link #ORDER}), and only ever
+ * serves paths that {@link PathPolicy} marks public.
+ *
+ * <p>Hits are served from the gateway with an ETag; {@code If-None-Match} revalidation
+ * is answered with 304 without touching the backend. Misses stream through to the client
+ * unchanged while a copy of the body is collected for the cache.
+ * Upstream {@code Cache-Control: no-store/private} disables caching and {@code max-age}
+ * can only shorten the configured TTL.
+ *
+ * <p>Only identity bodies are stored: requests that may fill the cache go upstream without
+ * {@code Accept-Encoding} (CompressionFilter encodes hits per client), and responses that are
+ * still encoded, or vary on anything but {@code Accept-Encoding}, are not cached since the key
+ * is just route, path and query.
+ */
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseCacheFilter.class);
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    private static final List<String> STORED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CACHE_CONTROL, HttpHeaders.LAST_MODIFIED);
+
+    // Clients revalidate every time, which the gateway answers cheaply with 304
+    private static final String DEFAULT_CACHE_CONTROL = CacheControl.noCache().getHeaderValue();
+
+    @Autowired
+    private ResponseCacheProperties properties;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private PathPolicy pathPolicy;
+
+    public ResponseCacheFilter() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        ResponseCacheProperties.RoutePolicy policy = config.getPolicy();
+        if (!properties.isEnabled() || policy == null) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+
+        String keyPrefix = config.getRouteId() + ' ';
+        Duration ttl = policy.getTtl();
+        logger.info("Response cache enabled for route {} with ttl {}", config.getRouteId(), ttl);
+
+        GatewayFilter filter = (exchange, chain) -> {
+            ServerHttpRequest request = exchange.getRequest();
+            if (request.getMethod() != HttpMethod.GET || !pathPolicy.isPublic(request.getURI().getPath())) {
+                return chain.filter(exchange);
+            }
+
+            String query = request.getURI().getRawQuery();
+            String key = keyPrefix + request.getURI().getRawPath() + (query != null ? '?' + query : "");
+
+            CachedResponse cached = responseCache.get(key);
+            if (cached != null) {
+                return writeCached(exchange, cached);
+            }
+
+            CachingResponse response = new CachingResponse(exchange.getResponse(), key, ttl);
+            return chain.filter(exchange.mutate()
+                    .request(identity -> identity.headers(headers -> headers.remove(HttpHeaders.ACCEPT_ENCODING)))
+                    .response(response)
+                    .build());
+        };
+
+        // The decorated response must be in place before NettyWriteResponseFilter captures the exchange
+        return new OrderedGatewayFilter(filter, ORDER);
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.addAll(cached.headers());
+        headers.setETag(cached.etag());
+        headers.set(CACHE_STATUS_HEADER, "HIT");
+
+        if (matches(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH), cached.etag())) {
+            responseCache.recordNotModified();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentLength(cached.size());
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Streams the upstream body to the client and keeps a copy for the cache when the response is cacheable.
+     */
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final Duration ttl;
+
+        CachingResponse(ServerHttpResponse delegate, String key, Duration ttl) {
+            super(delegate);
+            this.key = key;
+            this.ttl = ttl;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            Duration effectiveTtl = cacheableFor();
+            if (effectiveTtl == null) {
+                return super.writeWith(body);
+            }
+            getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+
+            List<byte[]> chunks = new ArrayList<>();
+            long[] size = {0};
+            boolean[] overflow = {false};
+
+            Flux<? extends DataBuffer> copying = Flux.from(body)
+                    .doOnNext(buffer -> {
+                        int length = buffer.readableByteCount();
+                        size[0] += length;
+                        if (overflow[0] || size[0] > responseCache.maxEntryBytes()) {
+                            overflow[0] = true;
+                            chunks.clear();
+                            return;
+                        }
+                        byte[] chunk = new byte[length];
+                        buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(chunk), 0, length);
+                        chunks.add(chunk);
+                    })
+                    .doOnComplete(() -> {
+                        if (!overflow[0]) {
+                            store(chunks, (int) size[0], effectiveTtl);
+                        }
+                    });
+
+            return super.writeWith(copying);
+        }
+
+        private Duration cacheableFor() {
+            if (getStatusCode() == null || getStatusCode().value() != HttpStatus.OK.value()) {
+                return null;
+            }
+            HttpHeaders headers = getHeaders();
+            String encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+            if (encoding != null && !encoding.equalsIgnoreCase("identity")) {
+                return null;
+            }
+            for (String vary : headers.getVary()) {
+                if (!vary.equalsIgnoreCase(HttpHeaders.ACCEPT_ENCODING)) {
+                    return null;
+                }
+            }
+            String cacheControl = headers.getCacheControl();
+            if (cacheControl == null) {
+                return ttl;
+            }
+
+            String directives = cacheControl.toLowerCase(Locale.ROOT);
+            if (directives.contains("no-store") || directives.contains("private")) {
+                return null;
+            }
+            int maxAgeIndex = directives.indexOf("max-age=");
+            if (maxAgeIndex >= 0) {
+                int start = maxAgeIndex + "max-age=".length();
+                int end = start;
+                while (end < directives.length() && Character.isDigit(directives.charAt(end))) {
+                    end++;
+                }
+                if (end > start) {
+                    Duration maxAge = Duration.ofSeconds(Long.parseLong(directives.substring(start, end)));
+                    if (maxAge.isZero()) {
+                        return null;
+                    }
+                    return maxAge.compareTo(ttl) < 0 ? maxAge : ttl;
+                }
+            }
+            return ttl;
+        }
+
+        private void store(List<byte[]> chunks, int size, Duration ttl) {
+            ByteBuffer content = ByteBuffer.allocateDirect(size);
+            for (byte[] chunk : chunks) {
+                content.put(chunk);
+            }
+            content.flip();
+
+            HttpHeaders upstream = getHeaders();
+            HttpHeaders stored = new HttpHeaders();
+            for (String name : STORED_HEADERS) {
+                List<String> values = upstream.get(name);
+                if (values != null) {
+                    stored.put(name, values);
+                }
+            }
+            if (!stored.containsKey(HttpHeaders.CACHE_CONTROL)) {
+                stored.set(HttpHeaders.CACHE_CONTROL, DEFAULT_CACHE_CONTROL);
+            }
+
+            String etag = upstream.getETag() != null ? upstream.getETag() : etag(content);
+            responseCache.put(key, new CachedResponse(HttpHeaders.readOnlyHttpHeaders(stored),
+                    content.asReadOnlyBuffer(), etag, System.nanoTime() + ttl.toNanos()));
+        }
+
+        private String etag(ByteBuffer content) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(content.duplicate());
+                return '"' + HexFormat.of().formatHex(digest.digest(), 0, 16) + '"';
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+
+    public static class Config {
+
+        private String routeId;
+
+        // Null means responses of the route are not cached
+        private ResponseCacheProperties.RoutePolicy policy;
+
+        public Config() {
+        }
+
+        public Config(String routeId, ResponseCacheProperties.RoutePolicy policy) {
+            this.routeId = routeId;
+            this.policy = policy;
+        }
+
+        public String getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        public ResponseCacheProperties.RoutePolicy getPolicy() {
+            return policy;
+        }
+
+        public void setPolicy(ResponseCacheProperties.RoutePolicy policy) {
+            this.policy = policy;
+        }
+    }
+}
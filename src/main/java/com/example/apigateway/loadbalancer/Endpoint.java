@@ -0,0 +1,94 @@
+package com.example.apigateway.loadbalancer;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One backend instance and the live statistics used to pick it: requests in flight,
+ * an EWMA of response latency and the current run of consecutive failures.
+ */
+public final class Endpoint {
+
+    private final URI uri;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong ewmaNanosBits = new AtomicLong(Double.doubleToRawLongBits(0));
+    private volatile long ejectedUntilNanos;
+    private volatile boolean ejected;
+
+    public Endpoint(URI uri) {
+        if (uri.getScheme() == null || uri.getHost() == null) {
+            throw new IllegalArgumentException("Instance URI needs a scheme and host: " + uri);
+        }
+        this.uri = uri;
+    }
+
+    public URI uri() {
+        return uri;
+    }
+
+    public int outstanding() {
+        return outstanding.get();
+    }
+
+    public double ewmaNanos() {
+        return Double.longBitsToDouble(ewmaNanosBits.get());
+    }
+
+    public int consecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public boolean isEjected(long now) {
+        // Cheap check first: almost all endpoints are never ejected
+        return ejected && now - ejectedUntilNanos < 0;
+    }
+
+    /**
+     * Lower is better: expected wait if this instance keeps serving at its recent pace.
+     */
+    double score() {
+        return (ewmaNanos() + 1) * (outstanding.get() + 1);
+    }
+
+    void started() {
+        outstanding.incrementAndGet();
+    }
+
+    void succeeded(long latencyNanos, double alpha) {
+        outstanding.decrementAndGet();
+        consecutiveFailures.set(0);
+        ejected = false;
+        long current;
+        double updated;
+        do {
+            current = ewmaNanosBits.get();
+            double ewma = Double.longBitsToDouble(current);
+            // First sample seeds the average instead of being pulled towards zero
+            updated = ewma == 0 ? latencyNanos : ewma + alpha * (latencyNanos - ewma);
+        } while (!ewmaNanosBits.compareAndSet(current, Double.doubleToRawLongBits(updated)));
+    }
+
+    /**
+     * @return true if this failure ejected the instance
+     */
+    boolean failed(long now, int threshold, long ejectionNanos) {
+        outstanding.decrementAndGet();
+        if (consecutiveFailures.incrementAndGet() >= threshold && !isEjected(now)) {
+            ejectedUntilNanos = now + ejectionNanos;
+            ejected = true;
+            return true;
+        }
+        return false;
+    }
+
+    void cancelled() {
+        outstanding.decrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return uri.toString();
+    }
+}
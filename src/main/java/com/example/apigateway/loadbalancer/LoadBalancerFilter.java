@@ -0,0 +1,91 @@
+package com.example.apigateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.support.NotFoundException;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.URI;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_SCHEME_PREFIX_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+/**
+ * Resolves {@code lb://<service>} request URLs to a concrete instance from {@link ServiceRegistry}
+ * and reports the outcome back to the pool. Sits where Spring Cloud's
+ * {@code ReactiveLoadBalancerClientFilter} would, right after {@link RouteToRequestUrlFilter}.
+ *
+ * <p>Latency is measured until the response headers arrive. Errors and 5xx responses count
+ * as failures; cancelled requests only release their slot. The chosen instance is left in
+ * {@link #ENDPOINT_ATTR}; an instance in {@link #AVOID_ENDPOINT_ATTR} is only picked when it is
+ * the service's last one.
+ */
+@Component
+public class LoadBalancerFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 150;
+
+    public static final String ENDPOINT_ATTR = LoadBalancerFilter.class.getName() + ".endpoint";
+    public static final String AVOID_ENDPOINT_ATTR = LoadBalancerFilter.class.getName() + ".avoidEndpoint";
+
+    @Autowired
+    private ServiceRegistry serviceRegistry;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        URI url = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        String schemePrefix = exchange.getAttribute(GATEWAY_SCHEME_PREFIX_ATTR);
+        if (url == null || !("lb".equals(url.getScheme()) || "lb".equals(schemePrefix))) {
+            return chain.filter(exchange);
+        }
+
+        ServicePool pool = serviceRegistry.pool(url.getHost());
+        Endpoint endpoint = pool != null ? pool.choose(exchange.<Endpoint>getAttribute(AVOID_ENDPOINT_ATTR)) : null;
+        if (endpoint == null) {
+            return Mono.error(NotFoundException.create(false, "No instance available for " + url.getHost()));
+        }
+
+        addOriginalRequestUrl(exchange, url);
+        URI instance = endpoint.uri();
+        URI requestUrl = UriComponentsBuilder.fromUri(url)
+                .scheme(instance.getScheme())
+                .host(instance.getHost())
+                .port(instance.getPort())
+                .build(true)
+                .toUri();
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, requestUrl);
+        exchange.getAttributes().put(ENDPOINT_ATTR, endpoint);
+
+        pool.started(endpoint);
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        pool.cancelled(endpoint);
+                    } else if (signal == SignalType.ON_ERROR || isServerError(exchange)) {
+                        pool.failed(endpoint);
+                    } else {
+                        pool.succeeded(endpoint, System.nanoTime() - start);
+                    }
+                });
+    }
+
+    private boolean isServerError(ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        return status != null && status.is5xxServerError();
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.apigateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The instances of one logical service and the power-of-two-choices picker over them.
+ *
+ * <p>Each pick samples two distinct instances at random and takes the one with the lower
+ * {@code (ewma latency) x (outstanding + 1)} score, skipping ejected instances. An instance is
+ * ejected for {@code ejectionNanos} after {@code failureThreshold} consecutive failures. If every
+ * instance is ejected the pool keeps serving from all of them rather than failing outright.
+ */
+public final class ServicePool {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServicePool.class);
+
+    private final String name;
+    private final Endpoint[] endpoints;
+    private final int failureThreshold;
+    private final long ejectionNanos;
+    private final double ewmaAlpha;
+
+    public ServicePool(String name, List<Endpoint> endpoints, int failureThreshold, long ejectionNanos, double ewmaAlpha) {
+        this.name = name;
+        this.endpoints = endpoints.toArray(new Endpoint[0]);
+        this.failureThreshold = failureThreshold;
+        this.ejectionNanos = ejectionNanos;
+        this.ewmaAlpha = ewmaAlpha;
+    }
+
+    /**
+     * A pool with the given instances that keeps the statistics of instances already in this one.
+     */
+    public ServicePool withInstances(List<URI> uris) {
+        Map<URI, Endpoint> existing = new HashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            existing.put(endpoint.uri(), endpoint);
+        }
+        List<Endpoint> updated = uris.stream()
+                .map(uri -> existing.getOrDefault(uri, new Endpoint(uri)))
+                .toList();
+        return new ServicePool(name, updated, failureThreshold, ejectionNanos, ewmaAlpha);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public List<Endpoint> endpoints() {
+        return List.of(endpoints);
+    }
+
+    /**
+     * @return the chosen instance, or null if the pool is empty
+     */
+    public Endpoint choose() {
+        return choose(null);
+    }
+
+    /**
+     * Like {@link #choose()}, but picks {@code avoid} only if it is the sole instance, e.g. so a
+     * hedged request does not wait on the same instance as the attempt it hedges.
+     */
+    public Endpoint choose(Endpoint avoid) {
+        return choose(System.nanoTime(), ThreadLocalRandom.current(), avoid);
+    }
+
+    Endpoint choose(long now, Random random) {
+        return choose(now, random, null);
+    }
+
+    Endpoint choose(long now, Random random, Endpoint avoid) {
+        int n = endpoints.length;
+        if (n <= 1) {
+            return n == 0 ? null : endpoints[0];
+        }
+
+        int first = random.nextInt(n);
+        int second = (first + 1 + random.nextInt(n - 1)) % n;
+        Endpoint a = endpoints[first];
+        Endpoint b = endpoints[second];
+        // The two samples are distinct, so at most one of them is the instance to avoid
+        if (a == avoid) {
+            a = b;
+        } else if (b == avoid) {
+            b = a;
+        }
+
+        boolean aUp = !a.isEjected(now);
+        boolean bUp = !b.isEjected(now);
+        if (aUp != bUp) {
+            return aUp ? a : b;
+        }
+        if (!aUp) {
+            Endpoint healthy = firstHealthy(now, second, avoid);
+            if (healthy != null) {
+                return healthy;
+            }
+            // Everything is ejected: fall through and spread over all instances
+        }
+        return a.score() <= b.score() ? a : b;
+    }
+
+    private Endpoint firstHealthy(long now, int from, Endpoint avoid) {
+        for (int i = 1; i < endpoints.length; i++) {
+            Endpoint candidate = endpoints[(from + i) % endpoints.length];
+            if (candidate != avoid && !candidate.isEjected(now)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    public void started(Endpoint endpoint) {
+        endpoint.started();
+    }
+
+    public void succeeded(Endpoint endpoint, long latencyNanos) {
+        endpoint.succeeded(latencyNanos, ewmaAlpha);
+    }
+
+    public void failed(Endpoint endpoint) {
+        failed(endpoint, System.nanoTime());
+    }
+
+    void failed(Endpoint endpoint, long now) {
+        if (endpoint.failed(now, failureThreshold, ejectionNanos)) {
+            logger.warn("Ejected {} instance {} after {} consecutive failures", name, endpoint,
+                    endpoint.consecutiveFailures());
+        }
+    }
+
+    public void cancelled(Endpoint endpoint) {
+        endpoint.cancelled();
+    }
+}
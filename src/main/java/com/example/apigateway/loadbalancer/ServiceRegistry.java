@@ -0,0 +1,124 @@
+package com.example.apigateway.loadbalancer;
+
+import com.example.apigateway.config.LoadBalancerProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service name to {@link ServicePool}, built from the static lists in application.yaml
+ * plus the optional instances file, which is polled and swapped in atomically when it changes.
+ * No discovery server is involved.
+ */
+@Component
+public class ServiceRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceRegistry.class);
+
+    @Autowired
+    private LoadBalancerProperties properties;
+
+    private volatile Map<String, ServicePool> pools = Map.of();
+    private ScheduledExecutorService reloader;
+    private FileTime lastModified;
+
+    @PostConstruct
+    void init() {
+        reload();
+
+        if (StringUtils.hasText(properties.getInstancesFile())) {
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "instances-file-reloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.getReloadInterval().toMillis();
+            reloader.scheduleWithFixedDelay(this::reloadIfChanged, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the pool for the service, or null if no instances are declared for it
+     */
+    public ServicePool pool(String service) {
+        return pools.get(service);
+    }
+
+    private void reloadIfChanged() {
+        try {
+            FileTime modified = Files.getLastModifiedTime(Path.of(properties.getInstancesFile()));
+            if (!modified.equals(lastModified)) {
+                reload();
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot read instances file {}: {}", properties.getInstancesFile(), e.getMessage());
+        } catch (RuntimeException e) {
+            // Keep serving the previous pools; a half-written file is retried on the next tick
+            logger.warn("Ignoring invalid instances file {}: {}", properties.getInstancesFile(), e.getMessage());
+        }
+    }
+
+    synchronized void reload() {
+        Map<String, List<String>> declared = new LinkedHashMap<>(properties.getServices());
+        if (StringUtils.hasText(properties.getInstancesFile())) {
+            declared.putAll(readInstancesFile(Path.of(properties.getInstancesFile())));
+        }
+
+        Map<String, ServicePool> current = pools;
+        Map<String, ServicePool> updated = new HashMap<>();
+        for (Map.Entry<String, List<String>> service : declared.entrySet()) {
+            List<URI> uris = service.getValue().stream().map(URI::create).toList();
+            ServicePool pool = current.get(service.getKey());
+            if (pool == null) {
+                pool = new ServicePool(service.getKey(), List.of(), properties.getFailureThreshold(),
+                        properties.getEjectionTime().toNanos(), properties.getEwmaAlpha());
+            }
+            updated.put(service.getKey(), pool.withInstances(uris));
+        }
+
+        pools = Map.copyOf(updated);
+        updated.values().forEach(pool -> logger.info("Service {} instances: {}", pool.name(), pool.endpoints()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, List<String>> readInstancesFile(Path file) {
+        try {
+            lastModified = Files.getLastModifiedTime(file);
+            try (Reader reader = Files.newBufferedReader(file)) {
+                // JSON is valid YAML, so one parser covers both formats
+                Map<String, Object> document = new Yaml().load(reader);
+                Object services = document != null ? document.get("services") : null;
+                return services instanceof Map ? (Map<String, List<String>>) services : Map.of();
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot read instances file {}: {}", file, e.getMessage());
+            return Map.of();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.apigateway.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Central place for gateway meters.
+ *
+ * <p>Meters are registered once per route id (never per raw path) and cached,
+ * so recording on the hot path is a map lookup plus an array read.
+ */
+@Component
+public class GatewayMetrics {
+
+    public static final String UNKNOWN_ROUTE = "unknown";
+
+    public static final int COALESCE_LEADER = 0;
+    public static final int COALESCE_FOLLOWER = 1;
+    public static final int COALESCE_FALLBACK = 2;
+
+    private static final String[] COALESCE_ROLES = {"leader", "follower", "fallback"};
+
+    public static final int REJECTED_CIRCUIT_OPEN = 0;
+    public static final int REJECTED_BULKHEAD_FULL = 1;
+
+    private static final String[] REJECTION_REASONS = {"circuit_open", "bulkhead_full"};
+
+    public static final int HEDGE_SENT = 0;
+    public static final int HEDGE_WON = 1;
+
+    private static final String[] HEDGE_OUTCOMES = {"sent", "won"};
+
+    public static final int DEADLINE_EXCEEDED = 0;
+    public static final int DEADLINE_CLIENT_GONE = 1;
+
+    private static final String[] DEADLINE_REASONS = {"deadline_exceeded", "client_disconnected"};
+
+    public static final int COMPOSITE_PART_OK = 0;
+    public static final int COMPOSITE_PART_FAILED = 1;
+    public static final int COMPOSITE_PART_TIMEOUT = 2;
+
+    private static final String[] COMPOSITE_OUTCOMES = {"ok", "failed", "timeout"};
+
+    public static final int BODY_TOO_LARGE = 0;
+    public static final int BODY_TOO_SLOW = 1;
+    public static final int BODY_BUDGET_EXHAUSTED = 2;
+
+    private static final String[] BODY_REJECTION_REASONS = {"too_large", "too_slow", "budget_exhausted"};
+
+    private static final String[] COMPRESSION_STAGES = {"original", "compressed"};
+
+    private static final String[] OUTCOMES = {
+            "UNKNOWN", "INFORMATIONAL", "SUCCESS", "REDIRECTION", "CLIENT_ERROR", "SERVER_ERROR"
+    };
+
+    private final MeterRegistry registry;
+    private final Timer preflightTimer;
+
+    private final ConcurrentMap<String, Timer[]> requestTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> upstreamTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter[]> authRejections = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> rateLimitRejections = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter[]> coalescedRequests = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter[]> resilienceRejections = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter[]> hedgedRequests = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter[]> admissionRejections = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter[]> deadlineCancellations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter[]> compositeParts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter[]> bodyRejections = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter[]> compressionBytes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> compressionTimers = new ConcurrentHashMap<>();
+
+    public GatewayMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.preflightTimer = Timer.builder("gateway.cors.preflight")
+                .description("Time to answer CORS preflight requests at the gateway")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    public MeterRegistry registry() {
+        return registry;
+    }
+
+    public static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route != null ? route.getId() : UNKNOWN_ROUTE;
+    }
+
+    public void recordRequest(String routeId, int status, long nanos) {
+        Timer[] timers = requestTimers.get(routeId);
+        if (timers == null) {
+            timers = requestTimers.computeIfAbsent(routeId, this::createRequestTimers);
+        }
+        int statusClass = status / 100;
+        timers[statusClass > 0 && statusClass < timers.length ? statusClass : 0].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordUpstream(String routeId, long nanos) {
+        Timer timer = upstreamTimers.get(routeId);
+        if (timer == null) {
+            timer = upstreamTimers.computeIfAbsent(routeId, id -> Timer.builder("gateway.upstream.latency")
+                    .description("Time until the upstream response headers arrive")
+                    .tag("route", id)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPreflight(long nanos) {
+        preflightTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void authRejected(String routeId, int status) {
+        Counter[] counters = authRejections.get(routeId);
+        if (counters == null) {
+            counters = authRejections.computeIfAbsent(routeId, id -> new Counter[]{
+                    authCounter(id, "401"),
+                    authCounter(id, "403")
+            });
+        }
+        counters[status == 403 ? 1 : 0].increment();
+    }
+
+    public void rateLimited(String routeId) {
+        Counter counter = rateLimitRejections.get(routeId);
+        if (counter == null) {
+            counter = rateLimitRejections.computeIfAbsent(routeId, id -> Counter.builder("gateway.ratelimit.rejections")
+                    .description("Requests rejected by RateLimitFilter")
+                    .tag("route", id)
+                    .register(registry));
+        }
+        counter.increment();
+    }
+
+    /**
+     * @param role one of {@link #COALESCE_LEADER}, {@link #COALESCE_FOLLOWER}, {@link #COALESCE_FALLBACK}
+     */
+    public void coalesced(String routeId, int role) {
+        increment(coalescedRequests, routeId, role, "gateway.coalescing.requests",
+                "GET requests by their role in request coalescing", "role", COALESCE_ROLES);
+    }
+
+    /**
+     * @param reason {@link #REJECTED_CIRCUIT_OPEN} or {@link #REJECTED_BULKHEAD_FULL}
+     */
+    public void resilienceRejected(String routeId, int reason) {
+        increment(resilienceRejections, routeId, reason, "gateway.resilience.rejections",
+                "Requests failed fast by a circuit breaker or bulkhead", "reason", REJECTION_REASONS);
+    }
+
+    /**
+     * @param outcome {@link #HEDGE_SENT} or {@link #HEDGE_WON}
+     */
+    public void hedged(String routeId, int outcome) {
+        increment(hedgedRequests, routeId, outcome, "gateway.hedging.requests",
+                "Hedged upstream attempts sent and won", "outcome", HEDGE_OUTCOMES);
+    }
+
+    /**
+     * @param priority index into {@code priorityNames}, the configured admission priority classes
+     */
+    public void admissionRejected(String routeId, int priority, String[] priorityNames) {
+        increment(admissionRejections, routeId, priority, "gateway.admission.rejections",
+                "Requests shed by adaptive admission control", "priority", priorityNames);
+    }
+
+    /**
+     * @param reason {@link #DEADLINE_EXCEEDED} or {@link #DEADLINE_CLIENT_GONE}
+     */
+    public void deadlineCancelled(String routeId, int reason) {
+        increment(deadlineCancellations, routeId, reason, "gateway.deadline.cancellations",
+                "Upstream calls cancelled by DeadlineFilter", "reason", DEADLINE_REASONS);
+    }
+
+    /**
+     * @param outcome {@link #COMPOSITE_PART_OK}, {@link #COMPOSITE_PART_FAILED} or {@link #COMPOSITE_PART_TIMEOUT}
+     */
+    public void compositePart(String routeId, int outcome) {
+        increment(compositeParts, routeId, outcome, "gateway.composite.parts",
+                "Backend calls made for composite views, by outcome", "outcome", COMPOSITE_OUTCOMES);
+    }
+
+    /**
+     * @param reason {@link #BODY_TOO_LARGE}, {@link #BODY_TOO_SLOW} or {@link #BODY_BUDGET_EXHAUSTED}
+     */
+    public void bodyRejected(String routeId, int reason) {
+        increment(bodyRejections, routeId, reason, "gateway.body.rejections",
+                "Requests refused by BodyLimitFilter", "reason", BODY_REJECTION_REASONS);
+    }
+
+    /**
+     * One gzip-compressed response body; bytes saved is original minus compressed.
+     */
+    public void compressed(String routeId, long originalBytes, long compressedBytes, long nanos) {
+        Counter[] bytes = counters(compressionBytes, routeId, "gateway.compression.bytes",
+                "Response body bytes before and after gzip compression", "stage", COMPRESSION_STAGES);
+        bytes[0].increment(originalBytes);
+        bytes[1].increment(compressedBytes);
+
+        Timer timer = compressionTimers.get(routeId);
+        if (timer == null) {
+            timer = compressionTimers.computeIfAbsent(routeId, id -> Timer.builder("gateway.compression.time")
+                    .description("CPU time spent compressing each response body")
+                    .tag("route", id)
+                    .register(registry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void increment(ConcurrentMap<String, Counter[]> counters, String routeId, int index,
+                           String name, String description, String tag, String[] tagValues) {
+        counters(counters, routeId, name, description, tag, tagValues)[index].increment();
+    }
+
+    private Counter[] counters(ConcurrentMap<String, Counter[]> counters, String routeId,
+                               String name, String description, String tag, String[] tagValues) {
+        Counter[] routeCounters = counters.get(routeId);
+        if (routeCounters == null) {
+            routeCounters = counters.computeIfAbsent(routeId, id -> {
+                Counter[] created = new Counter[tagValues.length];
+                for (int i = 0; i < created.length; i++) {
+                    created[i] = Counter.builder(name)
+                            .description(description)
+                            .tag("route", id)
+                            .tag(tag, tagValues[i])
+                            .register(registry);
+                }
+                return created;
+            });
+        }
+        return routeCounters;
+    }
+
+    private Counter authCounter(String routeId, String status) {
+        return Counter.builder("gateway.auth.rejections")
+                .description("Requests rejected by JwtAuthFilter")
+                .tag("route", routeId)
+                .tag("status", status)
+                .register(registry);
+    }
+
+    private Timer[] createRequestTimers(String routeId) {
+        Timer[] timers = new Timer[OUTCOMES.length];
+        for (int i = 0; i < OUTCOMES.length; i++) {
+            timers[i] = Timer.builder("gateway.requests")
+                    .description("Total time spent in the gateway per request")
+                    .tag("route", routeId)
+                    .tag("outcome", OUTCOMES[i])
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        return timers;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.apigateway.metrics;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs just before {@link NettyRoutingFilter}, so the measured time covers connection
+ * acquisition, the upstream call and waiting for the response headers.
+ */
+@Component
+public class UpstreamMetricsFilter implements GlobalFilter, Ordered {
+
+    public static final int ORDER = NettyRoutingFilter.ORDER - 1;
+
+    private final GatewayMetrics metrics;
+
+    public UpstreamMetricsFilter(GatewayMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> metrics.recordUpstream(GatewayMetrics.routeId(exchange), System.nanoTime() - start));
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.apigateway.policy;
+
+/**
+ * Precomputed access requirement for a request path.
+ */
+public enum AccessDecision {
+
+    /** No token needed */
+    PUBLIC,
+
+    /** Any valid token */
+    AUTHENTICATED,
+
+    /** Valid token with the ADMIN role */
+    ADMIN
+}
@@ -0,0 +1,275 @@
+package com.example.apigateway.policy;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable CORS policy. The response headers for every allowed origin are built once, so
+ * answering a preflight or decorating a response is a map lookup plus header puts.
+ *
+ * <p>Origins are listed exactly, or as patterns where {@code *} matches any run of characters
+ * and a trailing {@code :*} also matches no port at all ({@code http://localhost:*}).
+ * Origins admitted by a pattern get their header set built on first sight and kept, up to a bound.
+ */
+public final class CorsPolicy {
+
+    /** Every header this policy writes; anything a backend sent under these names is replaced. */
+    public static final List<String> RESPONSE_HEADERS = List.of(
+            HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN,
+            HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS,
+            HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS,
+            HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS,
+            HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS,
+            HttpHeaders.ACCESS_CONTROL_MAX_AGE);
+
+    private static final List<String> PREFLIGHT_VARY = List.of(HttpHeaders.ORIGIN,
+            HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+
+    private final Map<String, Origin> exact;
+    private final List<Pattern> patterns;
+    private final Map<String, Origin> matched = new ConcurrentHashMap<>();
+    private final int maxMatchedOrigins;
+    private final Set<String> allowedMethods;
+    private final Set<String> allowedHeaders;
+    private final Builder settings;
+
+    private CorsPolicy(Builder builder) {
+        this.settings = builder;
+        this.patterns = builder.originPatterns.stream().map(CorsPolicy::compile).toList();
+        this.maxMatchedOrigins = builder.maxMatchedOrigins;
+        this.allowedMethods = Set.copyOf(builder.allowedMethods);
+        this.allowedHeaders = builder.allowedHeaders.contains("*") ? null
+                : builder.allowedHeaders.stream().map(h -> h.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+        Map<String, Origin> origins = new HashMap<>();
+        builder.origins.forEach(origin -> origins.put(origin, new Origin(origin)));
+        this.exact = Map.copyOf(origins);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the prepared headers for an allowed origin, or null if the origin is not allowed
+     */
+    public Origin lookup(String origin) {
+        if (origin == null) {
+            return null;
+        }
+        Origin allowed = exact.get(origin);
+        if (allowed != null) {
+            return allowed;
+        }
+        allowed = matched.get(origin);
+        if (allowed != null || patterns.isEmpty()) {
+            return allowed;
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(origin).matches()) {
+                allowed = new Origin(origin);
+                if (matched.size() < maxMatchedOrigins) {
+                    matched.putIfAbsent(origin, allowed);
+                }
+                return allowed;
+            }
+        }
+        return null;
+    }
+
+    public boolean allowsMethod(String method) {
+        return method != null && allowedMethods.contains(method);
+    }
+
+    /**
+     * @param requestedHeaders the {@code Access-Control-Request-Headers} value, may be null
+     */
+    public boolean allowsHeaders(String requestedHeaders) {
+        if (allowedHeaders == null || requestedHeaders == null || requestedHeaders.isBlank()) {
+            return true;
+        }
+        for (String header : requestedHeaders.split(",")) {
+            String name = header.trim().toLowerCase(Locale.ROOT);
+            if (!name.isEmpty() && !allowedHeaders.contains(name)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether preflight responses echo the requested headers ({@code allowed-headers: "*"}).
+     */
+    public boolean echoesRequestHeaders() {
+        return allowedHeaders == null;
+    }
+
+    public int originCount() {
+        return exact.size() + patterns.size();
+    }
+
+    private static Pattern compile(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        boolean anyPort = pattern.endsWith(":*");
+        String body = anyPort ? pattern.substring(0, pattern.length() - 2) : pattern;
+        String[] parts = body.split("\\*", -1);
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(parts[i]));
+        }
+        if (anyPort) {
+            regex.append("(:\\d+)?");
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Header names and values for one allowed origin, stored as parallel arrays so applying
+     * them touches no iterator or map entry.
+     */
+    public final class Origin {
+
+        private final String[] responseNames;
+        private final List<?>[] responseValues;
+        private final String[] preflightNames;
+        private final List<?>[] preflightValues;
+
+        private Origin(String origin) {
+            List<String> names = new ArrayList<>();
+            List<List<String>> values = new ArrayList<>();
+            put(names, values, HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, List.of(origin));
+            if (settings.allowCredentials) {
+                put(names, values, HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, List.of("true"));
+            }
+            int common = names.size();
+            if (!settings.exposedHeaders.isEmpty()) {
+                put(names, values, HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, List.of(String.join(", ", settings.exposedHeaders)));
+            }
+            this.responseNames = names.toArray(String[]::new);
+            this.responseValues = values.toArray(List[]::new);
+
+            List<String> preflight = new ArrayList<>(names.subList(0, common));
+            List<List<String>> preflightValues = new ArrayList<>(values.subList(0, common));
+            put(preflight, preflightValues, HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, List.of(String.join(", ", settings.allowedMethods)));
+            if (!settings.allowedHeaders.contains("*")) {
+                put(preflight, preflightValues, HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, List.of(String.join(", ", settings.allowedHeaders)));
+            }
+            put(preflight, preflightValues, HttpHeaders.ACCESS_CONTROL_MAX_AGE, List.of(String.valueOf(settings.maxAge.toSeconds())));
+            this.preflightNames = preflight.toArray(String[]::new);
+            this.preflightValues = preflightValues.toArray(List[]::new);
+        }
+
+        /**
+         * Headers for an actual (non-preflight) response from this origin.
+         */
+        @SuppressWarnings("unchecked")
+        public void applyTo(HttpHeaders headers) {
+            for (int i = 0; i < responseNames.length; i++) {
+                headers.put(responseNames[i], (List<String>) responseValues[i]);
+            }
+            addVary(headers, HttpHeaders.ORIGIN);
+        }
+
+        /**
+         * Headers for a preflight answer; requested headers are echoed when all headers are allowed.
+         */
+        @SuppressWarnings("unchecked")
+        public void applyPreflightTo(HttpHeaders headers, String requestedHeaders) {
+            for (int i = 0; i < preflightNames.length; i++) {
+                headers.put(preflightNames[i], (List<String>) preflightValues[i]);
+            }
+            if (allowedHeaders == null && requestedHeaders != null && !requestedHeaders.isBlank()) {
+                headers.set(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, requestedHeaders);
+            }
+            headers.put(HttpHeaders.VARY, PREFLIGHT_VARY);
+        }
+    }
+
+    private static void put(List<String> names, List<List<String>> values, String name, List<String> value) {
+        names.add(name);
+        values.add(value);
+    }
+
+    private static void addVary(HttpHeaders headers, String name) {
+        List<String> vary = headers.get(HttpHeaders.VARY);
+        if (vary != null) {
+            for (String value : vary) {
+                if (value.contains(name)) {
+                    return;
+                }
+            }
+        }
+        headers.add(HttpHeaders.VARY, name);
+    }
+
+    public static final class Builder {
+
+        private final List<String> origins = new ArrayList<>();
+        private final List<String> originPatterns = new ArrayList<>();
+        private List<String> allowedMethods = List.of("GET", "HEAD", "POST");
+        private List<String> allowedHeaders = List.of("*");
+        private List<String> exposedHeaders = List.of();
+        private boolean allowCredentials;
+        private Duration maxAge = Duration.ofMinutes(30);
+        private int maxMatchedOrigins = 1000;
+
+        private Builder() {
+        }
+
+        public Builder allowedOrigins(List<String> origins) {
+            for (String origin : origins) {
+                if (origin.contains("*")) {
+                    originPatterns.add(origin);
+                } else {
+                    this.origins.add(origin);
+                }
+            }
+            return this;
+        }
+
+        public Builder allowedMethods(List<String> methods) {
+            this.allowedMethods = methods.stream().map(m -> m.toUpperCase(Locale.ROOT)).toList();
+            return this;
+        }
+
+        public Builder allowedHeaders(List<String> headers) {
+            this.allowedHeaders = List.copyOf(headers);
+            return this;
+        }
+
+        public Builder exposedHeaders(List<String> headers) {
+            this.exposedHeaders = List.copyOf(headers);
+            return this;
+        }
+
+        public Builder allowCredentials(boolean allowCredentials) {
+            this.allowCredentials = allowCredentials;
+            return this;
+        }
+
+        public Builder maxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+            return this;
+        }
+
+        public Builder maxMatchedOrigins(int maxMatchedOrigins) {
+            this.maxMatchedOrigins = maxMatchedOrigins;
+            return this;
+        }
+
+        public CorsPolicy build() {
+            return new CorsPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.apigateway.policy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable path policy compiled into a character trie.
+ *
+ * <p>Supported patterns:
+ * <ul>
+ *     <li>{@code /api/auth/login} - exact path</li>
+ *     <li>{@code /static/**} - the base path and everything beneath it</li>
+ *     <li>{@code /api/*}{@code /admin/**} - {@code *} matches exactly one path segment</li>
+ * </ul>
+ *
+ * <p>The most specific (longest) matching pattern wins; paths matching nothing get the default decision.
+ * A lookup walks the path once, character by character, and never allocates.
+ */
+public final class PathPolicy {
+
+    private final Node root;
+    private final AccessDecision defaultDecision;
+    private final int ruleCount;
+
+    private PathPolicy(Node root, AccessDecision defaultDecision, int ruleCount) {
+        this.root = root;
+        this.defaultDecision = defaultDecision;
+        this.ruleCount = ruleCount;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public AccessDecision decide(String path) {
+        if (path == null || path.isEmpty()) {
+            return defaultDecision;
+        }
+        AccessDecision decision = match(root, path, 0);
+        return decision != null ? decision : defaultDecision;
+    }
+
+    public boolean isPublic(String path) {
+        return decide(path) == AccessDecision.PUBLIC;
+    }
+
+    public boolean isAdmin(String path) {
+        return decide(path) == AccessDecision.ADMIN;
+    }
+
+    public int ruleCount() {
+        return ruleCount;
+    }
+
+    private static AccessDecision match(Node node, String path, int i) {
+        int len = path.length();
+        AccessDecision best = null;
+
+        while (true) {
+            if (i == len) {
+                if (node.exact != null) {
+                    return node.exact;
+                }
+                return node.prefix != null ? node.prefix : best;
+            }
+
+            char c = path.charAt(i);
+            if (c == '/' && node.prefix != null) {
+                best = node.prefix;
+            }
+
+            if (node.wildcard != null && path.charAt(i - 1) == '/') {
+                // Literal rules are more specific, try them first
+                Node literal = node.child(c);
+                if (literal != null) {
+                    AccessDecision decision = match(literal, path, i + 1);
+                    if (decision != null) {
+                        return decision;
+                    }
+                }
+
+                int segmentEnd = path.indexOf('/', i);
+                AccessDecision decision = match(node.wildcard, path, segmentEnd < 0 ? len : segmentEnd);
+                return decision != null ? decision : best;
+            }
+
+            Node next = node.child(c);
+            if (next == null) {
+                return best;
+            }
+            node = next;
+            i++;
+        }
+    }
+
+    public static final class Builder {
+
+        private final MutableNode root = new MutableNode();
+        private AccessDecision defaultDecision = AccessDecision.AUTHENTICATED;
+        private int ruleCount;
+
+        private Builder() {
+        }
+
+        public Builder defaultDecision(AccessDecision decision) {
+            this.defaultDecision = decision;
+            return this;
+        }
+
+        public Builder add(AccessDecision decision, List<String> patterns) {
+            if (patterns != null) {
+                patterns.forEach(pattern -> add(decision, pattern));
+            }
+            return this;
+        }
+
+        public Builder add(AccessDecision decision, String pattern) {
+            if (pattern == null || !pattern.startsWith("/")) {
+                throw new IllegalArgumentException("Path pattern must start with '/': " + pattern);
+            }
+
+            boolean prefix = pattern.endsWith("/**");
+            String base = prefix ? pattern.substring(0, pattern.length() - 3) : pattern;
+
+            MutableNode node = root;
+            int i = 0;
+            while (i < base.length()) {
+                char c = base.charAt(i);
+                if (c == '*') {
+                    if (base.charAt(i - 1) != '/' || (i + 1 < base.length() && base.charAt(i + 1) != '/')) {
+                        throw new IllegalArgumentException("'*' must be a whole path segment: " + pattern);
+                    }
+                    if (node.wildcard == null) {
+                        node.wildcard = new MutableNode();
+                    }
+                    node = node.wildcard;
+                } else {
+                    node = node.childOrCreate(c);
+                }
+                i++;
+            }
+
+            if (prefix) {
+                node.prefix = decision;
+            } else {
+                node.exact = decision;
+            }
+            ruleCount++;
+            return this;
+        }
+
+        public PathPolicy build() {
+            return new PathPolicy(root.freeze(), defaultDecision, ruleCount);
+        }
+    }
+
+    /**
+     * Frozen trie node. Children are indexed directly by character offset,
+     * so each step is a bounds check and an array read regardless of fan-out.
+     */
+    private static final class Node {
+
+        private final char minChar;
+        private final Node[] children;
+        private final Node wildcard;
+        private final AccessDecision exact;
+        private final AccessDecision prefix;
+
+        private Node(char minChar, Node[] children, Node wildcard, AccessDecision exact, AccessDecision prefix) {
+            this.minChar = minChar;
+            this.children = children;
+            this.wildcard = wildcard;
+            this.exact = exact;
+            this.prefix = prefix;
+        }
+
+        Node child(char c) {
+            int index = c - minChar;
+            return index >= 0 && index < children.length ? children[index] : null;
+        }
+    }
+
+    private static final class MutableNode {
+
+        private final List<Character> keys = new ArrayList<>();
+        private final List<MutableNode> values = new ArrayList<>();
+        private MutableNode wildcard;
+        private AccessDecision exact;
+        private AccessDecision prefix;
+
+        MutableNode childOrCreate(char c) {
+            int index = keys.indexOf(c);
+            if (index >= 0) {
+                return values.get(index);
+            }
+            MutableNode child = new MutableNode();
+            keys.add(c);
+            values.add(child);
+            return child;
+        }
+
+        Node freeze() {
+            Node frozenWildcard = wildcard != null ? wildcard.freeze() : null;
+            if (keys.isEmpty()) {
+                return new Node('\0', new Node[0], frozenWildcard, exact, prefix);
+            }
+
+            char min = Character.MAX_VALUE;
+            char max = Character.MIN_VALUE;
+            for (char key : keys) {
+                min = (char) Math.min(min, key);
+                max = (char) Math.max(max, key);
+            }
+
+            Node[] children = new Node[max - min + 1];
+            for (int i = 0; i < keys.size(); i++) {
+                children[keys.get(i) - min] = values.get(i).freeze();
+            }
+            return new Node(min, children, frozenWildcard, exact, prefix);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.apigateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket rate limiter for one route, implemented as GCRA (generic cell rate algorithm).
+ *
+ * <p>Each key's bucket is a single {@link AtomicLong} holding the "theoretical arrival time";
+ * an acquire is one read and one CAS, no locks. The key map is a bounded Caffeine cache that
+ * drops keys after {@code idleTimeout} without requests, by which time their bucket is full
+ * again anyway, so memory stays bounded regardless of how many clients show up.
+ */
+public final class RateLimiter {
+
+    private final int capacity;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    public RateLimiter(int capacity, double refillPerSecond, long maxKeys, Duration idleTimeout) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and refillPerSecond must be positive");
+        }
+        this.capacity = capacity;
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (capacity - 1);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public long trackedKeys() {
+        return buckets.estimatedSize();
+    }
+
+    public Result tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    Result tryAcquire(String key, long now) {
+        AtomicLong bucket = buckets.getIfPresent(key);
+        if (bucket == null) {
+            bucket = buckets.get(key, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long tat = bucket.get();
+            long start = Math.max(tat, now);
+            long wait = start - now - burstToleranceNanos;
+            if (wait > 0) {
+                return new Result(false, 0, wait);
+            }
+
+            long next = start + emissionIntervalNanos;
+            if (bucket.compareAndSet(tat, next)) {
+                long remaining = (burstToleranceNanos - (next - now - emissionIntervalNanos)) / emissionIntervalNanos;
+                return new Result(true, (int) Math.max(0, remaining), 0);
+            }
+        }
+    }
+
+    /**
+     * @param retryAfterNanos how long until the next request would be allowed; 0 when allowed
+     */
+    public record Result(boolean allowed, int remaining, long retryAfterNanos) {
+
+        public long retryAfterSeconds() {
+            return (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.apigateway.resilience;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the most recent latency samples of one route in a fixed ring and periodically
+ * recomputes a percentile from them, so reading it on the request path is a volatile load.
+ */
+public class LatencyTracker {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong recorded = new AtomicLong();
+    private final double percentile;
+    private final int refreshEvery;
+    private final int minSamples;
+
+    private volatile long percentileNanos = -1;
+
+    public LatencyTracker(int capacity, double percentile) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("percentile must be in (0, 1]");
+        }
+        this.samples = new AtomicLongArray(capacity);
+        this.percentile = percentile;
+        this.refreshEvery = Math.max(1, capacity / 8);
+        this.minSamples = Math.min(capacity, 32);
+    }
+
+    public void record(long nanos) {
+        long n = recorded.getAndIncrement();
+        samples.set((int) (n % samples.length()), nanos);
+        if ((n + 1) % refreshEvery == 0 && n + 1 >= minSamples) {
+            refresh(n + 1);
+        }
+    }
+
+    /**
+     * @return the configured percentile of recent samples in nanoseconds, or -1 until enough samples exist
+     */
+    public long percentileNanos() {
+        return percentileNanos;
+    }
+
+    private void refresh(long count) {
+        int size = (int) Math.min(count, samples.length());
+        long[] copy = new long[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(percentile * size) - 1;
+        percentileNanos = copy[Math.max(0, index)];
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.apigateway.revocation;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked token IDs and subjects. Lookups go through a Bloom filter first, so a token that was
+ * never revoked costs a few hash probes; only filter hits touch the exact maps behind it.
+ *
+ * <p>Reads are lock-free. Writes are rare (logout, admin calls, purging) and serialized, which
+ * keeps the filter and the maps consistent when the filter is rebuilt.
+ */
+public final class RevocationList {
+
+    private static final char TOKEN_TAG = 't';
+    private static final char SUBJECT_TAG = 's';
+
+    /**
+     * One revocation. Times are epoch seconds, like JWT claims. A subject entry revokes every
+     * token of that subject issued strictly before {@code revokedAt}, so a token from a login in
+     * the same second as the revocation stays valid (a token issued in that second just before
+     * it does too); {@code expiresAt} is when the entry can be dropped because every token it
+     * covers has expired.
+     */
+    public record Entry(Kind kind, String key, long revokedAt, long expiresAt) {
+    }
+
+    public enum Kind {
+        TOKEN, SUBJECT
+    }
+
+    private final int minCapacity;
+    private final double falsePositiveRate;
+
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+    private final Map<String, Entry> subjects = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    public RevocationList(int expectedEntries, double falsePositiveRate) {
+        this.minCapacity = Math.max(expectedEntries, 16);
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(minCapacity, falsePositiveRate);
+    }
+
+    public boolean isRevoked(String tokenId, String subject, Instant issuedAt) {
+        BloomFilter current = filter;
+        if (tokenId != null && current.mightContain(TOKEN_TAG, tokenId) && tokens.containsKey(tokenId)) {
+            return true;
+        }
+        if (subject != null && current.mightContain(SUBJECT_TAG, subject)) {
+            Entry entry = subjects.get(subject);
+            // Tokens without iat cannot be placed before or after the revocation
+            return entry != null && (issuedAt == null || issuedAt.getEpochSecond() < entry.revokedAt());
+        }
+        return false;
+    }
+
+    public synchronized void add(Entry entry) {
+        Map<String, Entry> map = entry.kind() == Kind.TOKEN ? tokens : subjects;
+        map.merge(entry.key(), entry, (old, added) -> new Entry(added.kind(), added.key(),
+                Math.max(old.revokedAt(), added.revokedAt()), Math.max(old.expiresAt(), added.expiresAt())));
+        if (size() > filter.capacity()) {
+            rebuild();
+        } else {
+            filter.put(tag(entry.kind()), entry.key());
+        }
+    }
+
+    public synchronized void addAll(Collection<Entry> entries) {
+        entries.forEach(entry -> (entry.kind() == Kind.TOKEN ? tokens : subjects).put(entry.key(), entry));
+        rebuild();
+    }
+
+    /**
+     * Drops entries whose tokens have all expired and rebuilds the filter without them.
+     *
+     * @return number of entries removed
+     */
+    public synchronized int purge(long nowEpochSecond) {
+        int before = size();
+        tokens.values().removeIf(entry -> entry.expiresAt() <= nowEpochSecond);
+        subjects.values().removeIf(entry -> entry.expiresAt() <= nowEpochSecond);
+        int removed = before - size();
+        if (removed > 0) {
+            rebuild();
+        }
+        return removed;
+    }
+
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(tokens.values());
+        entries.addAll(subjects.values());
+        return entries;
+    }
+
+    public int tokenCount() {
+        return tokens.size();
+    }
+
+    public int subjectCount() {
+        return subjects.size();
+    }
+
+    private int size() {
+        return tokens.size() + subjects.size();
+    }
+
+    // Sized with headroom so a burst of revocations does not rebuild on every add
+    private void rebuild() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(minCapacity, size() * 2), falsePositiveRate);
+        tokens.keySet().forEach(key -> rebuilt.put(TOKEN_TAG, key));
+        subjects.keySet().forEach(key -> rebuilt.put(SUBJECT_TAG, key));
+        filter = rebuilt;
+    }
+
+    private static char tag(Kind kind) {
+        return kind == Kind.TOKEN ? TOKEN_TAG : SUBJECT_TAG;
+    }
+}
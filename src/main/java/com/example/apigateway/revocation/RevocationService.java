@@ -0,0 +1,171 @@
+package com.example.apigateway.revocation;
+
+import com.example.apigateway.config.RevocationProperties;
+import com.example.apigateway.util.JwtPrincipal;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-process token revocation: the {@link RevocationList} checked by {@code JwtUtil} on every
+ * authenticated request, plus its upkeep - purging entries once the tokens they cover have
+ * expired and, when a snapshot file is configured, persisting the list across restarts.
+ */
+@Component
+public class RevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevocationService.class);
+
+    @Autowired
+    private RevocationProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private RevocationList list;
+    private Path snapshotFile;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private ScheduledExecutorService maintenance;
+
+    @PostConstruct
+    void init() {
+        list = new RevocationList(properties.getExpectedEntries(), properties.getFalsePositiveRate());
+
+        if (StringUtils.hasText(properties.getSnapshotFile())) {
+            snapshotFile = Path.of(properties.getSnapshotFile());
+            loadSnapshot();
+        }
+
+        Gauge.builder("gateway.revocation.entries", list, RevocationList::tokenCount)
+                .description("Revoked token IDs and subjects held in memory")
+                .tag("kind", "token")
+                .register(meterRegistry);
+        Gauge.builder("gateway.revocation.entries", list, RevocationList::subjectCount)
+                .description("Revoked token IDs and subjects held in memory")
+                .tag("kind", "subject")
+                .register(meterRegistry);
+
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "revocation-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long purge = properties.getPurgeInterval().toMillis();
+        maintenance.scheduleWithFixedDelay(this::purge, purge, purge, TimeUnit.MILLISECONDS);
+        if (snapshotFile != null) {
+            long snapshot = properties.getSnapshotInterval().toMillis();
+            maintenance.scheduleWithFixedDelay(this::snapshotIfDirty, snapshot, snapshot, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (maintenance != null) {
+            maintenance.shutdownNow();
+        }
+        snapshotIfDirty();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isRevoked(JwtPrincipal principal) {
+        return properties.isEnabled()
+                && list.isRevoked(principal.tokenId(), principal.username(), principal.issuedAt());
+    }
+
+    /**
+     * @param expiresAt the token's exp claim, or null to keep the entry for the maximum token lifetime
+     */
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        Instant now = Instant.now();
+        Instant until = expiresAt != null ? expiresAt : now.plus(properties.getMaxTokenLifetime());
+        add(new RevocationList.Entry(RevocationList.Kind.TOKEN, tokenId, now.getEpochSecond(), until.getEpochSecond()));
+        logger.info("Revoked token {} until {}", tokenId, until);
+    }
+
+    /**
+     * Revokes every token of the subject issued up to now; tokens issued later are accepted.
+     */
+    public void revokeSubject(String subject) {
+        Instant now = Instant.now();
+        Instant until = now.plus(properties.getMaxTokenLifetime());
+        add(new RevocationList.Entry(RevocationList.Kind.SUBJECT, subject, now.getEpochSecond(), until.getEpochSecond()));
+        logger.info("Revoked tokens of {} issued up to {}", subject, now);
+    }
+
+    /**
+     * Revokes the token the principal came from: by ID when it has a jti claim, otherwise by subject.
+     */
+    public void revoke(JwtPrincipal principal) {
+        if (principal.tokenId() != null) {
+            revokeToken(principal.tokenId(), principal.expiresAt());
+        } else {
+            revokeSubject(principal.username());
+        }
+    }
+
+    public int tokenCount() {
+        return list.tokenCount();
+    }
+
+    public int subjectCount() {
+        return list.subjectCount();
+    }
+
+    private void add(RevocationList.Entry entry) {
+        list.add(entry);
+        dirty.set(true);
+    }
+
+    private void purge() {
+        int removed = list.purge(Instant.now().getEpochSecond());
+        if (removed > 0) {
+            dirty.set(true);
+            logger.debug("Purged {} expired revocations", removed);
+        }
+    }
+
+    private void snapshotIfDirty() {
+        if (snapshotFile == null || !dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            RevocationSnapshot.write(snapshotFile, list.entries());
+        } catch (IOException e) {
+            dirty.set(true);
+            logger.warn("Cannot write revocation snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    private void loadSnapshot() {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        try {
+            List<RevocationList.Entry> entries = RevocationSnapshot.read(snapshotFile);
+            list.addAll(entries);
+            int purged = list.purge(Instant.now().getEpochSecond());
+            logger.info("Loaded {} revocations from {} ({} already expired)", entries.size(), snapshotFile, purged);
+        } catch (IOException e) {
+            logger.warn("Ignoring revocation snapshot: {}", e.getMessage());
+        }
+    }
+}
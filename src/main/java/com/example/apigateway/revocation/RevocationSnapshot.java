@@ -0,0 +1,85 @@
+package com.example.apigateway.revocation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary snapshot of a {@link RevocationList}, written and read through a memory-mapped file.
+ *
+ * <p>Layout: magic, version and entry count (ints), then per entry the kind (byte), revokedAt and
+ * expiresAt (longs) and the UTF-8 key (short length + bytes). A new snapshot is written next to
+ * the old one and moved over it, so a crash mid-write leaves the previous snapshot intact.
+ */
+final class RevocationSnapshot {
+
+    private static final int MAGIC = 0x47575256; // "GWRV"
+    private static final int VERSION = 1;
+
+    private RevocationSnapshot() {
+    }
+
+    static void write(Path file, List<RevocationList.Entry> entries) throws IOException {
+        List<byte[]> keys = new ArrayList<>(entries.size());
+        long size = 12;
+        for (RevocationList.Entry entry : entries) {
+            byte[] key = entry.key().getBytes(StandardCharsets.UTF_8);
+            keys.add(key);
+            size += 1 + 8 + 8 + 2 + key.length;
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                RevocationList.Entry entry = entries.get(i);
+                byte[] key = keys.get(i);
+                buffer.put((byte) entry.kind().ordinal())
+                        .putLong(entry.revokedAt())
+                        .putLong(entry.expiresAt())
+                        .putShort((short) key.length)
+                        .put(key);
+            }
+            buffer.force();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static List<RevocationList.Entry> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("not a revocation snapshot: " + file);
+            }
+            int count = buffer.getInt();
+            RevocationList.Kind[] kinds = RevocationList.Kind.values();
+            List<RevocationList.Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                RevocationList.Kind kind = kinds[buffer.get()];
+                long revokedAt = buffer.getLong();
+                long expiresAt = buffer.getLong();
+                byte[] key = new byte[buffer.getShort() & 0xffff];
+                buffer.get(key);
+                entries.add(new RevocationList.Entry(kind, new String(key, StandardCharsets.UTF_8), revokedAt, expiresAt));
+            }
+            return entries;
+        } catch (RuntimeException e) {
+            // Truncated or corrupt file
+            throw new IOException("cannot read revocation snapshot " + file + ": " + e, e);
+        }
+    }
+}
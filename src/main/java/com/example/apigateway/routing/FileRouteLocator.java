@@ -0,0 +1,306 @@
+package com.example.apigateway.routing;
+
+import com.example.apigateway.config.RouteTableProperties;
+import com.example.apigateway.filter.BodyLimitFilter;
+import com.example.apigateway.filter.CoalescingFilter;
+import com.example.apigateway.filter.CompressionFilter;
+import com.example.apigateway.filter.DeadlineFilter;
+import com.example.apigateway.filter.HedgingFilter;
+import com.example.apigateway.filter.JwtAuthFilter;
+import com.example.apigateway.filter.RateLimitFilter;
+import com.example.apigateway.filter.ResilienceFilter;
+import com.example.apigateway.filter.ResponseCacheFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.yaml.snakeyaml.Yaml;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads routes from the route file ({@code gateway.route-table.file}), compiles them with their
+ * filter chains into a {@link RouteTable} and swaps in a new table when the file changes.
+ *
+ * <p>Routes whose file entry did not change keep their compiled instance across reloads, so
+ * their rate limiter and latency state survive. An invalid file on reload is logged and the
+ * previous table stays active.
+ */
+@Component
+public class FileRouteLocator implements RouteLocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileRouteLocator.class);
+
+    @Autowired
+    private RouteTableProperties properties;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JwtAuthFilter jwtAuthFilter;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private ResponseCacheFilter responseCacheFilter;
+
+    @Autowired
+    private CoalescingFilter coalescingFilter;
+
+    @Autowired
+    private ResilienceFilter resilienceFilter;
+
+    @Autowired
+    private HedgingFilter hedgingFilter;
+
+    @Autowired
+    private DeadlineFilter deadlineFilter;
+
+    @Autowired
+    private CompressionFilter compressionFilter;
+
+    @Autowired
+    private BodyLimitFilter bodyLimitFilter;
+
+    private volatile RouteTable table = RouteTable.EMPTY;
+
+    // Route id -> file entry it was compiled from, to reuse unchanged routes
+    private Map<String, CompiledRoute> compiled = Map.of();
+    private long lastModified;
+    private ScheduledExecutorService reloader;
+
+    @PostConstruct
+    void init() throws IOException {
+        Resource resource = resourceLoader.getResource(properties.getFile());
+        load(resource);
+
+        if (resource.isFile()) {
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "route-file-reloader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.getReloadInterval().toMillis();
+            reloader.scheduleWithFixedDelay(() -> reloadIfChanged(resource), interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    public RouteTable table() {
+        return table;
+    }
+
+    @Override
+    public Flux<Route> getRoutes() {
+        return Flux.fromIterable(table.routes());
+    }
+
+    private void reloadIfChanged(Resource resource) {
+        try {
+            if (resource.lastModified() != lastModified) {
+                load(resource);
+                // Lets the caching route locator (actuator /gateway/routes) pick up the new routes
+                eventPublisher.publishEvent(new RefreshRoutesEvent(this));
+            }
+        } catch (Exception e) {
+            logger.warn("Keeping current routes, cannot load {}: {}", properties.getFile(), e.getMessage());
+        }
+    }
+
+    synchronized void load(Resource resource) throws IOException {
+        long modified = resource.isFile() ? resource.lastModified() : 0;
+        List<Map<String, Object>> entries = readEntries(resource);
+        List<RouteSpec> specs = bind(entries);
+
+        Map<String, CompiledRoute> previous = compiled;
+        Map<String, CompiledRoute> updated = new LinkedHashMap<>();
+        RouteIndex.Builder<Route> index = RouteIndex.builder();
+        int reused = 0;
+
+        for (int i = 0; i < specs.size(); i++) {
+            RouteSpec spec = specs.get(i);
+            validate(spec, updated.keySet());
+
+            CompiledRoute route = previous.get(spec.getId());
+            if (route != null && route.entry().equals(entries.get(i))) {
+                reused++;
+            } else {
+                route = new CompiledRoute(entries.get(i), compile(spec));
+            }
+            updated.put(spec.getId(), route);
+
+            Set<HttpMethod> methods = methods(spec);
+            for (String path : spec.getPaths()) {
+                index.add(path, methods, spec.getOrder(), route.route());
+            }
+        }
+
+        RouteIndex<Route> built = index.build();
+        compiled = updated;
+        lastModified = modified;
+        table = new RouteTable(updated.values().stream().map(CompiledRoute::route).toList(), built);
+        logger.info("Loaded {} routes ({} path patterns, {} unchanged) from {}", updated.size(), built.size(),
+                reused, properties.getFile());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> readEntries(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            // JSON is valid YAML, so one parser covers both formats
+            Object document = new Yaml().load(in);
+            Object routes = document instanceof Map<?, ?> map ? map.get("routes") : null;
+            if (!(routes instanceof List<?> list)) {
+                throw new IllegalArgumentException("expected a top-level 'routes' list");
+            }
+            return (List<Map<String, Object>>) list;
+        }
+    }
+
+    private List<RouteSpec> bind(List<Map<String, Object>> entries) {
+        Map<String, Object> flat = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            flatten("routes[" + i + "]", entries.get(i), flat);
+        }
+        return new Binder(new MapConfigurationPropertySource(flat))
+                .bind("routes", Bindable.listOf(RouteSpec.class))
+                .orElse(List.of());
+    }
+
+    private static void flatten(String prefix, Object value, Map<String, Object> flat) {
+        if (value instanceof Map<?, ?> map) {
+            map.forEach((key, nested) -> flatten(prefix + "." + key, nested, flat));
+        } else if (value instanceof List<?> list) {
+            for (int i = 0; i < list.size(); i++) {
+                flatten(prefix + "[" + i + "]", list.get(i), flat);
+            }
+        } else if (value != null) {
+            flat.put(prefix, value);
+        }
+    }
+
+    private static void validate(RouteSpec spec, Set<String> seenIds) {
+        if (!StringUtils.hasText(spec.getId()) || spec.getUri() == null || spec.getPaths().isEmpty()) {
+            throw new IllegalArgumentException("route needs id, uri and at least one path: " + spec.getId());
+        }
+        if (seenIds.contains(spec.getId())) {
+            throw new IllegalArgumentException("duplicate route id " + spec.getId());
+        }
+    }
+
+    private static Set<HttpMethod> methods(RouteSpec spec) {
+        Set<HttpMethod> methods = new HashSet<>();
+        spec.getMethods().forEach(method -> methods.add(HttpMethod.valueOf(method.toUpperCase(Locale.ROOT))));
+        return methods;
+    }
+
+    private Route compile(RouteSpec spec) {
+        String routeId = spec.getId();
+        RouteSpec.Filters policies = spec.getFilters();
+
+        List<GatewayFilter> filters = new ArrayList<>();
+        if (spec.isAuth()) {
+            filters.add(ordered(jwtAuthFilter.apply(new JwtAuthFilter.Config())));
+        }
+        // Local forwards (static files, health) only need the auth check
+        if (!"forward".equals(spec.getUri().getScheme())) {
+            // The deadline orders itself ahead of every other filter, so its budget covers all of them.
+            // Compression comes next, outside the cache and coalescing, so hits and replays get it too.
+            // Body limits follow, ahead of JwtAuthFilter, so an oversized upload is refused from its headers.
+            // JwtAuthFilter and rate limiting (keyed on its principal) order themselves ahead of the
+            // response cache and coalescing, so hits and followers are charged too. The cache comes
+            // first, so a hit never joins a flight.
+            // Bulkhead/circuit breaker wrap everything from here to the upstream response headers;
+            // hedging orders itself right before the routing filter.
+            filters.add(ordered(deadlineFilter.apply(new DeadlineFilter.Config(routeId, policies.getTimeout()))));
+            filters.add(ordered(compressionFilter.apply(new CompressionFilter.Config(routeId, policies.getCompression()))));
+            filters.add(ordered(bodyLimitFilter.apply(new BodyLimitFilter.Config(routeId, policies.getBodyLimit()))));
+            if (policies.getRateLimit() != null) {
+                filters.add(ordered(rateLimitFilter.apply(new RateLimitFilter.Config(routeId, policies.getRateLimit()))));
+            }
+            if (policies.getCache() != null) {
+                filters.add(ordered(responseCacheFilter.apply(new ResponseCacheFilter.Config(routeId, policies.getCache()))));
+            }
+            if (policies.isCoalescing()) {
+                filters.add(ordered(coalescingFilter.apply(new CoalescingFilter.Config(routeId, true))));
+            }
+            filters.add(ordered(resilienceFilter.apply(new ResilienceFilter.Config(routeId))));
+            if (policies.getHedging() != null) {
+                filters.add(ordered(hedgingFilter.apply(new HedgingFilter.Config(routeId, policies.getHedging()))));
+            }
+        }
+
+        List<PathPattern> patterns = spec.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+        Set<HttpMethod> methods = methods(spec);
+
+        Map<String, Object> metadata = new HashMap<>();
+        if (policies.getTimeout() != null && policies.getTimeout().getConnect() != null) {
+            // Read by NettyRoutingFilter in place of spring.cloud.gateway.httpclient.connect-timeout
+            metadata.put(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR, (int) policies.getTimeout().getConnect().toMillis());
+        }
+
+        return Route.async()
+                .id(routeId)
+                .uri(spec.getUri())
+                .order(spec.getOrder())
+                .metadata(metadata)
+                .predicate(exchange -> {
+                    PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+                    return (methods.isEmpty() || methods.contains(exchange.getRequest().getMethod()))
+                            && patterns.stream().anyMatch(pattern -> pattern.matches(path));
+                })
+                .filters(filters)
+                .build();
+    }
+
+    // Same slot the Java route DSL gives plain filters, so explicitly ordered ones keep their place
+    private static GatewayFilter ordered(GatewayFilter filter) {
+        return filter instanceof Ordered ? filter : new OrderedGatewayFilter(filter, 0);
+    }
+
+    private record CompiledRoute(Map<String, Object> entry, Route route) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.apigateway.routing;
+
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.core.env.Environment;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR;
+
+/**
+ * Replaces the gateway's in-order evaluation of every route predicate with a single lookup in
+ * the current {@link RouteTable}. Everything else (management port handling, CORS, handing the
+ * route to the filtering web handler) is inherited unchanged.
+ */
+public class IndexedRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping {
+
+    private final FileRouteLocator fileRouteLocator;
+
+    public IndexedRoutePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+                                               GlobalCorsProperties globalCorsProperties, Environment environment,
+                                               FileRouteLocator fileRouteLocator) {
+        super(webHandler, routeLocator, globalCorsProperties, environment);
+        this.fileRouteLocator = fileRouteLocator;
+    }
+
+    @Override
+    protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+        Route route = fileRouteLocator.table().match(exchange);
+        if (route == null) {
+            return Mono.empty();
+        }
+        exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, route.getId());
+        validateRoute(route, exchange);
+        return Mono.just(route);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.apigateway.routing;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable longest-prefix index from request paths to routes.
+ *
+ * <p>Every path pattern is filed under its literal leading segments ({@code /api/users/**} under
+ * {@code api -> users}, {@code /api/*}{@code /admin/**} under {@code api}) in a segment trie.
+ * A lookup walks the request path down the trie and tests the full patterns of the candidates
+ * it passed, deepest node first; within a node by route order, then by pattern specificity
+ * (as Spring MVC ranks patterns), then by file order. The cost depends on the
+ * depth of the path, not on the number of routes.
+ */
+public final class RouteIndex<T> {
+
+    private static final PathPatternParser PARSER = PathPatternParser.defaultInstance;
+
+    private final Node<T> root;
+    private final int size;
+
+    private RouteIndex(Node<T> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * @return number of indexed path patterns
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param method request method, matched against routes that restrict methods
+     * @return the value of the best matching route, or null
+     */
+    public T match(PathContainer path, HttpMethod method) {
+        return match(root, path, path.elements(), 0, method);
+    }
+
+    private T match(Node<T> node, PathContainer path, List<PathContainer.Element> elements, int from, HttpMethod method) {
+        // Deeper (longer literal prefix) first
+        for (int i = from; i < elements.size(); i++) {
+            if (elements.get(i) instanceof PathContainer.PathSegment segment) {
+                Node<T> child = node.children.get(segment.valueToMatch());
+                if (child != null) {
+                    T deeper = match(child, path, elements, i + 1, method);
+                    if (deeper != null) {
+                        return deeper;
+                    }
+                }
+                break;
+            }
+        }
+
+        for (Candidate<T> candidate : node.candidates) {
+            if (candidate.matches(path, method)) {
+                return candidate.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Literal leading segments of a pattern, up to the first segment with a wildcard or variable.
+     */
+    static List<String> literalPrefix(String pattern) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : pattern.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.indexOf('*') >= 0 || segment.indexOf('{') >= 0 || segment.indexOf('?') >= 0) {
+                break;
+            }
+            segments.add(segment);
+        }
+        return segments;
+    }
+
+    private static final class Node<T> {
+
+        private final Map<String, Node<T>> children = new HashMap<>();
+        private final List<Candidate<T>> candidates = new ArrayList<>();
+    }
+
+    private record Candidate<T>(PathPattern pattern, Set<HttpMethod> methods, int order, int sequence, T value) {
+
+        boolean matches(PathContainer path, HttpMethod method) {
+            return (methods.isEmpty() || methods.contains(method)) && pattern.matches(path);
+        }
+    }
+
+    public static final class Builder<T> {
+
+        private final Node<T> root = new Node<>();
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * @param methods allowed methods, empty for any
+         * @param order   lower wins when several patterns with the same literal prefix match
+         */
+        public Builder<T> add(String pattern, Set<HttpMethod> methods, int order, T value) {
+            Node<T> node = root;
+            for (String segment : literalPrefix(pattern)) {
+                node = node.children.computeIfAbsent(segment, s -> new Node<>());
+            }
+            node.candidates.add(new Candidate<>(PARSER.parse(pattern), Set.copyOf(methods), order, size++, value));
+            return this;
+        }
+
+        public RouteIndex<T> build() {
+            sort(root);
+            return new RouteIndex<>(root, size);
+        }
+
+        private void sort(Node<T> node) {
+            node.candidates.sort(Comparator.comparingInt((Candidate<T> c) -> c.order)
+                    .thenComparing(Candidate::pattern, PathPattern.SPECIFICITY_COMPARATOR)
+                    .thenComparingInt(c -> c.sequence));
+            node.children.values().forEach(this::sort);
+        }
+    }
+}
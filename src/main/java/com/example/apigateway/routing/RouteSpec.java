@@ -0,0 +1,171 @@
+package com.example.apigateway.routing;
+
+import com.example.apigateway.config.BodyLimitProperties;
+import com.example.apigateway.config.CompressionProperties;
+import com.example.apigateway.config.HedgingProperties;
+import com.example.apigateway.config.RateLimitProperties;
+import com.example.apigateway.config.ResponseCacheProperties;
+import com.example.apigateway.config.TimeoutProperties;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One entry of the route file: where requests go, which paths select it and the policies
+ * of its filter chain. Bound from YAML/JSON with the same relaxed rules as application.yaml.
+ */
+public class RouteSpec {
+
+    private String id;
+
+    private URI uri;
+
+    // Spring path patterns, e.g. /api/users/**
+    private List<String> paths = new ArrayList<>();
+
+    // Empty means any method
+    private List<String> methods = new ArrayList<>();
+
+    // Tie-breaker between routes whose patterns share the same literal prefix; lower wins
+    private int order;
+
+    // Run JwtAuthFilter (the access decision itself comes from gateway.access)
+    private boolean auth = true;
+
+    private Filters filters = new Filters();
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public void setUri(URI uri) {
+        this.uri = uri;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public List<String> getMethods() {
+        return methods;
+    }
+
+    public void setMethods(List<String> methods) {
+        this.methods = methods;
+    }
+
+    public int getOrder() {
+        return order;
+    }
+
+    public void setOrder(int order) {
+        this.order = order;
+    }
+
+    public boolean isAuth() {
+        return auth;
+    }
+
+    public void setAuth(boolean auth) {
+        this.auth = auth;
+    }
+
+    public Filters getFilters() {
+        return filters;
+    }
+
+    public void setFilters(Filters filters) {
+        this.filters = filters;
+    }
+
+    /**
+     * Per-route filter policies; an absent policy leaves that filter out of the chain.
+     */
+    public static class Filters {
+
+        private RateLimitProperties.Limit rateLimit;
+
+        private ResponseCacheProperties.RoutePolicy cache;
+
+        private boolean coalescing;
+
+        private HedgingProperties.Policy hedging;
+
+        private TimeoutProperties.Policy timeout;
+
+        // Unset: gateway.compression defaults
+        private CompressionProperties.Policy compression;
+
+        // Unset: gateway.body-limit defaults
+        private BodyLimitProperties.Policy bodyLimit;
+
+        public RateLimitProperties.Limit getRateLimit() {
+            return rateLimit;
+        }
+
+        public void setRateLimit(RateLimitProperties.Limit rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+
+        public ResponseCacheProperties.RoutePolicy getCache() {
+            return cache;
+        }
+
+        public void setCache(ResponseCacheProperties.RoutePolicy cache) {
+            this.cache = cache;
+        }
+
+        public boolean isCoalescing() {
+            return coalescing;
+        }
+
+        public void setCoalescing(boolean coalescing) {
+            this.coalescing = coalescing;
+        }
+
+        public HedgingProperties.Policy getHedging() {
+            return hedging;
+        }
+
+        public void setHedging(HedgingProperties.Policy hedging) {
+            this.hedging = hedging;
+        }
+
+        public TimeoutProperties.Policy getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(TimeoutProperties.Policy timeout) {
+            this.timeout = timeout;
+        }
+
+        public CompressionProperties.Policy getCompression() {
+            return compression;
+        }
+
+        public void setCompression(CompressionProperties.Policy compression) {
+            this.compression = compression;
+        }
+
+        public BodyLimitProperties.Policy getBodyLimit() {
+            return bodyLimit;
+        }
+
+        public void setBodyLimit(BodyLimitProperties.Policy bodyLimit) {
+            this.bodyLimit = bodyLimit;
+        }
+    }
+}
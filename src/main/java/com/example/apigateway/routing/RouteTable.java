@@ -0,0 +1,33 @@
+package com.example.apigateway.routing;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.List;
+
+/**
+ * One compiled, immutable generation of the route file. Swapped as a whole on reload, so a
+ * request sees either the old or the new table, and routes already picked are never modified.
+ */
+public final class RouteTable {
+
+    static final RouteTable EMPTY = new RouteTable(List.of(), RouteIndex.<Route>builder().build());
+
+    private final List<Route> routes;
+    private final RouteIndex<Route> index;
+
+    RouteTable(List<Route> routes, RouteIndex<Route> index) {
+        this.routes = List.copyOf(routes);
+        this.index = index;
+    }
+
+    public List<Route> routes() {
+        return routes;
+    }
+
+    public Route match(ServerWebExchange exchange) {
+        ServerHttpRequest request = exchange.getRequest();
+        return index.match(request.getPath().pathWithinApplication(), request.getMethod());
+    }
+}
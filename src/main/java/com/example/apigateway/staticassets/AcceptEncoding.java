@@ -0,0 +1,56 @@
+package com.example.apigateway.staticassets;
+
+/**
+ * The two encodings static assets come in, as accepted by one request's {@code Accept-Encoding}.
+ */
+public record AcceptEncoding(boolean gzip, boolean brotli) {
+
+    public static final AcceptEncoding IDENTITY = new AcceptEncoding(false, false);
+
+    public static AcceptEncoding parse(String header) {
+        if (header == null || header.isEmpty()) {
+            return IDENTITY;
+        }
+        boolean gzip = false;
+        boolean brotli = false;
+        boolean wildcard = false;
+        for (String part : header.split(",")) {
+            String coding = part;
+            double q = 1.0;
+            int semicolon = part.indexOf(';');
+            if (semicolon >= 0) {
+                coding = part.substring(0, semicolon);
+                q = quality(part.substring(semicolon + 1));
+            }
+            coding = coding.trim();
+            boolean accepted = q > 0;
+            if (coding.equalsIgnoreCase("gzip") || coding.equalsIgnoreCase("x-gzip")) {
+                gzip = accepted;
+            } else if (coding.equalsIgnoreCase("br")) {
+                brotli = accepted;
+            } else if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        // "*" only covers codings that were not listed explicitly
+        if (wildcard) {
+            gzip = gzip || !header.toLowerCase().contains("gzip");
+            brotli = brotli || !header.toLowerCase().contains("br");
+        }
+        return gzip || brotli ? new AcceptEncoding(gzip, brotli) : IDENTITY;
+    }
+
+    private static double quality(String params) {
+        for (String param : params.split(";")) {
+            String trimmed = param.trim();
+            if (trimmed.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(trimmed.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1.0;
+    }
+}
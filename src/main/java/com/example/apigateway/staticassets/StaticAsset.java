@@ -0,0 +1,40 @@
+package com.example.apigateway.staticassets;
+
+import org.springframework.http.MediaType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One static file held in memory: the original bytes plus optional precompressed variants,
+ * each in a read-only direct buffer and with its own strong ETag.
+ */
+public record StaticAsset(String path, MediaType contentType, String cacheControl, boolean compressible,
+                          Variant identity, Variant gzip, Variant brotli) {
+
+    /**
+     * @param encoding Content-Encoding value, null for the identity variant
+     */
+    public record Variant(String encoding, ByteBuffer content, String etag) {
+
+        /**
+         * A view for one response; position and limit are independent of other requests.
+         */
+        public ByteBuffer body() {
+            return content.duplicate();
+        }
+
+        public int size() {
+            return content.remaining();
+        }
+    }
+
+    public Variant select(AcceptEncoding accepted) {
+        if (brotli != null && accepted.brotli()) {
+            return brotli;
+        }
+        if (gzip != null && accepted.gzip()) {
+            return gzip;
+        }
+        return identity;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.apigateway.staticassets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserter;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RequestPredicate;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Serves {@link StaticAssetRegistry} assets straight from memory. Mapped through a router
+ * function, so these requests never reach the gateway filter chain (JWT, rate limits, routing).
+ */
+@Component
+public class StaticAssetHandler implements RequestPredicate, HandlerFunction<ServerResponse> {
+
+    @Autowired
+    private StaticAssetRegistry registry;
+
+    @Override
+    public boolean test(ServerRequest request) {
+        HttpMethod method = request.method();
+        return (method == HttpMethod.GET || method == HttpMethod.HEAD)
+                && registry.find(request.path()) != null;
+    }
+
+    @Override
+    public Mono<ServerResponse> handle(ServerRequest request) {
+        StaticAsset asset = registry.find(request.path());
+        if (asset == null) {
+            return ServerResponse.notFound().build();
+        }
+        HttpHeaders requestHeaders = request.headers().asHttpHeaders();
+        StaticAsset.Variant variant = asset.select(AcceptEncoding.parse(requestHeaders.getFirst(HttpHeaders.ACCEPT_ENCODING)));
+
+        if (notModified(requestHeaders.get(HttpHeaders.IF_NONE_MATCH), variant.etag())) {
+            return ServerResponse.status(HttpStatus.NOT_MODIFIED)
+                    .headers(headers -> representationHeaders(headers, asset, variant))
+                    .build();
+        }
+
+        return ServerResponse.ok()
+                .headers(headers -> representationHeaders(headers, asset, variant))
+                .contentType(asset.contentType())
+                .contentLength(variant.size())
+                .body(write(variant));
+    }
+
+    private static void representationHeaders(HttpHeaders headers, StaticAsset asset, StaticAsset.Variant variant) {
+        headers.setETag(variant.etag());
+        headers.setCacheControl(asset.cacheControl());
+        if (asset.compressible()) {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        }
+        if (variant.encoding() != null) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, variant.encoding());
+        }
+    }
+
+    // Wraps a view of the direct buffer; nothing is copied or allocated per byte
+    private static BodyInserter<Void, ServerHttpResponse> write(StaticAsset.Variant variant) {
+        return (response, context) -> response.writeWith(
+                Mono.fromSupplier(() -> response.bufferFactory().wrap(variant.body())));
+    }
+
+    static boolean notModified(List<String> ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String header : ifNoneMatch) {
+            for (String candidate : header.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
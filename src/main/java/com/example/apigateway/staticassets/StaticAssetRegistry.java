@@ -0,0 +1,178 @@
+package com.example.apigateway.staticassets;
+
+import com.example.apigateway.config.StaticAssetProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Every file under the static location, read once at startup into read-only direct buffers.
+ * Compressible files get a gzip variant built here at the highest level; a Brotli variant is
+ * picked up from a prebuilt {@code <file>.br} next to the original when one is shipped.
+ * Assets are served at {@code /<file>} and {@code /static/<file>}; {@code /} serves index.html.
+ */
+@Component
+public class StaticAssetRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaticAssetRegistry.class);
+
+    static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    @Autowired
+    private StaticAssetProperties properties;
+
+    private Map<String, StaticAsset> assets = Map.of();
+
+    @PostConstruct
+    void init() {
+        assets = load(properties);
+    }
+
+    /**
+     * @return the asset for a request path, or null
+     */
+    public StaticAsset find(String path) {
+        return assets.get(path);
+    }
+
+    static Map<String, StaticAsset> load(StaticAssetProperties properties) {
+        String location = properties.getLocation().endsWith("/") ? properties.getLocation() : properties.getLocation() + "/";
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Map<String, StaticAsset> assets = new HashMap<>();
+        long identityBytes = 0;
+        long gzipBytes = 0;
+        try {
+            for (Resource root : resolver.getResources(location)) {
+                String rootUrl = root.getURL().toString();
+                Map<String, byte[]> files = new HashMap<>();
+                for (Resource resource : resolver.getResources(rootUrl + "**")) {
+                    String url = resource.getURL().toString();
+                    if (resource.isReadable() && !url.endsWith("/") && url.startsWith(rootUrl)) {
+                        files.put(url.substring(rootUrl.length()), read(resource));
+                    }
+                }
+                for (Map.Entry<String, byte[]> file : files.entrySet()) {
+                    String name = file.getKey();
+                    if (name.endsWith(".br") && files.containsKey(name.substring(0, name.length() - 3))) {
+                        continue;
+                    }
+                    StaticAsset asset = compile("/" + name, file.getValue(), files.get(name + ".br"), properties);
+                    // First root on the classpath wins, like the default resource handler
+                    if (assets.putIfAbsent(asset.path(), asset) == null) {
+                        assets.put("/static" + asset.path(), asset);
+                        identityBytes += asset.identity().size();
+                        gzipBytes += asset.gzip() != null ? asset.gzip().size() : 0;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load static assets from " + location, e);
+        }
+
+        StaticAsset index = assets.get("/index.html");
+        if (index != null) {
+            assets.put("/", index);
+        }
+        logger.info("Loaded static assets from {}: {} bytes, {} bytes gzipped, paths {}",
+                location, identityBytes, gzipBytes, assets.keySet().stream().sorted().toList());
+        return Map.copyOf(assets);
+    }
+
+    static StaticAsset compile(String path, byte[] content, byte[] brotli, StaticAssetProperties properties) {
+        MediaType contentType = MediaTypeFactory.getMediaType(path).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        if ("text".equals(contentType.getType()) || contentType.getSubtype().contains("javascript")) {
+            contentType = new MediaType(contentType, StandardCharsets.UTF_8);
+        }
+        boolean compressible = isCompressible(contentType);
+        String hash = hash(content);
+
+        StaticAsset.Variant identity = new StaticAsset.Variant(null, direct(content), "\"" + hash + "\"");
+        StaticAsset.Variant gzip = null;
+        if (compressible && content.length >= properties.getGzipMinSize().toBytes()) {
+            byte[] compressed = gzip(content);
+            // Not worth it when it saves almost nothing
+            if (compressed.length < content.length * 0.9) {
+                gzip = new StaticAsset.Variant("gzip", direct(compressed), "\"" + hash + "-gz\"");
+            }
+        }
+        StaticAsset.Variant br = brotli != null
+                ? new StaticAsset.Variant("br", direct(brotli), "\"" + hash + "-br\"")
+                : null;
+
+        return new StaticAsset(path, contentType, cacheControl(path, contentType, properties),
+                gzip != null || br != null, identity, gzip, br);
+    }
+
+    private static String cacheControl(String path, MediaType contentType, StaticAssetProperties properties) {
+        // HTML names never change, so it always revalidates; the ETag makes that a 304
+        if (MediaType.TEXT_HTML.equalsTypeAndSubtype(contentType)) {
+            return "no-cache";
+        }
+        if (Pattern.matches(properties.getFingerprintPattern(), path)) {
+            return IMMUTABLE;
+        }
+        return "public, max-age=" + properties.getMaxAge().toSeconds();
+    }
+
+    private static boolean isCompressible(MediaType contentType) {
+        String subtype = contentType.getSubtype();
+        return "text".equals(contentType.getType())
+                || subtype.contains("javascript")
+                || subtype.contains("json")
+                || subtype.contains("xml")
+                || subtype.equals("wasm");
+    }
+
+    private static ByteBuffer direct(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 3);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] read(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+}
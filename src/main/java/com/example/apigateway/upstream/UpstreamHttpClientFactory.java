@@ -0,0 +1,113 @@
+package com.example.apigateway.upstream;
+
+import com.example.apigateway.config.UpstreamProperties;
+import com.example.apigateway.loadbalancer.Endpoint;
+import com.example.apigateway.loadbalancer.ServicePool;
+import com.example.apigateway.loadbalancer.ServiceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The gateway's {@code HttpClient} factory with one connection pool per backend instance sized by
+ * its service's {@link UpstreamProperties.Pool}. Reactor Netty already keeps a separate pool per
+ * remote address; this only gives those pools their own limits instead of the global ones.
+ *
+ * <p>Settings are attached to the instance addresses known at startup. Instances added later
+ * through the instances file get the {@code spring.cloud.gateway.httpclient.pool} defaults.
+ */
+public class UpstreamHttpClientFactory extends HttpClientFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamHttpClientFactory.class);
+
+    private final UpstreamProperties upstreamProperties;
+    private final ServiceRegistry serviceRegistry;
+
+    public UpstreamHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                     HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers,
+                                     UpstreamProperties upstreamProperties, ServiceRegistry serviceRegistry) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.upstreamProperties = upstreamProperties;
+        this.serviceRegistry = serviceRegistry;
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        HttpClientProperties.Pool defaults = properties.getPool();
+        if (defaults.getType() == HttpClientProperties.Pool.PoolType.DISABLED) {
+            return ConnectionProvider.newConnection();
+        }
+
+        ConnectionProvider.Builder builder = ConnectionProvider.builder(defaults.getName());
+        if (defaults.getType() == HttpClientProperties.Pool.PoolType.FIXED) {
+            builder.maxConnections(defaults.getMaxConnections())
+                    .pendingAcquireMaxCount(-1)
+                    .pendingAcquireTimeout(Duration.ofMillis(defaults.getAcquireTimeout()));
+        } else {
+            builder.maxConnections(Integer.MAX_VALUE)
+                    .pendingAcquireTimeout(Duration.ofMillis(0))
+                    .pendingAcquireMaxCount(-1);
+        }
+        if (defaults.getMaxIdleTime() != null) {
+            builder.maxIdleTime(defaults.getMaxIdleTime());
+        }
+        if (defaults.getMaxLifeTime() != null) {
+            builder.maxLifeTime(defaults.getMaxLifeTime());
+        }
+        builder.evictInBackground(defaults.getEvictionInterval())
+                .metrics(defaults.isMetrics());
+
+        for (Map.Entry<String, UpstreamProperties.Pool> service : upstreamProperties.getPools().entrySet()) {
+            ServicePool servicePool = serviceRegistry.pool(service.getKey());
+            if (servicePool == null) {
+                logger.warn("Pool settings for unknown service {}", service.getKey());
+                continue;
+            }
+            UpstreamProperties.Pool pool = service.getValue();
+            for (Endpoint endpoint : servicePool.endpoints()) {
+                URI uri = endpoint.uri();
+                int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(uri.getScheme()) ? 443 : 80);
+                // The client looks pools up by the unresolved host:port of the request URL
+                builder.forRemoteHost(InetSocketAddress.createUnresolved(uri.getHost(), port),
+                        spec -> configure(spec, pool, defaults.isMetrics()));
+            }
+            logger.info("Connection pool for {} ({} instances, {}): max connections {}", service.getKey(),
+                    servicePool.endpoints().size(), pool.isH2c() ? "h2c" : "HTTP/1.1",
+                    pool.getMaxConnections() != null ? pool.getMaxConnections() : "default");
+        }
+        return builder.build();
+    }
+
+    private static void configure(ConnectionProvider.HostSpecificSpec spec, UpstreamProperties.Pool pool, boolean metrics) {
+        if (pool.getMaxConnections() != null) {
+            spec.maxConnections(pool.getMaxConnections());
+        }
+        if (pool.getPendingAcquireMaxCount() != null) {
+            spec.pendingAcquireMaxCount(pool.getPendingAcquireMaxCount());
+        }
+        if (pool.getPendingAcquireTimeout() != null) {
+            spec.pendingAcquireTimeout(pool.getPendingAcquireTimeout());
+        }
+        if (pool.getMaxIdleTime() != null) {
+            spec.maxIdleTime(pool.getMaxIdleTime());
+        }
+        if (pool.getMaxLifeTime() != null) {
+            spec.maxLifeTime(pool.getMaxLifeTime());
+        }
+        if (pool.getEvictInBackground() != null) {
+            spec.evictInBackground(pool.getEvictInBackground());
+        }
+        spec.metrics(metrics);
+    }
+}
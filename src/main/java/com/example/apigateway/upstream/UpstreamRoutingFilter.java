@@ -0,0 +1,45 @@
+package com.example.apigateway.upstream;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link NettyRoutingFilter} that talks HTTP/2 cleartext (prior knowledge) to the {@code lb://}
+ * services configured with {@code h2c: true}, multiplexing requests over a few connections.
+ * Everything else goes through the regular HTTP/1.1 client.
+ */
+public class UpstreamRoutingFilter extends NettyRoutingFilter {
+
+    private final Set<String> h2cServices;
+    private final HttpClient h2cClient;
+
+    public UpstreamRoutingFilter(HttpClient httpClient, ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+                                 HttpClientProperties properties, Set<String> h2cServices) {
+        super(httpClient, headersFiltersProvider, properties);
+        this.h2cServices = Set.copyOf(h2cServices);
+        this.h2cClient = httpClient.protocol(HttpProtocol.H2C);
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        if (h2cServices.isEmpty() || !"lb".equals(route.getUri().getScheme())
+                || !h2cServices.contains(route.getUri().getHost())) {
+            return super.getHttpClient(route, exchange);
+        }
+        Object connectTimeout = route.getMetadata().get(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR);
+        return connectTimeout instanceof Number millis
+                ? h2cClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, millis.intValue())
+                : h2cClient;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.apigateway.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Error response body encoded once, e.g. {@code {"success":false,"message":"...","status":401,"timestamp":...}}.
+ * Rendering copies the bytes and writes the timestamp digits into a fixed-width slot, so the
+ * reject path does no map building, JSON serialization or string encoding.
+ */
+public final class JsonErrorBody {
+
+    // Epoch millis have 13 digits until the year 2286
+    private static final int TIMESTAMP_DIGITS = 13;
+
+    private final int status;
+    private final byte[] template;
+    private final int timestampOffset;
+
+    private JsonErrorBody(int status, byte[] template, int timestampOffset) {
+        this.status = status;
+        this.template = template;
+        this.timestampOffset = timestampOffset;
+    }
+
+    /**
+     * @param message plain text without quotes, backslashes or control characters
+     */
+    public static JsonErrorBody of(String message, int status) {
+        if (message.chars().anyMatch(c -> c == '"' || c == '\\' || c < 0x20)) {
+            throw new IllegalArgumentException("message needs JSON escaping: " + message);
+        }
+        String prefix = "{\"success\":false,\"message\":\"" + message + "\",\"status\":" + status + ",\"timestamp\":";
+        String json = prefix + "0".repeat(TIMESTAMP_DIGITS) + "}";
+        return new JsonErrorBody(status, json.getBytes(StandardCharsets.UTF_8), prefix.length());
+    }
+
+    public int status() {
+        return status;
+    }
+
+    public byte[] render(long timestampMillis) {
+        byte[] body = template.clone();
+        long value = timestampMillis;
+        for (int i = timestampOffset + TIMESTAMP_DIGITS - 1; i >= timestampOffset; i--) {
+            body[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return body;
+    }
+}
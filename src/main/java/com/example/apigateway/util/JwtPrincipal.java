@@ -0,0 +1,15 @@
+package com.example.apigateway.util;
+
+import java.time.Instant;
+
+/**
+ * Immutable result of a single successful token verification.
+ * Built once per request by {@link JwtUtil#verify(String)} and used directly by the filters.
+ * {@code tokenId} (jti) and {@code issuedAt} (iat) are null when the token lacks those claims.
+ */
+public record JwtPrincipal(String username, String role, String tokenId, Instant issuedAt, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+}
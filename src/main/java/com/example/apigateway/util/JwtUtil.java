@@ -1,106 +1,302 @@
 package com.example.apigateway.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.example.apigateway.revocation.RevocationService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
 
+    private static final String DEFAULT_ROLE = "USER";
+
     @Value("${jwt.secret}")
     private String secret;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.cache.enabled:true}")
+    private boolean cacheEnabled = true;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize = 10_000;
+
+    @Value("${jwt.cache.max-ttl:10m}")
+    private Duration cacheMaxTtl = Duration.ofMinutes(10);
+
+    // Digests of recently rejected tokens, so a replayed bad token skips the signature check
+    @Value("${jwt.negative-cache.enabled:true}")
+    private boolean negativeCacheEnabled = true;
+
+    @Value("${jwt.negative-cache.max-size:10000}")
+    private long negativeCacheMaxSize = 10_000;
+
+    @Value("${jwt.negative-cache.ttl:5m}")
+    private Duration negativeCacheTtl = Duration.ofMinutes(5);
+
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private RevocationService revocationService;
+
+    // Key and parser are immutable and thread-safe, so build them once at startup
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Verified principals keyed by token digest; null when caching is disabled
+    private Cache<TokenDigest, JwtPrincipal> verifiedTokens;
+
+    // Rejected token digests; null when the negative cache is disabled
+    private Cache<TokenDigest, Boolean> rejectedTokens;
+
+    private final LogThrottle rejectionLog = new LogThrottle(60, Duration.ofMinutes(1));
+
+    private Timer cachedTimer;
+    private Timer verifiedTimer;
+    private Timer rejectedTimer;
+    private Timer rejectedCachedTimer;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+
+        // Falls back to the no-op global registry when metrics are not configured (e.g. plain unit tests)
+        MeterRegistry registry = meterRegistry != null ? meterRegistry : Metrics.globalRegistry;
+        this.cachedTimer = verificationTimer(registry, "cached");
+        this.verifiedTimer = verificationTimer(registry, "verified");
+        this.rejectedTimer = verificationTimer(registry, "rejected");
+        this.rejectedCachedTimer = verificationTimer(registry, "rejected-cached");
+
+        if (cacheEnabled) {
+            this.verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(cacheMaxSize)
+                    .expireAfter(new PrincipalExpiry(cacheMaxTtl))
+                    .recordStats()
+                    .build();
+
+            CaffeineCacheMetrics.monitor(registry, verifiedTokens, "jwt.verified");
+        }
+
+        if (negativeCacheEnabled) {
+            // Rejections are final (bad signature, expired, malformed), the ttl only bounds staleness
+            this.rejectedTokens = Caffeine.newBuilder()
+                    .maximumSize(negativeCacheMaxSize)
+                    .expireAfterWrite(negativeCacheTtl)
+                    .recordStats()
+                    .build();
+
+            CaffeineCacheMetrics.monitor(registry, rejectedTokens, "jwt.rejected");
+        }
     }
 
-    public String extractUsername(String token) {
-        try {
-            return extractClaims(token).getSubject();
-        } catch (Exception e) {
-            logger.error("Error extracting username from token", e);
+    private static Timer verificationTimer(MeterRegistry registry, String result) {
+        return Timer.builder("gateway.jwt.verification")
+                .description("Time spent verifying bearer tokens")
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /**
+     * Parses and verifies the token exactly once.
+     * Signature, expiry and subject are all checked here.
+     *
+     * @return the verified principal, or {@code null} if the token is not acceptable
+     */
+    public JwtPrincipal verify(String token) {
+        if (token == null || token.isBlank()) {
+            logRejection("token is null or empty");
+            return null;
+        }
+
+        long start = System.nanoTime();
+
+        if (verifiedTokens == null && rejectedTokens == null) {
+            JwtPrincipal principal = verifyUncached(token);
+            return timed(principal != null && isRevoked(principal) ? null : principal, start);
+        }
+
+        TokenDigest key = TokenDigest.of(token);
+        if (verifiedTokens != null) {
+            JwtPrincipal cached = verifiedTokens.getIfPresent(key);
+            if (cached != null) {
+                if (cached.isExpired(Instant.now())) {
+                    verifiedTokens.invalidate(key);
+                } else if (isRevoked(cached)) {
+                    verifiedTokens.invalidate(key);
+                    return timed(rejected(key), start);
+                } else {
+                    cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    return cached;
+                }
+            }
+        }
+        if (rejectedTokens != null && rejectedTokens.getIfPresent(key) != null) {
+            rejectedCachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             return null;
         }
+
+        JwtPrincipal principal = verifyUncached(token);
+        if (principal != null && isRevoked(principal)) {
+            principal = null;
+        }
+        if (principal == null) {
+            return timed(rejected(key), start);
+        }
+        if (verifiedTokens != null) {
+            verifiedTokens.put(key, principal);
+        }
+        return timed(principal, start);
     }
 
-    public String extractRole(String token) {
+    private JwtPrincipal rejected(TokenDigest key) {
+        if (rejectedTokens != null) {
+            rejectedTokens.put(key, Boolean.TRUE);
+        }
+        return null;
+    }
+
+    // Checked on every request, cached or not: a revocation applies to tokens already verified
+    private boolean isRevoked(JwtPrincipal principal) {
+        if (revocationService == null || !revocationService.isRevoked(principal)) {
+            return false;
+        }
+        logRejection("token revoked");
+        return true;
+    }
+
+    private JwtPrincipal timed(JwtPrincipal principal, long start) {
+        (principal != null ? verifiedTimer : rejectedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return principal;
+    }
+
+    private JwtPrincipal verifyUncached(String token) {
         try {
+            // parseSignedClaims already rejects expired tokens with ExpiredJwtException
             Claims claims = extractClaims(token);
+
+            String username = claims.getSubject();
+            if (username == null || username.isBlank()) {
+                logRejection("token does not contain a username");
+                return null;
+            }
+
             String role = claims.get("role", String.class);
-            return role != null ? role : "USER"; // Default to USER if role is not present
+            Date issuedAt = claims.getIssuedAt();
+            Date expiration = claims.getExpiration();
+
+            logger.debug("Token validated successfully for user: {}", username);
+            return new JwtPrincipal(
+                    username,
+                    role != null ? role : DEFAULT_ROLE, // Default to USER if role is not present
+                    claims.getId(),
+                    issuedAt != null ? issuedAt.toInstant() : null,
+                    expiration != null ? expiration.toInstant() : null);
+
+        } catch (ExpiredJwtException e) {
+            logRejection("token expired");
+            return null;
+        } catch (MalformedJwtException e) {
+            logRejection("malformed token");
+            return null;
+        } catch (SignatureException e) {
+            logRejection("invalid token signature");
+            return null;
         } catch (Exception e) {
-            logger.error("Error extracting role from token", e);
-            return "USER";
+            // Anything a client can send ends up here eventually; no stack traces on the reject path
+            logRejection(e.getClass().getSimpleName() + ": " + e.getMessage());
+            logger.debug("Token validation failed", e);
+            return null;
+        }
+    }
+
+    private void logRejection(String reason) {
+        long suppressed = rejectionLog.tryAcquire();
+        if (suppressed > 0) {
+            logger.warn("Rejected token: {} ({} earlier rejections not logged)", reason, suppressed);
+        } else if (suppressed == 0) {
+            logger.warn("Rejected token: {}", reason);
         }
     }
 
+    public String extractUsername(String token) {
+        JwtPrincipal principal = verify(token);
+        return principal != null ? principal.username() : null;
+    }
+
+    public String extractRole(String token) {
+        JwtPrincipal principal = verify(token);
+        return principal != null ? principal.role() : DEFAULT_ROLE;
+    }
+
     private Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public boolean isTokenExpired(String token) {
-        try {
-            Date expiration = extractClaims(token).getExpiration();
-            return expiration.before(new Date());
-        } catch (Exception e) {
-            logger.error("Error checking token expiration", e);
-            return true;
-        }
+        JwtPrincipal principal = verify(token);
+        return principal == null || principal.isExpired(Instant.now());
     }
 
     public boolean validateToken(String token) {
-        try {
-            if (token == null || token.trim().isEmpty()) {
-                logger.warn("Token is null or empty");
-                return false;
-            }
+        return verify(token) != null;
+    }
 
-            Claims claims = extractClaims(token);
+    /**
+     * Expires each cache entry at the token's own exp claim, capped at maxTtl.
+     */
+    private static final class PrincipalExpiry implements Expiry<TokenDigest, JwtPrincipal> {
 
-            // Check if token is expired
-            if (isTokenExpired(token)) {
-                logger.warn("Token is expired");
-                return false;
-            }
+        private final long maxTtlNanos;
 
-            // Check if username exists
-            String username = claims.getSubject();
-            if (username == null || username.trim().isEmpty()) {
-                logger.warn("Token does not contain valid username");
-                return false;
+        PrincipalExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, JwtPrincipal value, long currentTime) {
+            if (value.expiresAt() == null) {
+                return maxTtlNanos;
             }
+            long remaining = Duration.between(Instant.now(), value.expiresAt()).toNanos();
+            return Math.max(0, Math.min(remaining, maxTtlNanos));
+        }
 
-            logger.debug("Token validated successfully for user: {}", username);
-            return true;
+        @Override
+        public long expireAfterUpdate(TokenDigest key, JwtPrincipal value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
 
-        } catch (ExpiredJwtException e) {
-            logger.warn("Token expired: {}", e.getMessage());
-            return false;
-        } catch (MalformedJwtException e) {
-            logger.warn("Malformed token: {}", e.getMessage());
-            return false;
-        } catch (SignatureException e) {
-            logger.warn("Invalid token signature: {}", e.getMessage());
-            return false;
-        } catch (Exception e) {
-            logger.error("Token validation failed", e);
-            return false;
+        @Override
+        public long expireAfterRead(TokenDigest key, JwtPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
-}
\ No newline at end of file
+}
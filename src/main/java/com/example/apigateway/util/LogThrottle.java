@@ -0,0 +1,49 @@
+package com.example.apigateway.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets at most {@code permits} log lines through per interval and counts the rest, so a flood of
+ * identical failures (bad tokens replayed in a loop, credential stuffing) cannot flood the log.
+ * Lock-free; the window is restarted by whichever caller first sees it has elapsed.
+ */
+public final class LogThrottle {
+
+    private final int permits;
+    private final long intervalNanos;
+
+    private final AtomicLong windowStart;
+    private final AtomicLong used = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public LogThrottle(int permits, Duration interval) {
+        this(permits, interval, System.nanoTime());
+    }
+
+    LogThrottle(int permits, Duration interval, long now) {
+        this.permits = permits;
+        this.intervalNanos = interval.toNanos();
+        this.windowStart = new AtomicLong(now);
+    }
+
+    /**
+     * @return -1 if this line should be dropped, otherwise how many lines were dropped since the
+     *         last one let through (to be mentioned in the message)
+     */
+    public long tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    long tryAcquire(long now) {
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            used.set(0);
+        }
+        if (used.incrementAndGet() > permits) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.apigateway.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogRingBufferTests {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertThat(new AccessLogRingBuffer<>(5).capacity()).isEqualTo(8);
+        assertThat(new AccessLogRingBuffer<>(8).capacity()).isEqualTo(8);
+    }
+
+    @Test
+    void deliversEveryItemOnceWithConcurrentProducers() throws InterruptedException {
+        int producers = 8;
+        int perProducer = 20_000;
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(1024);
+        AtomicInteger dropped = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads[p] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    // Retry until the consumer makes room, so nothing is lost below capacity
+                    while (!buffer.offer(base + i)) {
+                        dropped.incrementAndGet();
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+
+        BitSet seen = new BitSet(producers * perProducer);
+        int received = 0;
+        start.countDown();
+        while (received < producers * perProducer) {
+            Integer item = buffer.poll();
+            if (item == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+            assertThat(seen.get(item)).as("duplicate %d", item).isFalse();
+            seen.set(item);
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(seen.cardinality()).isEqualTo(producers * perProducer);
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void refusesItemsOverCapacityUntilConsumed() {
+        AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(4);
+        int refused = 0;
+        for (int i = 0; i < 10; i++) {
+            if (!buffer.offer(i)) {
+                refused++;
+            }
+        }
+
+        assertThat(refused).isEqualTo(6);
+        assertThat(buffer.size()).isEqualTo(4);
+        assertThat(buffer.poll()).isZero();
+        assertThat(buffer.offer(10)).isTrue();
+        assertThat(buffer.poll()).isEqualTo(1);
+        assertThat(buffer.poll()).isEqualTo(2);
+        assertThat(buffer.poll()).isEqualTo(3);
+        assertThat(buffer.poll()).isEqualTo(10);
+        assertThat(buffer.poll()).isNull();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.apigateway.accesslog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogWriterTests {
+
+    @Test
+    void formatsRecordAsOneJsonLine() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("User-Agent", "curl/8.0");
+        headers.put("Authorization", "[REDACTED]");
+        AccessLogRecord record = new AccessLogRecord(1700000000000L, "GET", "/api/users/profile", "user-service",
+                200, 1234, "alice", 512, headers);
+
+        StringBuilder line = new StringBuilder();
+        AccessLogWriter.format(record, line);
+
+        assertThat(line.toString()).isEqualTo("{\"ts\":1700000000000,\"method\":\"GET\",\"path\":\"/api/users/profile\","
+                + "\"route\":\"user-service\",\"status\":200,\"latencyUs\":1234,\"user\":\"alice\",\"bytes\":512,"
+                + "\"headers\":{\"User-Agent\":\"curl/8.0\",\"Authorization\":\"[REDACTED]\"}}");
+    }
+
+    @Test
+    void writesNullsAndEscapesControlCharacters() {
+        AccessLogRecord record = new AccessLogRecord(1, "POST", "/a\"b\\c\n\u0001", null, 404, 0, null, 0, Map.of());
+
+        StringBuilder line = new StringBuilder();
+        AccessLogWriter.format(record, line);
+
+        assertThat(line.toString()).isEqualTo("{\"ts\":1,\"method\":\"POST\",\"path\":\"/a\\\"b\\\\c\\n\\u0001\","
+                + "\"route\":null,\"status\":404,\"latencyUs\":0,\"user\":null,\"bytes\":0}");
+    }
+}
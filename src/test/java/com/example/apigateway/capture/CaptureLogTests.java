@@ -0,0 +1,71 @@
+package com.example.apigateway.capture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CaptureLogTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        CaptureRecord first = new CaptureRecord(1_700_000_000_000_000L, "GET", "/api/users/profile", "page=1f2e",
+                "user-service", 200, 1_250, -1, 2_048, CaptureRecord.AUTH_VERIFIED, 42L, "USER",
+                Map.of("Accept", "application/json"));
+        CaptureRecord second = new CaptureRecord(1_700_000_000_000_900L, "POST", "/api/auth/login", null,
+                null, 404, 90, 64, 0, CaptureRecord.AUTH_NONE, 0, null, Map.of());
+
+        Path file = write(first, second);
+
+        try (CaptureLog.Reader reader = CaptureLog.open(file)) {
+            assertThat(reader.next()).isEqualTo(first);
+            assertThat(reader.next()).isEqualTo(second);
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void tornLastRecordEndsTheLog() throws IOException {
+        CaptureRecord record = new CaptureRecord(1L, "GET", "/a", null, "r", 200, 1, -1, 1,
+                CaptureRecord.AUTH_NONE, 0, null, Map.of());
+        Path file = write(record, record);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+
+        try (CaptureLog.Reader reader = CaptureLog.open(file)) {
+            assertThat(reader.next()).isEqualTo(record);
+            assertThat(reader.next()).isNull();
+        }
+    }
+
+    @Test
+    void recordThatDoesNotFitLeavesBufferUnchanged() {
+        ByteBuffer small = ByteBuffer.allocate(16);
+        CaptureRecord record = new CaptureRecord(1L, "GET", "/a/long/enough/path", null, "r", 200, 1, -1, 1,
+                CaptureRecord.AUTH_NONE, 0, null, Map.of());
+
+        assertThat(CaptureLog.encode(record, small)).isFalse();
+        assertThat(small.position()).isZero();
+    }
+
+    private Path write(CaptureRecord... records) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(4096);
+        CaptureLog.writeHeader(out);
+        for (CaptureRecord record : records) {
+            assertThat(CaptureLog.encode(record, out)).isTrue();
+        }
+        Path file = dir.resolve("capture.bin");
+        Files.write(file, Arrays.copyOf(out.array(), out.position()));
+        return file;
+    }
+}
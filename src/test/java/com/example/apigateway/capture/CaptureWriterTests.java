@@ -0,0 +1,101 @@
+package com.example.apigateway.capture;
+
+import com.example.apigateway.config.CaptureProperties;
+import com.example.apigateway.filter.JwtAuthFilter;
+import com.example.apigateway.util.JwtPrincipal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sampled exchanges through {@link CaptureFilter} and {@link CaptureWriter} into a capture log.
+ */
+class CaptureWriterTests {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void credentialsNeverReachTheLogAndIdentifiersAreHashed() throws Exception {
+        CaptureProperties properties = new CaptureProperties();
+        properties.setEnabled(true);
+        properties.setFile(dir.resolve("capture.log").toString());
+        properties.setSampleRate(1.0);
+        properties.setHeaders(List.of("Accept", "Authorization", "Cookie", "Proxy-Authorization", "X-Revocation-Key"));
+
+        CaptureWriter writer = new CaptureWriter();
+        ReflectionTestUtils.setField(writer, "properties", properties);
+        ReflectionTestUtils.invokeMethod(writer, "start");
+        CaptureFilter filter = new CaptureFilter(writer, properties);
+
+        capture(filter, "alice", "/api/users?id=42&flag&name=");
+        capture(filter, "alice", "/api/users?id=42");
+        capture(filter, "bob", "/api/users?id=43");
+        ReflectionTestUtils.invokeMethod(writer, "stop");
+
+        List<CaptureRecord> records = new ArrayList<>();
+        try (CaptureLog.Reader reader = CaptureLog.open(dir.resolve("capture.log"))) {
+            for (CaptureRecord record = reader.next(); record != null; record = reader.next()) {
+                records.add(record);
+            }
+        }
+        assertThat(records).hasSize(3);
+        CaptureRecord first = records.get(0);
+        CaptureRecord second = records.get(1);
+        CaptureRecord other = records.get(2);
+
+        assertThat(first.headers()).isEqualTo(Map.of("Accept", "application/json"));
+        assertThat(first.auth()).isEqualTo(CaptureRecord.AUTH_VERIFIED);
+        assertThat(first.role()).isEqualTo("USER");
+        assertThat(first.responseBytes()).isEqualTo(5);
+
+        // Same subject, same hash within the run; salted, so not the plain digest of the name
+        assertThat(first.subjectHash()).isNotZero().isEqualTo(second.subjectHash()).isNotEqualTo(other.subjectHash());
+        assertThat(first.subjectHash()).isNotEqualTo(unsaltedHash("alice"));
+
+        // Names and empty values are kept, values are hashed
+        assertThat(first.query()).matches("id=[0-9a-f]+&flag&name=");
+        assertThat(first.query()).doesNotContain("42");
+        assertThat(second.query()).isEqualTo(first.query().substring(0, first.query().indexOf('&')));
+        assertThat(other.query()).isNotEqualTo(second.query());
+    }
+
+    private static void capture(CaptureFilter filter, String subject, String uri) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri)
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer secret-token")
+                .header(HttpHeaders.COOKIE, "session=secret")
+                .header(HttpHeaders.PROXY_AUTHORIZATION, "Basic c2VjcmV0")
+                .header("X-Revocation-Key", "secret-key"));
+        exchange.getAttributes().put(JwtAuthFilter.PRINCIPAL_ATTR, new JwtPrincipal(subject, "USER", null, null, null));
+        GatewayFilterChain chain = served -> {
+            served.getResponse().setStatusCode(HttpStatus.OK);
+            return served.getResponse().writeWith(Mono.just(
+                    DefaultDataBufferFactory.sharedInstance.wrap("hello".getBytes(StandardCharsets.UTF_8))));
+        };
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+    }
+
+    private static long unsaltedHash(String value) throws Exception {
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(hash).getLong();
+    }
+}
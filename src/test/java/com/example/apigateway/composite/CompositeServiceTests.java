@@ -0,0 +1,265 @@
+package com.example.apigateway.composite;
+
+import com.example.apigateway.concurrency.AdmissionControlFilter;
+import com.example.apigateway.config.AdmissionProperties;
+import com.example.apigateway.config.CompositeProperties;
+import com.example.apigateway.config.LoadBalancerProperties;
+import com.example.apigateway.config.TimeoutProperties;
+import com.example.apigateway.config.UpstreamProperties;
+import com.example.apigateway.loadbalancer.ServiceRegistry;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.util.JwtPrincipal;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Composite views against a stub backend on a random port.
+ */
+class CompositeServiceTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final JwtPrincipal PRINCIPAL = new JwtPrincipal("alice", "USER", null, null, null);
+
+    private static final AtomicInteger calls = new AtomicInteger();
+    private static DisposableServer backend;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .minimumNumberOfCalls(2)
+            .slidingWindowSize(2)
+            .build());
+    private final AdmissionProperties admission = new AdmissionProperties();
+
+    @BeforeAll
+    static void startBackend() {
+        backend = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes
+                        .get("/json", (request, response) -> {
+                            calls.incrementAndGet();
+                            return response.header("Content-Type", "application/json").sendString(Mono.just("{\"a\":[1,2]}"));
+                        })
+                        .get("/text", (request, response) -> response.header("Content-Type", "text/plain")
+                                .sendString(Mono.just("say \"hi\"\n")))
+                        .get("/empty", (request, response) -> response.status(204).send())
+                        .get("/error", (request, response) -> {
+                            calls.incrementAndGet();
+                            return response.status(500).header("Content-Type", "application/json")
+                                    .sendString(Mono.just("{\"error\":\"boom\"}"));
+                        })
+                        .get("/large", (request, response) -> response.header("Content-Type", "text/plain")
+                                .sendString(Mono.just("x".repeat(100))))
+                        .get("/slow", (request, response) -> response.sendString(Mono.delay(Duration.ofSeconds(1)).map(i -> "late")))
+                        .get("/deadline", (request, response) -> response.header("Content-Type", "application/json")
+                                .sendString(Mono.just(String.valueOf(request.requestHeaders().get("X-Request-Deadline"))))))
+                .bindNow();
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.disposeNow();
+    }
+
+    @Test
+    void documentEmbedsJsonAndQuotesOtherBodies() throws Exception {
+        JsonNode document = compose(Map.of(
+                "json", part("/json"),
+                "text", part("/text"),
+                "empty", part("/empty")), request());
+
+        assertThat(document.get("complete").asBoolean()).isTrue();
+        JsonNode parts = document.get("parts");
+        assertThat(parts.size()).isEqualTo(3);
+        assertThat(parts.get("json").get("ok").asBoolean()).isTrue();
+        assertThat(parts.get("json").get("status").asInt()).isEqualTo(200);
+        assertThat(parts.get("json").get("body").get("a").toString()).isEqualTo("[1,2]");
+        assertThat(parts.get("text").get("body").asText()).isEqualTo("say \"hi\"\n");
+        assertThat(parts.get("empty").get("status").asInt()).isEqualTo(204);
+        assertThat(parts.get("empty").get("body").isNull()).isTrue();
+    }
+
+    @Test
+    void serverErrorIsReportedWithItsBodyAndMakesTheViewIncomplete() throws Exception {
+        JsonNode document = compose(Map.of("json", part("/json"), "broken", part("/error")), request());
+
+        assertThat(document.get("complete").asBoolean()).isFalse();
+        JsonNode broken = document.get("parts").get("broken");
+        assertThat(broken.get("ok").asBoolean()).isFalse();
+        assertThat(broken.get("status").asInt()).isEqualTo(500);
+        assertThat(broken.get("body").get("error").asText()).isEqualTo("boom");
+        assertThat(document.get("parts").get("json").get("ok").asBoolean()).isTrue();
+    }
+
+    @Test
+    void failedPartsCarryAGatewayStatusAndError() throws Exception {
+        CompositeProperties.Part slow = part("/slow");
+        slow.setTimeout(Duration.ofMillis(200));
+        CompositeProperties.Part missing = new CompositeProperties.Part();
+        missing.setUri(URI.create("lb://missing-service/json"));
+
+        JsonNode document = compose(Map.of(
+                "slow", slow,
+                "large", part("/large"),
+                "missing", missing,
+                "json", part("/json")), request());
+
+        assertThat(document.get("complete").asBoolean()).isFalse();
+        JsonNode parts = document.get("parts");
+        assertFailed(parts.get("slow"), 504, "timed out after 200ms");
+        assertFailed(parts.get("large"), 502, "response larger than 64 bytes");
+        assertFailed(parts.get("missing"), 503, "no instance available");
+        assertThat(parts.get("json").get("ok").asBoolean()).isTrue();
+    }
+
+    @Test
+    void openBreakerOfThePartsRouteRejectsWithoutCallingTheBackend() throws Exception {
+        CircuitBreaker breaker = circuitBreakers.circuitBreaker("guarded");
+        breaker.transitionToForcedOpenState();
+        int before = calls.get();
+
+        JsonNode document = compose(Map.of("json", part("/json", "guarded")), request());
+
+        assertFailed(document.get("parts").get("json"), 503, "circuit open");
+        assertThat(calls.get()).isEqualTo(before);
+    }
+
+    @Test
+    void serverErrorsCountAgainstThePartsRouteBreaker() throws Exception {
+        CircuitBreaker breaker = circuitBreakers.circuitBreaker("guarded");
+
+        compose(Map.of("broken", part("/error", "guarded")), request());
+        compose(Map.of("broken", part("/error", "guarded")), request());
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void partsOverTheRoutesAdmissionLimitAreShed() throws Exception {
+        admission.setInitialLimit(1);
+        admission.setMinLimit(1);
+        admission.setDefaultShare(1.0);
+
+        JsonNode document = compose(Map.of(
+                "first", part("/slow", "guarded"),
+                "second", part("/slow", "guarded")), request());
+
+        JsonNode parts = document.get("parts");
+        List<Integer> statuses = List.of(parts.get("first").get("status").asInt(), parts.get("second").get("status").asInt());
+        assertThat(statuses).containsExactlyInAnyOrder(200, 503);
+    }
+
+    @Test
+    void callersDeadlineCapsThePartTimeoutAndIsPassedOn() throws Exception {
+        // Warm up the client, so connection setup does not eat the budget
+        compose(Map.of("json", part("/json")), request());
+        long deadline = System.currentTimeMillis() + 600;
+        ServerHttpRequest request = MockServerHttpRequest.get("/composite/test")
+                .header("X-Request-Deadline", String.valueOf(deadline))
+                .build();
+
+        JsonNode document = compose(Map.of("slow", part("/slow"), "deadline", part("/deadline")), request);
+
+        JsonNode parts = document.get("parts");
+        assertThat(parts.get("slow").get("status").asInt()).isEqualTo(504);
+        assertThat(parts.get("deadline").get("body").asLong()).isBetween(deadline - 100, deadline);
+    }
+
+    private JsonNode compose(Map<String, CompositeProperties.Part> parts, ServerHttpRequest request) throws Exception {
+        String json = DataBufferUtils.join(service(parts).compose("test", "composite-test", PRINCIPAL, request,
+                        DefaultDataBufferFactory.sharedInstance))
+                .map(buffer -> {
+                    String text = buffer.toString(StandardCharsets.UTF_8);
+                    DataBufferUtils.release(buffer);
+                    return text;
+                })
+                .block(TIMEOUT);
+        return objectMapper.readTree(json);
+    }
+
+    private CompositeService service(Map<String, CompositeProperties.Part> parts) {
+        CompositeProperties properties = new CompositeProperties();
+        properties.setMaxPartSize(DataSize.ofBytes(64));
+        CompositeProperties.View view = new CompositeProperties.View();
+        view.setParts(new LinkedHashMap<>(parts));
+        properties.setViews(Map.of("test", view));
+
+        LoadBalancerProperties loadBalancer = new LoadBalancerProperties();
+        loadBalancer.setServices(Map.of("stub-service", List.of("http://localhost:" + backend.port())));
+        loadBalancer.setFailureThreshold(1000);
+        ServiceRegistry registry = new ServiceRegistry();
+        ReflectionTestUtils.setField(registry, "properties", loadBalancer);
+        ReflectionTestUtils.invokeMethod(registry, "init");
+
+        GatewayMetrics metrics = new GatewayMetrics(new SimpleMeterRegistry());
+        AdmissionControlFilter admissionControl = new AdmissionControlFilter();
+        ReflectionTestUtils.setField(admissionControl, "properties", admission);
+        ReflectionTestUtils.setField(admissionControl, "gatewayMetrics", metrics);
+        ReflectionTestUtils.invokeMethod(admissionControl, "init");
+
+        CompositeService service = new CompositeService();
+        ReflectionTestUtils.setField(service, "properties", properties);
+        ReflectionTestUtils.setField(service, "upstreamProperties", new UpstreamProperties());
+        ReflectionTestUtils.setField(service, "serviceRegistry", registry);
+        ReflectionTestUtils.setField(service, "httpClient", HttpClient.create());
+        ReflectionTestUtils.setField(service, "gatewayMetrics", metrics);
+        ReflectionTestUtils.setField(service, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(service, "admissionControl", admissionControl);
+        ReflectionTestUtils.setField(service, "circuitBreakerRegistry", circuitBreakers);
+        ReflectionTestUtils.setField(service, "bulkheadRegistry", BulkheadRegistry.ofDefaults());
+        ReflectionTestUtils.setField(service, "timeoutProperties", new TimeoutProperties());
+        ReflectionTestUtils.invokeMethod(service, "init");
+        return service;
+    }
+
+    private static CompositeProperties.Part part(String path) {
+        return part(path, null);
+    }
+
+    private static CompositeProperties.Part part(String path, String route) {
+        CompositeProperties.Part part = new CompositeProperties.Part();
+        part.setUri(URI.create("lb://stub-service" + path));
+        part.setRoute(route);
+        return part;
+    }
+
+    private static ServerHttpRequest request() {
+        return MockServerHttpRequest.get("/composite/test").build();
+    }
+
+    private static void assertFailed(JsonNode part, int status, String error) {
+        assertThat(part.get("ok").asBoolean()).isFalse();
+        assertThat(part.get("status").asInt()).isEqualTo(status);
+        assertThat(part.get("error").asText()).isEqualTo(error);
+        assertThat(part.has("body")).isFalse();
+    }
+}
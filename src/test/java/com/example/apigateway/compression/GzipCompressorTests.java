@@ -0,0 +1,84 @@
+package com.example.apigateway.compression;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GzipCompressorTests {
+
+    private final DataBufferFactory factory = DefaultDataBufferFactory.sharedInstance;
+
+    @Test
+    void compressesChunkedBodyIntoOneGzipStream() throws IOException {
+        String body = "{\"plan\":\"premium\",\"price\":9.99},".repeat(2_000);
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        GzipCompressor compressor = new CompressorPool(6, 1).acquire();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int offset = 0; offset < bytes.length; offset += 1_000) {
+            DataBuffer chunk = factory.wrap(Arrays.copyOfRange(bytes, offset, Math.min(bytes.length, offset + 1_000)));
+            drain(compressor.compress(chunk, factory), out);
+        }
+        drain(compressor.finish(factory), out);
+
+        assertThat(gunzip(out.toByteArray())).isEqualTo(body);
+        assertThat(compressor.bytesIn()).isEqualTo(bytes.length);
+        assertThat(compressor.bytesOut()).isEqualTo(out.size()).isLessThan(bytes.length / 10);
+    }
+
+    @Test
+    void emptyBodyIsAValidGzipStream() throws IOException {
+        GzipCompressor compressor = new CompressorPool(6, 1).acquire();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        drain(compressor.finish(factory), out);
+
+        assertThat(gunzip(out.toByteArray())).isEmpty();
+    }
+
+    @Test
+    void releasedCompressorIsResetAndReused() throws IOException {
+        CompressorPool pool = new CompressorPool(6, 1);
+        GzipCompressor first = pool.acquire();
+        drain(first.compress(factory.wrap("first".getBytes(StandardCharsets.UTF_8)), factory), new ByteArrayOutputStream());
+        drain(first.finish(factory), new ByteArrayOutputStream());
+        pool.release(first);
+
+        // Only one is kept idle
+        pool.release(new CompressorPool(6, 1).acquire());
+        assertThat(pool.idleCount()).isEqualTo(1);
+
+        GzipCompressor second = pool.acquire();
+        assertThat(second).isSameAs(first);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        drain(second.compress(factory.wrap("second".getBytes(StandardCharsets.UTF_8)), factory), out);
+        drain(second.finish(factory), out);
+        assertThat(gunzip(out.toByteArray())).isEqualTo("second");
+        assertThat(second.bytesIn()).isEqualTo(6);
+    }
+
+    private static void drain(DataBuffer buffer, ByteArrayOutputStream out) {
+        if (buffer != null) {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            out.writeBytes(bytes);
+        }
+    }
+
+    private static String gunzip(byte[] gzip) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.apigateway.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimiterTests {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AdaptiveLimiter limiter = new AdaptiveLimiter("test", 20, 5, 200, 0.2, 100);
+
+    @Test
+    void rejectsOverLimitAndReservesShareForHigherPriority() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire(0.5)).isTrue();
+        }
+        assertThat(limiter.tryAcquire(0.5)).isFalse();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire(1.0)).isTrue();
+        }
+        assertThat(limiter.tryAcquire(1.0)).isFalse();
+        assertThat(limiter.inFlight()).isEqualTo(20);
+    }
+
+    @Test
+    void growsWhileBusyAndLatencyIsSteady() {
+        runAtLimit(200, 10 * MILLIS);
+
+        assertThat(limiter.limit()).isGreaterThan(20);
+    }
+
+    @Test
+    void shrinksWhenLatencyRises() {
+        runAtLimit(200, 10 * MILLIS);
+        int grown = limiter.limit();
+
+        runAtLimit(1, 40 * MILLIS);
+
+        assertThat(limiter.limit()).isLessThan(grown);
+    }
+
+    @Test
+    void doesNotGrowWhenIdle() {
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire(1.0);
+            limiter.release(10 * MILLIS, false);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void backsOffOnDropsDownToMinimum() {
+        limiter.tryAcquire(1.0);
+        limiter.release(MILLIS, true);
+        assertThat(limiter.limit()).isEqualTo(18);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire(1.0);
+            limiter.release(MILLIS, true);
+        }
+        assertThat(limiter.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void concurrentReleasesKeepTheCountAndLoseNoDrops() throws Exception {
+        AdaptiveLimiter wide = new AdaptiveLimiter("test", 1000, 5, 1000, 0.2, 100);
+        int threads = 8;
+        int perThread = 5_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    if (wide.tryAcquire(1.0)) {
+                        wide.release(MILLIS, i % 100 == 0);
+                    }
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        // Drops counted while another thread held the lock are applied by the next release
+        wide.tryAcquire(1.0);
+        wide.release(MILLIS, false);
+        assertThat(wide.inFlight()).isZero();
+        assertThat(wide.limit()).isEqualTo(5);
+    }
+
+    private void runAtLimit(int rounds, long rtt) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limiter.tryAcquire(1.0)) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.release(rtt, false);
+            }
+        }
+    }
+}
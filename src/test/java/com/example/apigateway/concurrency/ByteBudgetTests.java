@@ -0,0 +1,50 @@
+package com.example.apigateway.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ByteBudgetTests {
+
+    private final ByteBudget budget = new ByteBudget(1000);
+
+    @Test
+    void refusesWhatDoesNotFitWithoutTakingAnything() {
+        assertThat(budget.tryAcquire(600)).isTrue();
+        assertThat(budget.tryAcquire(500)).isFalse();
+        assertThat(budget.used()).isEqualTo(600);
+
+        assertThat(budget.tryAcquire(400)).isTrue();
+        assertThat(budget.tryAcquire(1)).isFalse();
+    }
+
+    @Test
+    void releasedBytesCanBeTakenAgain() {
+        assertThat(budget.tryAcquire(1000)).isTrue();
+        budget.release(300);
+
+        assertThat(budget.tryAcquire(300)).isTrue();
+        assertThat(budget.used()).isEqualTo(1000);
+    }
+
+    @Test
+    void neverAdmitsMoreThanCapacityUnderContention() throws InterruptedException {
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    if (budget.tryAcquire(7)) {
+                        assertThat(budget.used()).isLessThanOrEqualTo(1000);
+                        budget.release(7);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(budget.used()).isZero();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.BodyLimitProperties;
+import com.example.apigateway.metrics.GatewayMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BodyLimitFilterTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger backendCalls = new AtomicInteger();
+    private final AtomicLong bytesForwarded = new AtomicLong();
+    private BodyLimitFilter factory;
+
+    @BeforeEach
+    void setUp() {
+        BodyLimitProperties properties = new BodyLimitProperties();
+        properties.setMaxInFlight(DataSize.ofBytes(1000));
+
+        factory = new BodyLimitFilter();
+        ReflectionTestUtils.setField(factory, "properties", properties);
+        ReflectionTestUtils.setField(factory, "gatewayMetrics", new GatewayMetrics(registry));
+        ReflectionTestUtils.invokeMethod(factory, "init");
+    }
+
+    @Test
+    void bodyWithinTheLimitReachesTheBackendAndGivesItsBytesBack() {
+        MockServerWebExchange exchange = post(500, chunks(500));
+
+        filter(1000, 0).filter(exchange, backend()).block(TIMEOUT);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(bytesForwarded).hasValue(500);
+        assertThat(inFlightBytes()).isZero();
+    }
+
+    @Test
+    void declaredLengthOverTheLimitIsRefusedBeforeTheBodyIsRead() {
+        AtomicBoolean read = new AtomicBoolean();
+        MockServerWebExchange exchange = post(2000, Flux.defer(() -> {
+            read.set(true);
+            return chunks(2000);
+        }));
+
+        filter(1000, 0).filter(exchange, backend()).block(TIMEOUT);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.CONNECTION)).isEqualTo("close");
+        assertThat(read).isFalse();
+        assertThat(backendCalls).hasValue(0);
+        assertThat(inFlightBytes()).isZero();
+    }
+
+    @Test
+    void chunkedBodyGrowingPastTheLimitIsCutOff() {
+        MockServerWebExchange exchange = postChunked(chunks(300, 300, 300, 300, 300));
+
+        filter(1000, 0).filter(exchange, backend()).block(TIMEOUT);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE);
+        assertThat(bytesForwarded).hasValue(900);
+        assertThat(inFlightBytes()).isZero();
+    }
+
+    @Test
+    void bodyArrivingBelowTheMinimumRateTimesOut() {
+        MockServerWebExchange exchange = postChunked(chunks(10).concatWith(Flux.never()));
+
+        filter(1000, 1024).filter(exchange, backend()).block(TIMEOUT);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.REQUEST_TIMEOUT);
+        assertThat(bytesForwarded).hasValue(10);
+        assertThat(inFlightBytes()).isZero();
+    }
+
+    @Test
+    void bodiesOverTheSharedBudgetAreShedUntilBytesAreGivenBack() {
+        GatewayFilter filter = filter(1000, 0);
+        Sinks.Empty<Void> rest = Sinks.empty();
+        MockServerWebExchange first = post(800, chunks(800).concatWith(rest.asMono().thenMany(Flux.empty())));
+        Mono<Void> firstDone = filter.filter(first, backend()).cache();
+        firstDone.subscribe();
+        assertThat(inFlightBytes()).isEqualTo(800);
+
+        MockServerWebExchange shed = post(300, chunks(300));
+        filter.filter(shed, backend()).block(TIMEOUT);
+        assertThat(shed.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(inFlightBytes()).isEqualTo(800);
+
+        rest.tryEmitEmpty();
+        firstDone.block(TIMEOUT);
+        assertThat(first.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(inFlightBytes()).isZero();
+
+        MockServerWebExchange retried = post(300, chunks(300));
+        filter.filter(retried, backend()).block(TIMEOUT);
+        assertThat(retried.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(inFlightBytes()).isZero();
+    }
+
+    private GatewayFilter filter(long maxSize, long minRate) {
+        BodyLimitProperties.Policy policy = new BodyLimitProperties.Policy();
+        policy.setMaxSize(DataSize.ofBytes(maxSize));
+        policy.setMinRate(DataSize.ofBytes(minRate));
+        policy.setRateGracePeriod(Duration.ofMillis(100));
+        return factory.apply(new BodyLimitFilter.Config("route", policy));
+    }
+
+    // Reads the whole body like the routing filter does, then answers 200
+    private GatewayFilterChain backend() {
+        return exchange -> {
+            backendCalls.incrementAndGet();
+            return exchange.getRequest().getBody()
+                    .doOnNext(buffer -> {
+                        bytesForwarded.addAndGet(buffer.readableByteCount());
+                        DataBufferUtils.release(buffer);
+                    })
+                    .then(Mono.fromRunnable(() -> exchange.getResponse().setStatusCode(HttpStatus.OK)));
+        };
+    }
+
+    private static Flux<DataBuffer> chunks(int... sizes) {
+        return Flux.fromStream(Arrays.stream(sizes).boxed())
+                .map(size -> DefaultDataBufferFactory.sharedInstance.wrap(new byte[size]));
+    }
+
+    private static MockServerWebExchange post(long contentLength, Flux<DataBuffer> body) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/api/upload")
+                .contentLength(contentLength)
+                .body(body));
+    }
+
+    private static MockServerWebExchange postChunked(Flux<DataBuffer> body) {
+        return MockServerWebExchange.from(MockServerHttpRequest.post("/api/upload")
+                .header(HttpHeaders.TRANSFER_ENCODING, "chunked")
+                .body(body));
+    }
+
+    private double inFlightBytes() {
+        return registry.get("gateway.body.inflight.bytes").gauge().value();
+    }
+}
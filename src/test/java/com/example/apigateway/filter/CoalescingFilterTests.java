@@ -0,0 +1,264 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.CoalescingProperties;
+import com.example.apigateway.config.CompressionProperties;
+import com.example.apigateway.metrics.GatewayMetrics;
+import com.example.apigateway.policy.AccessDecision;
+import com.example.apigateway.policy.PathPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalescingFilterTests {
+
+    private static final String PRIVATE_PATH = "/api/user-subscriptions";
+    private static final String PUBLIC_PATH = "/api/subscriptions/available/plans";
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> release = Sinks.empty();
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        CoalescingProperties properties = new CoalescingProperties();
+        properties.setMaxBodyBytes(DataSize.ofBytes(32));
+
+        CoalescingFilter factory = new CoalescingFilter();
+        ReflectionTestUtils.setField(factory, "properties", properties);
+        ReflectionTestUtils.setField(factory, "gatewayMetrics", new GatewayMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(factory, "pathPolicy", PathPolicy.builder()
+                .add(AccessDecision.PUBLIC, "/api/subscriptions/available/**")
+                .build());
+        filter = factory.apply(new CoalescingFilter.Config("route", true));
+    }
+
+    @Test
+    void followerGetsTheLeadersResponseWithoutItsPerRequestHeaders() {
+        MockServerWebExchange leader = get(PRIVATE_PATH, "Bearer a");
+        MockServerWebExchange follower = get(PRIVATE_PATH, "Bearer a");
+        follower.getResponse().getHeaders().set(RateLimitFilter.REMAINING_HEADER, "7");
+
+        Mono<Void> leading = filter.filter(leader, held("{\"ok\":true}")).cache();
+        leading.subscribe();
+        Mono<Void> following = filter.filter(follower, held("follower's own call")).cache();
+        following.subscribe();
+        release.tryEmitEmpty();
+        leading.block(TIMEOUT);
+        following.block(TIMEOUT);
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(follower.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(follower.getResponse().getBodyAsString().block(TIMEOUT)).isEqualTo("{\"ok\":true}");
+        HttpHeaders headers = follower.getResponse().getHeaders();
+        assertThat(headers.getFirst(CoalescingFilter.COALESCED_HEADER)).isEqualTo("true");
+        assertThat(headers.getFirst("X-Upstream")).isEqualTo("leader");
+        assertThat(headers.getFirst(RateLimitFilter.REMAINING_HEADER)).isEqualTo("7");
+        assertThat(headers.getFirst(RateLimitFilter.LIMIT_HEADER)).isNull();
+        assertThat(headers.getFirst(HttpHeaders.SET_COOKIE)).isNull();
+        assertThat(leader.getResponse().getHeaders().getFirst(CoalescingFilter.COALESCED_HEADER)).isNull();
+    }
+
+    @Test
+    void followersCompressTheLeadersIdentityBodyForThemselves() {
+        CompressionProperties compressionProperties = new CompressionProperties();
+        compressionProperties.setMinSize(DataSize.ofBytes(0));
+        CompressionFilter compressionFactory = new CompressionFilter();
+        ReflectionTestUtils.setField(compressionFactory, "properties", compressionProperties);
+        ReflectionTestUtils.setField(compressionFactory, "gatewayMetrics", new GatewayMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.invokeMethod(compressionFactory, "init");
+        GatewayFilter compression = compressionFactory.apply(new CompressionFilter.Config("route", null));
+        String json = "{\"plans\":[\"aaaaaaaaaaaaaa\"]}";
+
+        MockServerWebExchange leader = get(PUBLIC_PATH, "Bearer a", "gzip");
+        MockServerWebExchange plain = get(PUBLIC_PATH, "Bearer b", null);
+        MockServerWebExchange gzipped = get(PUBLIC_PATH, "Bearer c", "gzip");
+        Mono<Void> leading = compression.filter(leader, exchange -> filter.filter(exchange, held(json))).cache();
+        leading.subscribe();
+        Mono<Void> plainFollowing = compression.filter(plain, exchange -> filter.filter(exchange, immediate("own"))).cache();
+        plainFollowing.subscribe();
+        Mono<Void> gzipFollowing = compression.filter(gzipped, exchange -> filter.filter(exchange, immediate("own"))).cache();
+        gzipFollowing.subscribe();
+        release.tryEmitEmpty();
+        leading.block(TIMEOUT);
+        plainFollowing.block(TIMEOUT);
+        gzipFollowing.block(TIMEOUT);
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(leader.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gunzip(leader)).isEqualTo(json);
+
+        HttpHeaders plainHeaders = plain.getResponse().getHeaders();
+        assertThat(plainHeaders.getFirst(CoalescingFilter.COALESCED_HEADER)).isEqualTo("true");
+        assertThat(plainHeaders.getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(plainHeaders.getVary()).containsExactly(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(plain.getResponse().getBodyAsString().block(TIMEOUT)).isEqualTo(json);
+
+        assertThat(gzipped.getResponse().getHeaders().getFirst(CoalescingFilter.COALESCED_HEADER)).isEqualTo("true");
+        assertThat(gzipped.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gunzip(gzipped)).isEqualTo(json);
+    }
+
+    @Test
+    void followerMakesItsOwnCallWhenTheLeaderFails() {
+        MockServerWebExchange follower = get(PRIVATE_PATH, "Bearer a");
+
+        Mono<Void> leading = filter.filter(get(PRIVATE_PATH, "Bearer a"),
+                exchange -> release.asMono().then(Mono.error(new IllegalStateException("upstream failed")))).cache();
+        leading.subscribe(null, error -> { });
+        Mono<Void> following = filter.filter(follower, immediate("own")).cache();
+        following.subscribe();
+        release.tryEmitEmpty();
+
+        assertThatThrownBy(() -> leading.block(TIMEOUT)).hasMessageContaining("upstream failed");
+        following.block(TIMEOUT);
+        assertThat(follower.getResponse().getBodyAsString().block(TIMEOUT)).isEqualTo("own");
+        assertThat(follower.getResponse().getHeaders().getFirst(CoalescingFilter.COALESCED_HEADER)).isNull();
+    }
+
+    @Test
+    void followerMakesItsOwnCallWhenTheLeaderIsCancelled() {
+        MockServerWebExchange follower = get(PRIVATE_PATH, "Bearer a");
+
+        Disposable leading = filter.filter(get(PRIVATE_PATH, "Bearer a"), held("never sent")).subscribe();
+        Mono<Void> following = filter.filter(follower, immediate("own")).cache();
+        following.subscribe();
+        leading.dispose();
+
+        following.block(TIMEOUT);
+        assertThat(follower.getResponse().getBodyAsString().block(TIMEOUT)).isEqualTo("own");
+    }
+
+    @Test
+    void followerMakesItsOwnCallWhenTheLeadersBodyIsTooLarge() {
+        MockServerWebExchange leader = get(PRIVATE_PATH, "Bearer a");
+        MockServerWebExchange follower = get(PRIVATE_PATH, "Bearer a");
+        String large = "x".repeat(33);
+
+        Mono<Void> leading = filter.filter(leader, held(large)).cache();
+        leading.subscribe();
+        Mono<Void> following = filter.filter(follower, immediate("own")).cache();
+        following.subscribe();
+        release.tryEmitEmpty();
+        leading.block(TIMEOUT);
+        following.block(TIMEOUT);
+
+        assertThat(leader.getResponse().getBodyAsString().block(TIMEOUT)).isEqualTo(large);
+        assertThat(follower.getResponse().getBodyAsString().block(TIMEOUT)).isEqualTo("own");
+    }
+
+    @Test
+    void differentTokensAreNotMergedOnPrivatePaths() {
+        MockServerWebExchange other = get(PRIVATE_PATH, "Bearer b");
+
+        filter.filter(get(PRIVATE_PATH, "Bearer a"), held("for a")).subscribe();
+        Mono<Void> second = filter.filter(other, immediate("for b")).cache();
+        second.subscribe();
+        second.block(TIMEOUT);
+        release.tryEmitEmpty();
+
+        assertThat(other.getResponse().getBodyAsString().block(TIMEOUT)).isEqualTo("for b");
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void differentTokensAreMergedOnPublicPaths() {
+        MockServerWebExchange follower = get(PUBLIC_PATH, "Bearer b");
+
+        Mono<Void> leading = filter.filter(get(PUBLIC_PATH, "Bearer a"), held("plans")).cache();
+        leading.subscribe();
+        Mono<Void> following = filter.filter(follower, immediate("own")).cache();
+        following.subscribe();
+        release.tryEmitEmpty();
+        following.block(TIMEOUT);
+
+        assertThat(follower.getResponse().getBodyAsString().block(TIMEOUT)).isEqualTo("plans");
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void sequentialRequestsEachGoUpstream() {
+        filter.filter(get(PRIVATE_PATH, "Bearer a"), immediate("first")).block(TIMEOUT);
+        filter.filter(get(PRIVATE_PATH, "Bearer a"), immediate("second")).block(TIMEOUT);
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    private static MockServerWebExchange get(String path, String authorization) {
+        return get(path, authorization, null);
+    }
+
+    private static MockServerWebExchange get(String path, String authorization, String acceptEncoding) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path)
+                .header(HttpHeaders.AUTHORIZATION, authorization);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    private static String gunzip(MockServerWebExchange exchange) {
+        byte[] compressed = DataBufferUtils.join(exchange.getResponse().getBody())
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    DataBufferUtils.release(buffer);
+                    return bytes;
+                })
+                .block(TIMEOUT);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Upstream call that answers once release fires
+    private GatewayFilterChain held(String body) {
+        return exchange -> release.asMono().then(Mono.defer(() -> respond(exchange, body)));
+    }
+
+    private GatewayFilterChain immediate(String body) {
+        return exchange -> respond(exchange, body);
+    }
+
+    private Mono<Void> respond(ServerWebExchange exchange, String body) {
+        upstreamCalls.incrementAndGet();
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("X-Upstream", "leader");
+        // As RateLimitFilter and a backend session would set them on the leader's own response
+        headers.set(RateLimitFilter.LIMIT_HEADER, "50");
+        headers.set(RateLimitFilter.REMAINING_HEADER, "49");
+        headers.set(HttpHeaders.SET_COOKIE, "session=leader");
+        return exchange.getResponse().writeWith(Mono.just(
+                DefaultDataBufferFactory.sharedInstance.wrap(body.getBytes(StandardCharsets.UTF_8))));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.TimeoutProperties;
+import com.example.apigateway.metrics.GatewayMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR;
+
+class DeadlineFilterTests {
+
+    private static final String HEADER = "X-Request-Deadline";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private DeadlineFilter factory;
+
+    @BeforeEach
+    void setUp() {
+        factory = new DeadlineFilter();
+        ReflectionTestUtils.setField(factory, "properties", new TimeoutProperties());
+        ReflectionTestUtils.setField(factory, "gatewayMetrics", new GatewayMetrics(registry));
+    }
+
+    @Test
+    void answers504WhenHeadersDoNotArriveInTime() {
+        GatewayFilter filter = factory.apply(new DeadlineFilter.Config("route", policy(Duration.ofMillis(50), false)));
+        MockServerWebExchange exchange = get();
+
+        filter.filter(exchange, upstream(Duration.ofSeconds(5), Duration.ZERO, "late")).block(TIMEOUT);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(exchange.getResponse().getBodyAsString().block(TIMEOUT))
+                .startsWith("{\"success\":false,\"message\":\"Upstream did not respond in time\",\"status\":504,");
+        assertThat(cancellations()).isEqualTo(1);
+    }
+
+    @Test
+    void slowBodyAfterCommitIsNotCutShort() {
+        GatewayFilter filter = factory.apply(new DeadlineFilter.Config("route", policy(Duration.ofMillis(100), false)));
+        MockServerWebExchange exchange = get();
+
+        filter.filter(exchange, upstream(Duration.ofMillis(10), Duration.ofMillis(300), "slow")).block(TIMEOUT);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getBodyAsString().block(TIMEOUT)).isEqualTo("first,slow");
+        assertThat(cancellations()).isZero();
+    }
+
+    @Test
+    void adaptiveBudgetLearnsHeaderLatencyNotDownloadTime() {
+        GatewayFilter filter = factory.apply(new DeadlineFilter.Config("route", policy(Duration.ofSeconds(10), true)));
+
+        // Headers at once, body after 150ms: a budget learned from the whole exchange would be 2 x 150ms
+        Flux.range(0, 40)
+                .flatMap(i -> filter.filter(get(), upstream(Duration.ZERO, Duration.ofMillis(150), "body")))
+                .blockLast(TIMEOUT);
+
+        assertThat(budgetSentUpstream(filter)).isLessThan(100);
+    }
+
+    @Test
+    void adaptiveBudgetIgnoresExpiredCalls() {
+        GatewayFilter filter = factory.apply(new DeadlineFilter.Config("route", policy(Duration.ofSeconds(10), true)));
+
+        Flux.range(0, 40)
+                .flatMap(i -> {
+                    // The caller's own deadline expires long before the backend answers
+                    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/x")
+                            .header(HEADER, String.valueOf(System.currentTimeMillis() + 20)));
+                    return filter.filter(exchange, upstream(Duration.ofSeconds(5), Duration.ZERO, "late"));
+                })
+                .blockLast(TIMEOUT);
+
+        assertThat(cancellations()).isEqualTo(40);
+        assertThat(budgetSentUpstream(filter)).isGreaterThan(5_000);
+    }
+
+    private long budgetSentUpstream(GatewayFilter filter) {
+        AtomicLong deadline = new AtomicLong();
+        long now = System.currentTimeMillis();
+        filter.filter(get(), exchange -> {
+            deadline.set(Long.parseLong(exchange.getRequest().getHeaders().getFirst(HEADER)));
+            return Mono.empty();
+        }).block(TIMEOUT);
+        return deadline.get() - now;
+    }
+
+    private double cancellations() {
+        var counter = registry.find("gateway.deadline.cancellations").tag("reason", "deadline_exceeded").counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private static TimeoutProperties.Policy policy(Duration budget, boolean adaptive) {
+        TimeoutProperties.Policy policy = new TimeoutProperties.Policy();
+        policy.setBudget(budget);
+        policy.setAdaptive(adaptive);
+        policy.setMin(Duration.ofMillis(10));
+        // Small enough that 40 samples refresh the percentile
+        policy.setWindow(64);
+        return policy;
+    }
+
+    private static MockServerWebExchange get() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/x"));
+    }
+
+    // Backend whose headers arrive after headerDelay and whose body finishes bodyDelay later
+    private static GatewayFilterChain upstream(Duration headerDelay, Duration bodyDelay, String rest) {
+        return exchange -> Mono.delay(headerDelay).then(Mono.defer(() -> {
+            exchange.getAttributes().put(CLIENT_RESPONSE_ATTR, "response");
+            exchange.getResponse().setStatusCode(HttpStatus.OK);
+            Flux<DataBuffer> body = Flux.concat(Mono.fromSupplier(() -> buffer("first,")),
+                    Mono.delay(bodyDelay).map(ignored -> buffer(rest)));
+            return exchange.getResponse().writeWith(body);
+        }));
+    }
+
+    private static DataBuffer buffer(String text) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
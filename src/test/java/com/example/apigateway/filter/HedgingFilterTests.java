@@ -0,0 +1,225 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.HedgingProperties;
+import com.example.apigateway.loadbalancer.Endpoint;
+import com.example.apigateway.loadbalancer.LoadBalancerFilter;
+import com.example.apigateway.loadbalancer.ServicePool;
+import com.example.apigateway.loadbalancer.ServiceRegistry;
+import com.example.apigateway.metrics.GatewayMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.Connection;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.equalTo;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+
+class HedgingFilterTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration HEDGE_DELAY = Duration.ofMillis(20);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        HedgingProperties.Policy policy = new HedgingProperties.Policy();
+        policy.setMinDelay(HEDGE_DELAY);
+        policy.setMaxDelay(HEDGE_DELAY);
+
+        HedgingFilter factory = new HedgingFilter();
+        ReflectionTestUtils.setField(factory, "properties", new HedgingProperties());
+        ReflectionTestUtils.setField(factory, "gatewayMetrics", new GatewayMetrics(registry));
+        filter = factory.apply(new HedgingFilter.Config("route", policy));
+    }
+
+    @Test
+    void winningHedgesStatusHeadersAndAttributesAreCopiedBack() {
+        MockServerWebExchange exchange = get();
+        exchange.getResponse().getHeaders().set("X-Gateway", "kept");
+
+        filter.filter(exchange, upstream -> {
+            if (upstreamCalls.incrementAndGet() == 1) {
+                // The primary's partial state must not leak into the response
+                upstream.getResponse().getHeaders().set("X-Attempt", "primary");
+                upstream.getAttributes().put("attempt", "primary");
+                return Mono.never();
+            }
+            return answer(upstream, "hedge");
+        }).block(TIMEOUT);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getHeaders().get("X-Attempt")).containsExactly("hedge");
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Gateway")).isEqualTo("kept");
+        assertThat(exchange.<String>getAttribute("attempt")).isEqualTo("hedge");
+        assertThat(hedges("sent")).isEqualTo(1);
+        assertThat(hedges("won")).isEqualTo(1);
+    }
+
+    @Test
+    void primaryAnsweringInTimeSendsNoHedge() {
+        MockServerWebExchange exchange = get();
+
+        filter.filter(exchange, upstream -> {
+            upstreamCalls.incrementAndGet();
+            return answer(upstream, "primary");
+        }).block(TIMEOUT);
+
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Attempt")).isEqualTo("primary");
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(registry.find("gateway.hedging.requests").counters()).isEmpty();
+    }
+
+    @Test
+    void loserAnsweringAfterTheWinnerHasItsConnectionClosed() {
+        Sinks.Empty<Void> primaryAnswers = Sinks.empty();
+        EmbeddedChannel primaryChannel = new EmbeddedChannel();
+        MockServerWebExchange mock = get();
+        // The primary's headers arrive while the winning hedge's are being copied back
+        ServerWebExchange exchange = mock.mutate().response(new ServerHttpResponseDecorator(mock.getResponse()) {
+            @Override
+            public boolean setStatusCode(HttpStatusCode status) {
+                primaryAnswers.tryEmitEmpty();
+                return super.setStatusCode(status);
+            }
+        }).build();
+
+        filter.filter(exchange, upstream -> {
+            if (upstreamCalls.incrementAndGet() == 1) {
+                return primaryAnswers.asMono().then(Mono.defer(() -> {
+                    upstream.getAttributes().put(CLIENT_RESPONSE_CONN_ATTR, Connection.from(primaryChannel));
+                    return answer(upstream, "primary");
+                }));
+            }
+            return answer(upstream, "hedge");
+        }).block(TIMEOUT);
+
+        assertThat(mock.getResponse().getHeaders().getFirst("X-Attempt")).isEqualTo("hedge");
+        assertThat(primaryChannel.isOpen()).isFalse();
+    }
+
+    @Test
+    void primaryFailureFailsTheRequestAndCancelsThePendingHedge() {
+        Sinks.Empty<Void> primaryFails = Sinks.empty();
+        AtomicBoolean hedgeCancelled = new AtomicBoolean();
+
+        Mono<Void> result = filter.filter(get(), upstream -> {
+            if (upstreamCalls.incrementAndGet() == 1) {
+                return primaryFails.asMono().then(Mono.error(new IllegalStateException("primary failed")));
+            }
+            return Mono.<Void>never().doOnCancel(() -> hedgeCancelled.set(true));
+        }).cache();
+        result.subscribe(null, error -> { });
+        await().atMost(TIMEOUT).untilAtomic(upstreamCalls, equalTo(2));
+        primaryFails.tryEmitEmpty();
+
+        assertThatThrownBy(() -> result.block(TIMEOUT)).hasMessageContaining("primary failed");
+        await().atMost(TIMEOUT).untilTrue(hedgeCancelled);
+    }
+
+    @Test
+    void failedHedgeLeavesThePrimaryToAnswer() {
+        Sinks.Empty<Void> primaryAnswers = Sinks.empty();
+        MockServerWebExchange exchange = get();
+
+        Mono<Void> result = filter.filter(exchange, upstream -> {
+            if (upstreamCalls.incrementAndGet() == 1) {
+                return primaryAnswers.asMono().then(Mono.defer(() -> answer(upstream, "primary")));
+            }
+            return Mono.error(new IllegalStateException("hedge failed"));
+        }).cache();
+        result.subscribe();
+        await().atMost(TIMEOUT).untilAtomic(upstreamCalls, equalTo(2));
+        primaryAnswers.tryEmitEmpty();
+        result.block(TIMEOUT);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.getResponse().getHeaders().getFirst("X-Attempt")).isEqualTo("primary");
+        assertThat(hedges("won")).isZero();
+    }
+
+    @Test
+    void hedgeGoesToAnotherInstanceThanThePrimary() {
+        ServicePool pool = new ServicePool("user-service", List.of(
+                new Endpoint(URI.create("http://localhost:9001")),
+                new Endpoint(URI.create("http://localhost:9002"))), 3, TimeUnit.SECONDS.toNanos(30), 0.5);
+        // Even with the primary outstanding, the fast instance would still score better
+        Endpoint slow = pool.endpoints().get(1);
+        pool.started(slow);
+        pool.succeeded(slow, TimeUnit.SECONDS.toNanos(1));
+        ServiceRegistry serviceRegistry = new ServiceRegistry();
+        ReflectionTestUtils.setField(serviceRegistry, "pools", Map.of("user-service", pool));
+        LoadBalancerFilter loadBalancer = new LoadBalancerFilter();
+        ReflectionTestUtils.setField(loadBalancer, "serviceRegistry", serviceRegistry);
+
+        List<URI> called = new CopyOnWriteArrayList<>();
+        GatewayFilterChain backend = upstream -> {
+            URI url = upstream.getRequiredAttribute(GATEWAY_REQUEST_URL_ATTR);
+            called.add(url);
+            if (called.size() == 1) {
+                // The primary's instance never answers
+                return Mono.never();
+            }
+            return answer(upstream, "hedge");
+        };
+        MockServerWebExchange exchange = get();
+        exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, URI.create("lb://user-service/api/users/1"));
+
+        filter.filter(exchange, hedged -> loadBalancer.filter(hedged, backend)).block(TIMEOUT);
+
+        assertThat(called).hasSize(2);
+        assertThat(called.get(0).getPort()).isEqualTo(9001);
+        assertThat(called.get(1).getPort()).isEqualTo(9002);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.<URI>getAttribute(GATEWAY_REQUEST_URL_ATTR)).isEqualTo(called.get(1));
+        // The cancelled primary and the winning hedge each give their slot back; the loser is
+        // cancelled once the winner has been passed on
+        await().atMost(TIMEOUT).untilAsserted(() ->
+                assertThat(pool.endpoints()).allSatisfy(endpoint -> assertThat(endpoint.outstanding()).isZero()));
+    }
+
+    private static MockServerWebExchange get() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1"));
+    }
+
+    // Response headers arriving, as the routing filter completes once it has them
+    private static Mono<Void> answer(ServerWebExchange upstream, String attempt) {
+        upstream.getResponse().setStatusCode(HttpStatus.OK);
+        upstream.getResponse().getHeaders().set("X-Attempt", attempt);
+        upstream.getAttributes().put("attempt", attempt);
+        return Mono.empty();
+    }
+
+    private double hedges(String outcome) {
+        Counter counter = registry.find("gateway.hedging.requests").tag("outcome", outcome).counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
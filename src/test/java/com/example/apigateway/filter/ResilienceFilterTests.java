@@ -0,0 +1,155 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.metrics.GatewayMetrics;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResilienceFilterTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final String UNAVAILABLE =
+            "{\"success\":false,\"message\":\"Service temporarily unavailable\",\"status\":503,";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(2)
+            .minimumNumberOfCalls(2)
+            .waitDurationInOpenState(Duration.ofSeconds(30))
+            .build());
+    private final BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+    private ResilienceFilter factory;
+
+    @BeforeEach
+    void setUp() {
+        factory = new ResilienceFilter();
+        ReflectionTestUtils.setField(factory, "circuitBreakerRegistry", circuitBreakers);
+        ReflectionTestUtils.setField(factory, "bulkheadRegistry", bulkheads);
+        ReflectionTestUtils.setField(factory, "gatewayMetrics", new GatewayMetrics(registry));
+    }
+
+    @Test
+    void serverErrorsPassThroughAndOpenTheBreaker() {
+        CircuitBreaker breaker = circuitBreakers.circuitBreaker("route");
+        GatewayFilter filter = factory.apply(new ResilienceFilter.Config("route"));
+
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange exchange = get();
+            filter.filter(exchange, respond(HttpStatus.BAD_GATEWAY, "upstream down")).block(TIMEOUT);
+
+            assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.BAD_GATEWAY);
+            assertThat(exchange.getResponse().getBodyAsString().block(TIMEOUT)).isEqualTo("upstream down");
+        }
+
+        assertThat(breaker.getMetrics().getNumberOfFailedCalls()).isEqualTo(2);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void successIsNotCountedAsFailure() {
+        CircuitBreaker breaker = circuitBreakers.circuitBreaker("route");
+        GatewayFilter filter = factory.apply(new ResilienceFilter.Config("route"));
+
+        filter.filter(get(), respond(HttpStatus.NOT_FOUND, "missing")).block(TIMEOUT);
+
+        assertThat(breaker.getMetrics().getNumberOfSuccessfulCalls()).isEqualTo(1);
+        assertThat(breaker.getMetrics().getNumberOfFailedCalls()).isZero();
+    }
+
+    @Test
+    void openBreakerAnswers503WithRetryAfterWithoutCallingUpstream() {
+        circuitBreakers.circuitBreaker("route").transitionToOpenState();
+        GatewayFilter filter = factory.apply(new ResilienceFilter.Config("route"));
+        MockServerWebExchange exchange = get();
+
+        filter.filter(exchange, respond(HttpStatus.OK, "never sent")).block(TIMEOUT);
+
+        assertThat(upstreamCalls).hasValue(0);
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(exchange.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+        assertThat(exchange.getResponse().getBodyAsString().block(TIMEOUT)).startsWith(UNAVAILABLE);
+        assertThat(rejections("circuit_open")).isEqualTo(1);
+    }
+
+    @Test
+    void fullBulkheadAnswers503WithRetryAfterUntilACallFinishes() {
+        Bulkhead bulkhead = bulkheads.bulkhead("route");
+        GatewayFilter filter = factory.apply(new ResilienceFilter.Config("route"));
+        Sinks.Empty<Void> release = Sinks.empty();
+
+        MockServerWebExchange first = get();
+        Mono<Void> running = filter.filter(first, exchange -> release.asMono()
+                .then(Mono.defer(() -> respond(HttpStatus.OK, "first").filter(exchange)))).cache();
+        running.subscribe();
+        MockServerWebExchange rejected = get();
+        filter.filter(rejected, respond(HttpStatus.OK, "never sent")).block(TIMEOUT);
+
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(rejected.getResponse().getBodyAsString().block(TIMEOUT)).startsWith(UNAVAILABLE);
+        assertThat(rejections("bulkhead_full")).isEqualTo(1);
+
+        release.tryEmitEmpty();
+        running.block(TIMEOUT);
+        assertThat(first.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(bulkhead.getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void routeWithoutInstancesIsNotWrapped() {
+        circuitBreakers.circuitBreaker("route").transitionToOpenState();
+        GatewayFilter filter = factory.apply(new ResilienceFilter.Config("other"));
+        MockServerWebExchange exchange = get();
+
+        filter.filter(exchange, respond(HttpStatus.OK, "ok")).block(TIMEOUT);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    private static MockServerWebExchange get() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/1"));
+    }
+
+    private GatewayFilterChain respond(HttpStatus status, String body) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(status);
+            return exchange.getResponse().writeWith(Mono.just(
+                    DefaultDataBufferFactory.sharedInstance.wrap(body.getBytes(StandardCharsets.UTF_8))));
+        };
+    }
+
+    private double rejections(String reason) {
+        Counter counter = registry.find("gateway.resilience.rejections").tag("reason", reason).counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.cache.CachedResponse;
+import com.example.apigateway.cache.ResponseCache;
+import com.example.apigateway.config.ResponseCacheProperties;
+import com.example.apigateway.policy.AccessDecision;
+import com.example.apigateway.policy.PathPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTests {
+
+    private static final String PATH = "/api/subscriptions/available/plans";
+    private static final String BODY = "{\"plans\":[\"basic\",\"premium\"]}";
+
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private ResponseCache cache;
+    private GatewayFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCacheProperties properties = new ResponseCacheProperties();
+        properties.setMaxEntryBytes(DataSize.ofBytes(64));
+        cache = new ResponseCache(properties, new SimpleMeterRegistry());
+
+        ResponseCacheFilter factory = new ResponseCacheFilter();
+        ReflectionTestUtils.setField(factory, "properties", properties);
+        ReflectionTestUtils.setField(factory, "responseCache", cache);
+        ReflectionTestUtils.setField(factory, "pathPolicy", PathPolicy.builder()
+                .add(AccessDecision.PUBLIC, "/api/subscriptions/available/**")
+                .build());
+
+        ResponseCacheProperties.RoutePolicy policy = new ResponseCacheProperties.RoutePolicy();
+        policy.setTtl(Duration.ofSeconds(60));
+        filter = factory.apply(new ResponseCacheFilter.Config("subscriptions", policy));
+    }
+
+    @Test
+    void missIsForwardedAndStoredThenServedAsHit() {
+        MockServerWebExchange miss = get(PATH);
+        filter.filter(miss, upstream(HttpStatus.OK, BODY, headers -> { })).block();
+
+        assertThat(miss.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("MISS");
+        assertThat(miss.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+
+        MockServerWebExchange hit = get(PATH);
+        filter.filter(hit, upstream(HttpStatus.OK, "other", headers -> { })).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(hit.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(hit.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("HIT");
+        assertThat(hit.getResponse().getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(hit.getResponse().getHeaders().getETag()).isNotNull();
+        assertThat(hit.getResponse().getBodyAsString().block()).isEqualTo(BODY);
+    }
+
+    @Test
+    void queryIsPartOfTheKey() {
+        filter.filter(get(PATH + "?page=1"), upstream(HttpStatus.OK, BODY, headers -> { })).block();
+        filter.filter(get(PATH + "?page=2"), upstream(HttpStatus.OK, BODY, headers -> { })).block();
+
+        assertThat(upstreamCalls).hasValue(2);
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWith304() {
+        filter.filter(get(PATH), upstream(HttpStatus.OK, BODY, headers -> headers.setETag("\"v1\""))).block();
+
+        MockServerWebExchange revalidation = MockServerWebExchange.from(MockServerHttpRequest.get(PATH)
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"v0\", \"v1\""));
+        filter.filter(revalidation, upstream(HttpStatus.OK, BODY, headers -> { })).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(revalidation.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(revalidation.getResponse().getHeaders().getETag()).isEqualTo("\"v1\"");
+        assertThat(revalidation.getResponse().getBodyAsString().block()).isEmpty();
+    }
+
+    @Test
+    void entryLivesForTheRouteTtlOrShorterMaxAge() {
+        filter.filter(get(PATH), upstream(HttpStatus.OK, BODY, headers -> { })).block();
+        filter.filter(get(PATH + "?short"), upstream(HttpStatus.OK, BODY,
+                headers -> headers.setCacheControl("public, max-age=5"))).block();
+        filter.filter(get(PATH + "?long"), upstream(HttpStatus.OK, BODY,
+                headers -> headers.setCacheControl("public, max-age=3600"))).block();
+
+        assertThat(remainingSeconds("subscriptions " + PATH)).isBetween(55L, 60L);
+        assertThat(remainingSeconds("subscriptions " + PATH + "?short")).isBetween(1L, 5L);
+        assertThat(remainingSeconds("subscriptions " + PATH + "?long")).isBetween(55L, 60L);
+    }
+
+    @Test
+    void expiredEntryIsAMiss() {
+        cache.put("subscriptions " + PATH, new CachedResponse(new HttpHeaders(),
+                ByteBuffer.wrap(BODY.getBytes(StandardCharsets.UTF_8)), "\"x\"", System.nanoTime() - 1));
+
+        MockServerWebExchange exchange = get(PATH);
+        filter.filter(exchange, upstream(HttpStatus.OK, BODY, headers -> { })).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(exchange.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("MISS");
+    }
+
+    @Test
+    void fillingRequestAsksUpstreamForIdentityBody() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(PATH)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"));
+        String[] forwarded = {"unset"};
+        GatewayFilterChain chain = ex -> {
+            forwarded[0] = ex.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+            return upstream(HttpStatus.OK, BODY, headers -> { }).filter(ex);
+        };
+
+        filter.filter(exchange, chain).block();
+
+        assertThat(forwarded[0]).isNull();
+    }
+
+    @Test
+    void uncacheableResponsesAreNotStored() {
+        assertNotStored(HttpStatus.OK, headers -> headers.setCacheControl("no-store"));
+        assertNotStored(HttpStatus.OK, headers -> headers.setCacheControl("private, max-age=60"));
+        assertNotStored(HttpStatus.OK, headers -> headers.setCacheControl("max-age=0"));
+        assertNotStored(HttpStatus.OK, headers -> headers.set(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        assertNotStored(HttpStatus.OK, headers -> headers.setVary(List.of("Origin")));
+        assertNotStored(HttpStatus.OK, headers -> headers.set(HttpHeaders.VARY, "*"));
+        assertNotStored(HttpStatus.NOT_FOUND, headers -> { });
+        assertNotStored(HttpStatus.OK, "x".repeat(65), headers -> { });
+    }
+
+    @Test
+    void varyOnAcceptEncodingAloneIsCacheable() {
+        filter.filter(get(PATH), upstream(HttpStatus.OK, BODY, headers -> headers.setVary(List.of("Accept-Encoding")))).block();
+        filter.filter(get(PATH), upstream(HttpStatus.OK, BODY, headers -> { })).block();
+
+        assertThat(upstreamCalls).hasValue(1);
+    }
+
+    @Test
+    void nonGetAndNonPublicRequestsBypassTheCache() {
+        filter.filter(MockServerWebExchange.from(MockServerHttpRequest.post(PATH)), upstream(HttpStatus.OK, BODY, headers -> { })).block();
+        filter.filter(get("/api/users/profile"), upstream(HttpStatus.OK, BODY, headers -> { })).block();
+
+        assertThat(cache.get("subscriptions " + PATH)).isNull();
+        assertThat(cache.get("subscriptions /api/users/profile")).isNull();
+    }
+
+    private void assertNotStored(HttpStatus status, Consumer<HttpHeaders> headers) {
+        assertNotStored(status, BODY, headers);
+    }
+
+    private void assertNotStored(HttpStatus status, String body, Consumer<HttpHeaders> headers) {
+        MockServerWebExchange exchange = get(PATH);
+        filter.filter(exchange, upstream(status, body, headers)).block();
+
+        assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(body);
+        assertThat(cache.get("subscriptions " + PATH)).isNull();
+    }
+
+    private long remainingSeconds(String key) {
+        CachedResponse cached = cache.get(key);
+        assertThat(cached).as(key).isNotNull();
+        return TimeUnit.NANOSECONDS.toSeconds(cached.expiresAtNanos() - System.nanoTime() + 500_000_000L);
+    }
+
+    private static MockServerWebExchange get(String uri) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(uri));
+    }
+
+    private GatewayFilterChain upstream(HttpStatus status, String body, Consumer<HttpHeaders> headers) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            exchange.getResponse().setStatusCode(status);
+            exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            headers.accept(exchange.getResponse().getHeaders());
+            return exchange.getResponse().writeWith(Mono.just(
+                    DefaultDataBufferFactory.sharedInstance.wrap(body.getBytes(StandardCharsets.UTF_8))));
+        };
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.apigateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServicePoolTests {
+
+    private static final long EJECTION = TimeUnit.SECONDS.toNanos(30);
+
+    private final ServicePool pool = new ServicePool("user-service", List.of(
+            new Endpoint(URI.create("http://localhost:9001")),
+            new Endpoint(URI.create("http://localhost:9002"))), 3, EJECTION, 0.5);
+
+    private final Endpoint first = pool.endpoints().get(0);
+    private final Endpoint second = pool.endpoints().get(1);
+
+    @Test
+    void prefersInstanceWithFewerOutstandingRequests() {
+        pool.started(first);
+        pool.started(first);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(pool.choose(0, new Random(i))).isSameAs(second);
+        }
+    }
+
+    @Test
+    void prefersFasterInstance() {
+        pool.started(first);
+        pool.succeeded(first, TimeUnit.MILLISECONDS.toNanos(200));
+        pool.started(second);
+        pool.succeeded(second, TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertThat(pool.choose(0, new Random(1))).isSameAs(second);
+    }
+
+    @Test
+    void ejectsAfterConsecutiveFailuresUntilEjectionTimePasses() {
+        for (int i = 0; i < 3; i++) {
+            pool.started(second);
+            pool.failed(second, 0);
+        }
+        // Make the ejected instance look more attractive than the healthy one
+        pool.started(first);
+
+        assertThat(second.isEjected(1)).isTrue();
+        assertThat(pool.choose(1, new Random(7))).isSameAs(first);
+        assertThat(second.isEjected(EJECTION + 1)).isFalse();
+    }
+
+    @Test
+    void successResetsFailureRun() {
+        for (int i = 0; i < 2; i++) {
+            pool.started(second);
+            pool.failed(second, 0);
+        }
+        pool.started(second);
+        pool.succeeded(second, 1_000);
+        pool.started(second);
+        pool.failed(second, 0);
+
+        assertThat(second.isEjected(1)).isFalse();
+    }
+
+    @Test
+    void avoidedInstanceIsNotChosenEvenWhenItScoresBetter() {
+        pool.started(second);
+        pool.started(second);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(pool.choose(0, new Random(i), first)).isSameAs(second);
+        }
+    }
+
+    @Test
+    void avoidedInstanceIsChosenWhenItIsTheOnlyOne() {
+        ServicePool single = pool.withInstances(List.of(URI.create("http://localhost:9001")));
+
+        assertThat(single.choose(single.endpoints().get(0))).isSameAs(single.endpoints().get(0));
+    }
+
+    @Test
+    void reloadKeepsStatisticsOfRemainingInstances() {
+        pool.started(second);
+
+        ServicePool reloaded = pool.withInstances(List.of(
+                URI.create("http://localhost:9002"), URI.create("http://localhost:9003")));
+
+        assertThat(reloaded.endpoints()).hasSize(2);
+        assertThat(reloaded.endpoints().get(0)).isSameAs(second);
+        assertThat(reloaded.endpoints().get(0).outstanding()).isEqualTo(1);
+    }
+}
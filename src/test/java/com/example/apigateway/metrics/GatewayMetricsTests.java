@@ -0,0 +1,103 @@
+package com.example.apigateway.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GatewayMetricsTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GatewayMetrics metrics = new GatewayMetrics(registry);
+
+    @Test
+    void recordsRequestsByRouteAndOutcome() {
+        metrics.recordRequest("user-service", 200, 1_000_000);
+        metrics.recordRequest("user-service", 201, 1_000_000);
+        metrics.recordRequest("user-service", 404, 1_000_000);
+        metrics.recordRequest("email-service", 503, 1_000_000);
+        metrics.recordRequest("email-service", 0, 1_000_000);
+
+        assertThat(requests("user-service", "SUCCESS").count()).isEqualTo(2);
+        assertThat(requests("user-service", "CLIENT_ERROR").count()).isEqualTo(1);
+        assertThat(requests("email-service", "SERVER_ERROR").count()).isEqualTo(1);
+        assertThat(requests("email-service", "UNKNOWN").count()).isEqualTo(1);
+        assertThat(requests("email-service", "SUCCESS").count()).isZero();
+    }
+
+    @Test
+    void tagsAuthRejectionsWithStatus() {
+        metrics.authRejected("user-service", 401);
+        metrics.authRejected("user-service", 401);
+        metrics.authRejected("user-admin-service", 403);
+
+        assertThat(authRejections("user-service", "401").count()).isEqualTo(2);
+        assertThat(authRejections("user-service", "403").count()).isZero();
+        assertThat(authRejections("user-admin-service", "403").count()).isEqualTo(1);
+    }
+
+    @Test
+    void requestFilterTagsTheMatchedRoute() {
+        MockServerWebExchange exchange = exchangeFor("user-service");
+        GatewayFilterChain chain = ex -> {
+            ex.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+            return Mono.empty();
+        };
+
+        new RequestMetricsFilter(metrics).filter(exchange, chain).block();
+
+        assertThat(requests("user-service", "CLIENT_ERROR").count()).isEqualTo(1);
+        assertThat(registry.find("gateway.requests").tag("route", GatewayMetrics.UNKNOWN_ROUTE).timers()).isEmpty();
+    }
+
+    @Test
+    void requestWithoutRouteIsTaggedUnknown() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/nowhere"));
+
+        new RequestMetricsFilter(metrics).filter(exchange, ex -> Mono.empty()).block();
+
+        assertThat(registry.get("gateway.requests").tag("route", GatewayMetrics.UNKNOWN_ROUTE).timers()).hasSize(6);
+    }
+
+    @Test
+    void upstreamFilterRecordsPerRoute() {
+        MockServerWebExchange exchange = exchangeFor("email-service");
+
+        new UpstreamMetricsFilter(metrics).filter(exchange, ex -> Mono.empty()).block();
+
+        Timer timer = registry.get("gateway.upstream.latency").tag("route", "email-service").timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    private Timer requests(String routeId, String outcome) {
+        return registry.get("gateway.requests").tag("route", routeId).tag("outcome", outcome).timer();
+    }
+
+    private Counter authRejections(String routeId, String status) {
+        return registry.get("gateway.auth.rejections").tag("route", routeId).tag("status", status).counter();
+    }
+
+    private static MockServerWebExchange exchangeFor(String routeId) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/test"));
+        Route route = Route.async()
+                .id(routeId)
+                .uri(URI.create("http://localhost:1"))
+                .predicate(ex -> true)
+                .build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.apigateway.policy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorsPolicyTests {
+
+    private final CorsPolicy policy = CorsPolicy.builder()
+            .allowedOrigins(List.of("https://app.example.com", "http://localhost:*"))
+            .allowedMethods(List.of("GET", "POST"))
+            .allowedHeaders(List.of("*"))
+            .allowCredentials(true)
+            .maxAge(Duration.ofHours(1))
+            .build();
+
+    @Test
+    void exactOriginsShareOnePreparedHeaderSet() {
+        assertThat(policy.lookup("https://app.example.com")).isSameAs(policy.lookup("https://app.example.com"));
+        assertThat(policy.lookup("https://evil.example.com")).isNull();
+        assertThat(policy.lookup(null)).isNull();
+    }
+
+    @Test
+    void portWildcardMatchesAnyPortOrNone() {
+        assertThat(policy.lookup("http://localhost:5173")).isNotNull();
+        assertThat(policy.lookup("http://localhost")).isNotNull();
+        assertThat(policy.lookup("http://localhost.evil.com")).isNull();
+        assertThat(policy.lookup("https://localhost:5173")).isNull();
+        assertThat(policy.lookup("http://localhost:5173")).isSameAs(policy.lookup("http://localhost:5173"));
+    }
+
+    @Test
+    void writesPreflightHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        policy.lookup("http://localhost:3000").applyPreflightTo(headers, "authorization, content-type");
+
+        assertThat(headers.getAccessControlAllowOrigin()).isEqualTo("http://localhost:3000");
+        assertThat(headers.getAccessControlAllowCredentials()).isTrue();
+        assertThat(headers.getFirst(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS)).isEqualTo("GET, POST");
+        assertThat(headers.getFirst(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS)).isEqualTo("authorization, content-type");
+        assertThat(headers.getAccessControlMaxAge()).isEqualTo(3600);
+        assertThat(policy.allowsMethod("POST")).isTrue();
+        assertThat(policy.allowsMethod("DELETE")).isFalse();
+    }
+
+    @Test
+    void actualResponseHeadersAreWrittenOnce() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        CorsPolicy.Origin origin = policy.lookup("https://app.example.com");
+
+        origin.applyTo(headers);
+        origin.applyTo(headers);
+
+        assertThat(headers.get(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).containsExactly("https://app.example.com");
+        assertThat(headers.get(HttpHeaders.VARY)).containsExactly(HttpHeaders.ACCEPT_ENCODING, HttpHeaders.ORIGIN);
+        assertThat(headers.containsKey(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS)).isFalse();
+    }
+
+    @Test
+    void checksRequestedHeadersAgainstExplicitList() {
+        CorsPolicy strict = CorsPolicy.builder()
+                .allowedOrigins(List.of("https://app.example.com"))
+                .allowedHeaders(List.of("Authorization", "Content-Type"))
+                .build();
+
+        assertThat(strict.allowsHeaders("authorization, content-type")).isTrue();
+        assertThat(strict.allowsHeaders("x-custom")).isFalse();
+        assertThat(strict.echoesRequestHeaders()).isFalse();
+    }
+}
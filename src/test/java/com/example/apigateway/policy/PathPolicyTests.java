@@ -0,0 +1,57 @@
+package com.example.apigateway.policy;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PathPolicyTests {
+
+    private final PathPolicy policy = PathPolicy.builder()
+            .add(AccessDecision.PUBLIC, "/")
+            .add(AccessDecision.PUBLIC, "/static/**")
+            .add(AccessDecision.PUBLIC, "/api/auth/login")
+            .add(AccessDecision.PUBLIC, "/api/subscriptions/available/**")
+            .add(AccessDecision.ADMIN, "/api/admin/**")
+            .add(AccessDecision.ADMIN, "/api/*/admin/**")
+            .build();
+
+    @Test
+    void exactPatternsMatchOnlyThemselves() {
+        assertThat(policy.decide("/")).isEqualTo(AccessDecision.PUBLIC);
+        assertThat(policy.decide("/api/auth/login")).isEqualTo(AccessDecision.PUBLIC);
+        assertThat(policy.decide("/api/auth/login2")).isEqualTo(AccessDecision.AUTHENTICATED);
+        assertThat(policy.decide("/api/auth/logout")).isEqualTo(AccessDecision.AUTHENTICATED);
+    }
+
+    @Test
+    void prefixPatternsMatchBaseAndSubtreeOnSegmentBoundary() {
+        assertThat(policy.decide("/static")).isEqualTo(AccessDecision.PUBLIC);
+        assertThat(policy.decide("/static/app.js")).isEqualTo(AccessDecision.PUBLIC);
+        assertThat(policy.decide("/staticfile")).isEqualTo(AccessDecision.AUTHENTICATED);
+        assertThat(policy.decide("/api/subscriptions/available/categories")).isEqualTo(AccessDecision.PUBLIC);
+    }
+
+    @Test
+    void wildcardSegmentsMatchOneSegment() {
+        assertThat(policy.decide("/api/admin/users")).isEqualTo(AccessDecision.ADMIN);
+        assertThat(policy.decide("/api/subscriptions/admin/all")).isEqualTo(AccessDecision.ADMIN);
+        assertThat(policy.decide("/api/user-subscriptions/admin/send-reminders")).isEqualTo(AccessDecision.ADMIN);
+        assertThat(policy.decide("/api/users/profile")).isEqualTo(AccessDecision.AUTHENTICATED);
+        assertThat(policy.decide("/api/a/b/admin/x")).isEqualTo(AccessDecision.AUTHENTICATED);
+    }
+
+    @Test
+    void unknownPathsGetDefaultDecision() {
+        assertThat(policy.decide("/api/user-subscriptions")).isEqualTo(AccessDecision.AUTHENTICATED);
+        assertThat(policy.decide("")).isEqualTo(AccessDecision.AUTHENTICATED);
+    }
+
+    @Test
+    void rejectsInvalidPatterns() {
+        assertThatThrownBy(() -> PathPolicy.builder().add(AccessDecision.PUBLIC, "api"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PathPolicy.builder().add(AccessDecision.PUBLIC, "/api/foo*"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.apigateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTests {
+
+    private final RateLimiter limiter = new RateLimiter(3, 1.0, 1_000, Duration.ofMinutes(1));
+
+    @Test
+    void allowsBurstUpToCapacityThenRejects() {
+        long now = 0;
+
+        assertThat(limiter.tryAcquire("alice", now).remaining()).isEqualTo(2);
+        assertThat(limiter.tryAcquire("alice", now).remaining()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("alice", now).remaining()).isEqualTo(0);
+
+        RateLimiter.Result rejected = limiter.tryAcquire("alice", now);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.retryAfterSeconds()).isEqualTo(1);
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        long now = 0;
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice", now);
+        }
+
+        assertThat(limiter.tryAcquire("alice", now + TimeUnit.MILLISECONDS.toNanos(500)).allowed()).isFalse();
+        assertThat(limiter.tryAcquire("alice", now + TimeUnit.SECONDS.toNanos(1)).allowed()).isTrue();
+    }
+
+    @Test
+    void keysAreIndependent() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice", 0);
+        }
+
+        assertThat(limiter.tryAcquire("alice", 0).allowed()).isFalse();
+        assertThat(limiter.tryAcquire("bob", 0).allowed()).isTrue();
+    }
+}
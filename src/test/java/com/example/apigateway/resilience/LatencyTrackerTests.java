@@ -0,0 +1,41 @@
+package com.example.apigateway.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LatencyTrackerTests {
+
+    @Test
+    void unknownUntilEnoughSamples() {
+        LatencyTracker tracker = new LatencyTracker(256, 0.95);
+        for (int i = 0; i < 31; i++) {
+            tracker.record(1_000);
+        }
+
+        assertThat(tracker.percentileNanos()).isEqualTo(-1);
+    }
+
+    @Test
+    void computesPercentileOfRecentSamples() {
+        LatencyTracker tracker = new LatencyTracker(80, 0.95);
+        for (int i = 1; i <= 80; i++) {
+            tracker.record(i);
+        }
+
+        assertThat(tracker.percentileNanos()).isEqualTo(76);
+    }
+
+    @Test
+    void oldSamplesAgeOut() {
+        LatencyTracker tracker = new LatencyTracker(64, 0.5);
+        for (int i = 0; i < 64; i++) {
+            tracker.record(1_000_000);
+        }
+        for (int i = 0; i < 64; i++) {
+            tracker.record(10);
+        }
+
+        assertThat(tracker.percentileNanos()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.apigateway.revocation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevocationListTests {
+
+    private static final long NOW = 1_700_000_000L;
+
+    private final RevocationList list = new RevocationList(16, 0.01);
+
+    @Test
+    void revokesTokenById() {
+        list.add(token("jti-1", NOW + 600));
+
+        assertThat(list.isRevoked("jti-1", "alice", Instant.ofEpochSecond(NOW - 10))).isTrue();
+        assertThat(list.isRevoked("jti-2", "alice", Instant.ofEpochSecond(NOW - 10))).isFalse();
+    }
+
+    @Test
+    void subjectRevocationCoversOnlyEarlierTokens() {
+        list.add(new RevocationList.Entry(RevocationList.Kind.SUBJECT, "alice", NOW, NOW + 600));
+
+        assertThat(list.isRevoked(null, "alice", Instant.ofEpochSecond(NOW - 1))).isTrue();
+        assertThat(list.isRevoked(null, "alice", Instant.ofEpochSecond(NOW + 1))).isFalse();
+        assertThat(list.isRevoked(null, "alice", null)).isTrue();
+        assertThat(list.isRevoked(null, "bob", Instant.ofEpochSecond(NOW - 1))).isFalse();
+    }
+
+    @Test
+    void loginInTheSecondOfTheRevocationIsNotRevoked() {
+        list.add(new RevocationList.Entry(RevocationList.Kind.SUBJECT, "alice", NOW, NOW + 600));
+
+        assertThat(list.isRevoked(null, "alice", Instant.ofEpochSecond(NOW).plusMillis(999))).isFalse();
+        assertThat(list.isRevoked(null, "alice", Instant.ofEpochSecond(NOW))).isFalse();
+        assertThat(list.isRevoked(null, "alice", Instant.ofEpochSecond(NOW).minusMillis(1))).isTrue();
+    }
+
+    @Test
+    void purgeDropsExpiredEntries() {
+        list.add(token("short", NOW + 10));
+        list.add(token("long", NOW + 600));
+
+        assertThat(list.purge(NOW + 10)).isEqualTo(1);
+
+        assertThat(list.isRevoked("short", null, null)).isFalse();
+        assertThat(list.isRevoked("long", null, null)).isTrue();
+    }
+
+    @Test
+    void growsPastExpectedSizeWithoutLosingEntries() {
+        for (int i = 0; i < 1000; i++) {
+            list.add(token("jti-" + i, NOW + 600));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(list.isRevoked("jti-" + i, null, null)).isTrue();
+        }
+        assertThat(list.tokenCount()).isEqualTo(1000);
+    }
+
+    @Test
+    void snapshotRoundTrip(@TempDir Path dir) throws Exception {
+        list.add(token("jti-1", NOW + 600));
+        list.add(new RevocationList.Entry(RevocationList.Kind.SUBJECT, "alice", NOW, NOW + 600));
+        Path file = dir.resolve("revocations.bin");
+
+        RevocationSnapshot.write(file, list.entries());
+        List<RevocationList.Entry> entries = RevocationSnapshot.read(file);
+
+        assertThat(entries).containsExactlyInAnyOrderElementsOf(list.entries());
+    }
+
+    private static RevocationList.Entry token(String id, long expiresAt) {
+        return new RevocationList.Entry(RevocationList.Kind.TOKEN, id, NOW, expiresAt);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.apigateway.routing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RouteIndexTests {
+
+    private final RouteIndex<String> index = RouteIndex.<String>builder()
+            .add("/", Set.of(), 0, "root")
+            .add("/api/**", Set.of(), 0, "api")
+            .add("/api/users/**", Set.of(), 0, "users")
+            .add("/api/admin/users/**", Set.of(), 0, "admin-users")
+            .add("/api/*/admin/**", Set.of(), 0, "any-admin")
+            .add("/api/orders/**", Set.of(HttpMethod.GET), 0, "orders-read")
+            .add("/api/orders/**", Set.of(), 1, "orders")
+            .build();
+
+    @Test
+    void longestLiteralPrefixWins() {
+        assertThat(match("/api/users/42")).isEqualTo("users");
+        assertThat(match("/api/admin/users/42")).isEqualTo("admin-users");
+        assertThat(match("/api/other")).isEqualTo("api");
+        assertThat(match("/")).isEqualTo("root");
+    }
+
+    @Test
+    void fallsBackToShorterPrefixWhenDeeperPatternsDoNotMatch() {
+        assertThat(match("/api/billing/admin/x")).isEqualTo("any-admin");
+        assertThat(match("/api/users")).isEqualTo("users");
+    }
+
+    @Test
+    void methodsAndOrderBreakTies() {
+        assertThat(index.match(PathContainer.parsePath("/api/orders/1"), HttpMethod.GET)).isEqualTo("orders-read");
+        assertThat(index.match(PathContainer.parsePath("/api/orders/1"), HttpMethod.POST)).isEqualTo("orders");
+    }
+
+    @Test
+    void returnsNullWithoutMatch() {
+        assertThat(match("/other")).isNull();
+    }
+
+    @Test
+    void literalPrefixStopsAtFirstWildcardSegment() {
+        assertThat(RouteIndex.literalPrefix("/api/*/admin/**")).containsExactly("api");
+        assertThat(RouteIndex.literalPrefix("/index.html")).containsExactly("index.html");
+        assertThat(RouteIndex.literalPrefix("/users/{id}")).containsExactly("users");
+        assertThat(RouteIndex.literalPrefix("/")).isEmpty();
+    }
+
+    private String match(String path) {
+        return index.match(PathContainer.parsePath(path), HttpMethod.GET);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.apigateway.staticassets;
+
+import com.example.apigateway.config.StaticAssetProperties;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaticAssetRegistryTests {
+
+    private final StaticAssetProperties properties = new StaticAssetProperties();
+
+    @Test
+    void loadsClasspathAssetsWithGzipVariant() {
+        Map<String, StaticAsset> assets = StaticAssetRegistry.load(properties);
+
+        StaticAsset index = assets.get("/index.html");
+        assertThat(index).isNotNull();
+        assertThat(assets.get("/")).isSameAs(index);
+        assertThat(assets.get("/static/index.html")).isSameAs(index);
+        assertThat(index.cacheControl()).isEqualTo("no-cache");
+        assertThat(index.gzip()).isNotNull();
+        assertThat(index.gzip().size()).isLessThan(index.identity().size());
+        assertThat(index.gzip().etag()).isNotEqualTo(index.identity().etag());
+        assertThat(index.identity().content().isDirect()).isTrue();
+        assertThat(index.identity().content().isReadOnly()).isTrue();
+    }
+
+    @Test
+    void fingerprintedAssetsAreImmutable() {
+        byte[] script = "console.log('x');".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        StaticAsset plain = StaticAssetRegistry.compile("/js/app.js", script, null, properties);
+        StaticAsset hashed = StaticAssetRegistry.compile("/js/app.3f9a2c1b.js", script, null, properties);
+
+        assertThat(plain.cacheControl()).isEqualTo("public, max-age=3600");
+        assertThat(hashed.cacheControl()).isEqualTo(StaticAssetRegistry.IMMUTABLE);
+        assertThat(hashed.identity().etag()).isEqualTo(plain.identity().etag());
+    }
+
+    @Test
+    void smallAndBinaryAssetsAreNotCompressed() {
+        StaticAsset small = StaticAssetRegistry.compile("/a.css", "a{}".getBytes(StandardCharsets.UTF_8), null, properties);
+        StaticAsset image = StaticAssetRegistry.compile("/logo.png", new byte[4096], null, properties);
+
+        assertThat(small.gzip()).isNull();
+        assertThat(small.compressible()).isFalse();
+        assertThat(image.gzip()).isNull();
+    }
+
+    @Test
+    void negotiatesEncoding() {
+        byte[] css = "body { margin: 0; }\n".repeat(200).getBytes(StandardCharsets.UTF_8);
+        StaticAsset asset = StaticAssetRegistry.compile("/site.css", css, new byte[]{1, 2, 3}, properties);
+
+        assertThat(asset.select(AcceptEncoding.parse("gzip, deflate, br")).encoding()).isEqualTo("br");
+        assertThat(asset.select(AcceptEncoding.parse("gzip, br;q=0")).encoding()).isEqualTo("gzip");
+        assertThat(asset.select(AcceptEncoding.parse("identity")).encoding()).isNull();
+        assertThat(asset.select(AcceptEncoding.parse("*")).encoding()).isEqualTo("br");
+        assertThat(asset.select(AcceptEncoding.parse(null)).encoding()).isNull();
+    }
+
+    @Test
+    void matchesIfNoneMatch() {
+        assertThat(StaticAssetHandler.notModified(List.of("\"a\", \"b-gz\""), "\"b-gz\"")).isTrue();
+        assertThat(StaticAssetHandler.notModified(List.of("W/\"a\""), "\"a\"")).isTrue();
+        assertThat(StaticAssetHandler.notModified(List.of("\"a\""), "\"a-gz\"")).isFalse();
+        assertThat(StaticAssetHandler.notModified(null, "\"a\"")).isFalse();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.apigateway.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonErrorBodyTests {
+
+    @Test
+    void rendersValidJsonWithTimestamp() throws Exception {
+        JsonErrorBody body = JsonErrorBody.of("Invalid or expired token", 401);
+
+        JsonNode json = new ObjectMapper().readTree(body.render(1_700_000_000_123L));
+
+        assertThat(json.get("success").asBoolean()).isFalse();
+        assertThat(json.get("message").asText()).isEqualTo("Invalid or expired token");
+        assertThat(json.get("status").asInt()).isEqualTo(401);
+        assertThat(json.get("timestamp").asLong()).isEqualTo(1_700_000_000_123L);
+    }
+
+    @Test
+    void renderDoesNotChangeTemplate() throws Exception {
+        JsonErrorBody body = JsonErrorBody.of("Admin access required", 403);
+        body.render(1_700_000_000_123L);
+
+        JsonNode json = new ObjectMapper().readTree(body.render(1_800_000_000_456L));
+
+        assertThat(json.get("timestamp").asLong()).isEqualTo(1_800_000_000_456L);
+    }
+
+    @Test
+    void rejectsMessageThatNeedsEscaping() {
+        assertThatThrownBy(() -> JsonErrorBody.of("say \"hi\"", 400)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
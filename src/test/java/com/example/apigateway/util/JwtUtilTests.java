@@ -0,0 +1,100 @@
+package com.example.apigateway.util;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTests {
+
+    private static final String SECRET = "mySecretKey123456789012345678901234567890";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        jwtUtil.init();
+    }
+
+    @Test
+    void verifyReturnsPrincipalForValidToken() {
+        String token = token(SECRET, "alice", "ADMIN", 60_000);
+
+        JwtPrincipal principal = jwtUtil.verify(token);
+
+        assertThat(principal).isNotNull();
+        assertThat(principal.username()).isEqualTo("alice");
+        assertThat(principal.role()).isEqualTo("ADMIN");
+        assertThat(principal.expiresAt()).isNotNull();
+    }
+
+    @Test
+    void verifyServesRepeatedTokenFromCache() {
+        String token = token(SECRET, "alice", "USER", 60_000);
+
+        assertThat(jwtUtil.verify(token)).isSameAs(jwtUtil.verify(token));
+    }
+
+    @Test
+    void verifyDefaultsRoleToUser() {
+        JwtPrincipal principal = jwtUtil.verify(token(SECRET, "bob", null, 60_000));
+
+        assertThat(principal).isNotNull();
+        assertThat(principal.role()).isEqualTo("USER");
+    }
+
+    @Test
+    void verifyRejectsExpiredToken() {
+        assertThat(jwtUtil.verify(token(SECRET, "alice", "USER", -60_000))).isNull();
+    }
+
+    @Test
+    void verifyRejectsBadSignature() {
+        String token = token("anotherSecretKey12345678901234567890123456", "alice", "USER", 60_000);
+
+        assertThat(jwtUtil.verify(token)).isNull();
+    }
+
+    @Test
+    void verifyServesRepeatedRejectionFromNegativeCache() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "meterRegistry", registry);
+        jwtUtil.init();
+        String token = token("anotherSecretKey12345678901234567890123456", "alice", "USER", 60_000);
+
+        assertThat(jwtUtil.verify(token)).isNull();
+        assertThat(jwtUtil.verify(token)).isNull();
+
+        assertThat(registry.get("gateway.jwt.verification").tag("result", "rejected").timer().count()).isEqualTo(1);
+        assertThat(registry.get("gateway.jwt.verification").tag("result", "rejected-cached").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void verifyRejectsGarbage() {
+        assertThat(jwtUtil.verify("not-a-jwt")).isNull();
+        assertThat(jwtUtil.verify("")).isNull();
+        assertThat(jwtUtil.verify(null)).isNull();
+    }
+
+    static String token(String secret, String subject, String role, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        var builder = Jwts.builder()
+                .subject(subject)
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + ttlMillis));
+        if (role != null) {
+            builder.claim("role", role);
+        }
+        return builder.signWith(Keys.hmacShaKeyFor(secret.getBytes())).compact();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.apigateway.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogThrottleTests {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void dropsLinesOverBudgetAndReportsThemLater() {
+        LogThrottle throttle = new LogThrottle(2, Duration.ofSeconds(1), 0);
+
+        assertThat(throttle.tryAcquire(0)).isZero();
+        assertThat(throttle.tryAcquire(1)).isZero();
+        assertThat(throttle.tryAcquire(2)).isEqualTo(-1);
+        assertThat(throttle.tryAcquire(3)).isEqualTo(-1);
+
+        assertThat(throttle.tryAcquire(SECOND)).isEqualTo(2);
+        assertThat(throttle.tryAcquire(SECOND + 1)).isZero();
+        assertThat(throttle.tryAcquire(SECOND + 2)).isEqualTo(-1);
+    }
+}